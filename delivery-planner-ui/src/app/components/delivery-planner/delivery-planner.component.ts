@@ -14,6 +14,8 @@ import {
   DeliveryPlannerService,
   Position,
   DeliveryRoute,
+  GridConfig,
+  TrafficEdgeEdit,
 } from "../../services/delivery-planner.service";
 import {
   animate,
@@ -136,6 +138,16 @@ export class DeliveryPlannerComponent
   // Theme
   isDarkTheme = false;
 
+  // Plan with trace level FULL so the animated route's expanded cells can be
+  // shaded; off by default, since every route then carries its whole trace
+  showExpansions = false;
+
+  // Grid held on the server: traffic edits are sent as a PATCH so the
+  // server keeps the cached routes they cannot affect
+  private serverGridId: string | null = null;
+  private serverGridLayout: string | null = null;
+  private serverTraffic: number[][][] | null = null;
+
   constructor(
     private deliveryService: DeliveryPlannerService,
     private gridInteraction: GridInteractionService,
@@ -484,6 +496,14 @@ export class DeliveryPlannerComponent
 
     // Draw routes if any
     if (this.resultsService.routes.length > 0) {
+      if (this.showExpansions) {
+        this.gridRenderer.drawExpanded(
+          this.resultsService.routes,
+          this.animationService.isAnimationActive(),
+          this.animationService.getCurrentRoute(),
+          this.gridState.cellSize
+        );
+      }
       this.gridRenderer.drawRoutes(
         this.resultsService.routes,
         this.animationService.isAnimationActive(),
@@ -763,9 +783,22 @@ export class DeliveryPlannerComponent
         this.gridState.selectedStrategy
       );
 
-      const response = await this.deliveryService
-        .planDelivery(gridConfig, backendStrategy)
-        .toPromise();
+      // Without expansions the server's default trace level applies
+      const traceLevel = this.showExpansions ? "FULL" : undefined;
+
+      let response;
+      try {
+        const id = await this.syncServerGrid(gridConfig);
+        response = await this.deliveryService
+          .planOnGrid(id, backendStrategy, "routes", traceLevel)
+          .toPromise();
+      } catch {
+        // Server forgot the grid (restart or eviction): send it whole
+        this.serverGridId = null;
+        response = await this.deliveryService
+          .planDelivery(gridConfig, backendStrategy, "routes", traceLevel)
+          .toPromise();
+      }
 
       if (response && response.success) {
         const newRoutes = response.routes || [];
@@ -795,6 +828,61 @@ export class DeliveryPlannerComponent
     }
   }
 
+  // Registers the grid on the server, or patches its traffic when only
+  // traffic changed since the last plan; returns the server grid id
+  private async syncServerGrid(grid: GridConfig): Promise<string> {
+    const layout = JSON.stringify({
+      rows: grid.rows,
+      cols: grid.cols,
+      stores: grid.stores,
+      destinations: grid.destinations,
+      tunnels: grid.tunnels,
+      roadblocks: grid.roadblocks,
+    });
+
+    if (this.serverGridId && this.serverTraffic && layout === this.serverGridLayout) {
+      const edits = this.trafficEdits(this.serverTraffic, grid.traffic);
+      if (edits.length > 0) {
+        await this.deliveryService
+          .patchTraffic(this.serverGridId, edits)
+          .toPromise();
+      }
+    } else {
+      if (this.serverGridId) {
+        this.deliveryService.removeGrid(this.serverGridId).subscribe({ error: () => {} });
+      }
+      const registered = await this.deliveryService
+        .registerGrid(grid)
+        .toPromise();
+      this.serverGridId = registered!.id;
+      this.serverGridLayout = layout;
+    }
+    this.serverTraffic = JSON.parse(JSON.stringify(grid.traffic));
+    return this.serverGridId!;
+  }
+
+  private trafficEdits(
+    before: number[][][],
+    after: number[][][]
+  ): TrafficEdgeEdit[] {
+    const directions = ["up", "down", "left", "right"];
+    const edits: TrafficEdgeEdit[] = [];
+    for (let y = 0; y < after.length; y++) {
+      for (let x = 0; x < after[y].length; x++) {
+        for (let d = 0; d < 4; d++) {
+          if (after[y][x][d] !== before[y]?.[x]?.[d]) {
+            edits.push({
+              from: { x, y },
+              direction: directions[d],
+              traffic: after[y][x][d],
+            });
+          }
+        }
+      }
+    }
+    return edits;
+  }
+
   private updateDetailedResults(): void {
     this.resultsService.updateDetailedResults(
       this.gridState.gridCols,
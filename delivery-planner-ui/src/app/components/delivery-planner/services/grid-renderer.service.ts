@@ -4,12 +4,16 @@ import {
   TunnelConfig,
   RoadBlockConfig,
   DeliveryRoute,
+  decodeTrace,
 } from "../../../services/delivery-planner.service";
 
 @Injectable()
 export class GridRendererService {
   private ctx!: CanvasRenderingContext2D;
   private isDarkTheme = false;
+  // Last decoded expansion trace; decoding happens once per route shown
+  private decodedTrace: string | null = null;
+  private decodedCells: Position[] = [];
 
   setContext(ctx: CanvasRenderingContext2D): void {
     this.ctx = ctx;
@@ -247,6 +251,29 @@ export class GridRendererService {
     this.ctx.setLineDash([]);
   }
 
+  // Shades the cells the animating route's search expanded (planned with trace level FULL)
+  drawExpanded(
+    routes: DeliveryRoute[],
+    isAnimating: boolean,
+    currentAnimatingRoute: number,
+    cellSize: number
+  ): void {
+    if (!isAnimating) return;
+    const route = routes[currentAnimatingRoute];
+    if (!route || !route.expandedTrace) return;
+
+    if (route.expandedTrace !== this.decodedTrace) {
+      this.decodedCells = decodeTrace(route.expandedTrace);
+      this.decodedTrace = route.expandedTrace;
+    }
+    this.ctx.fillStyle = this.isDarkTheme
+      ? "rgba(255, 213, 79, 0.15)"
+      : "rgba(255, 193, 7, 0.2)";
+    for (const cell of this.decodedCells) {
+      this.ctx.fillRect(cell.x * cellSize, cell.y * cellSize, cellSize, cellSize);
+    }
+  }
+
   drawRoutes(
     routes: DeliveryRoute[],
     isAnimating: boolean,
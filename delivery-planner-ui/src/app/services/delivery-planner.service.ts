@@ -33,12 +33,69 @@ export interface DeliveryRoute {
   path: Position[];
   cost: number;
   expanded: number;
+  suboptimalityBound?: number | null;
+  leg?: number | null; // "tour" mode: position in the store's tour
+  expandedTrace?: string | null; // trace level FULL only; see decodeTrace()
+}
+
+// One store's truck visiting its destinations in order and returning
+export interface Tour {
+  store: Position;
+  stops: Position[];
+  cost: number;
+  exact: boolean;
+}
+
+export type PlanningMode = "routes" | "tour";
+
+// OFF: no expansion trace; COUNTERS: bounding box only; FULL: every expanded cell
+export type TraceLevel = "OFF" | "COUNTERS" | "FULL";
+
+// Cells a route's search expanded, in order. The trace is base64 of zigzag
+// varints: dx then dy from the previous cell, the first from (0, 0).
+export function decodeTrace(expandedTrace: string): Position[] {
+  const bytes = atob(expandedTrace);
+  const cells: Position[] = [];
+  let pos = 0;
+  const next = (): number => {
+    let v = 0;
+    for (let shift = 0; ; shift += 7) {
+      const b = bytes.charCodeAt(pos++);
+      v |= (b & 0x7f) << shift;
+      if (b < 0x80) break;
+    }
+    return (v >>> 1) ^ -(v & 1);
+  };
+  let x = 0;
+  let y = 0;
+  while (pos < bytes.length) {
+    x += next();
+    y += next();
+    cells.push({ x, y });
+  }
+  return cells;
+}
+
+export interface TrafficEdgeEdit {
+  from: Position;
+  direction: string; // "up", "down", "left", "right"
+  traffic: number; // 0 closes the road
+}
+
+export interface TrafficPatchResult {
+  edits: number;
+  changedRoads: number;
+  routesKept: number;
+  routesDropped: number;
+  fieldsKept: number;
+  fieldsDropped: number;
 }
 
 export interface PlanningResponse {
   success: boolean;
   message: string;
   routes: DeliveryRoute[];
+  tours?: Tour[];
 }
 
 @Injectable({
@@ -51,14 +108,50 @@ export class DeliveryPlannerService {
 
   planDelivery(
     grid: GridConfig,
-    strategy: string
+    strategy: string,
+    mode: PlanningMode = "routes",
+    traceLevel?: TraceLevel
   ): Observable<PlanningResponse> {
     return this.http.post<PlanningResponse>(`${this.apiUrl}/plan`, {
       grid,
       strategy,
+      mode,
+      traceLevel,
+    });
+  }
+
+  // Keeps the grid on the server so later traffic edits can be sent as a PATCH
+  registerGrid(grid: GridConfig): Observable<{ id: string }> {
+    return this.http.post<{ id: string }>(`${this.apiUrl}/grids`, grid);
+  }
+
+  patchTraffic(
+    id: string,
+    edits: TrafficEdgeEdit[]
+  ): Observable<TrafficPatchResult> {
+    return this.http.patch<TrafficPatchResult>(
+      `${this.apiUrl}/grids/${id}/traffic`,
+      { edits }
+    );
+  }
+
+  planOnGrid(
+    id: string,
+    strategy: string,
+    mode: PlanningMode = "routes",
+    traceLevel?: TraceLevel
+  ): Observable<PlanningResponse> {
+    return this.http.post<PlanningResponse>(`${this.apiUrl}/grids/${id}/plan`, {
+      strategy,
+      mode,
+      traceLevel,
     });
   }
 
+  removeGrid(id: string): Observable<void> {
+    return this.http.delete<void>(`${this.apiUrl}/grids/${id}`);
+  }
+
   checkService(): Observable<string> {
     return this.http.get(`${this.apiUrl}/check`, { responseType: "text" });
   }
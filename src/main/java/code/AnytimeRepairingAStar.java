@@ -0,0 +1,216 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ARA* (anytime repairing A*), strategies "ARA1" and "ARA2".
+ *
+ * Runs a series of weighted A* searches with f = g + w * h, starting at
+ * w = INITIAL_WEIGHT and lowering w by WEIGHT_STEP down to 1. Each search
+ * keeps the g values and parents of the previous one. Only the cells still
+ * open and the cells whose g improved after they were expanded (the INCONS
+ * list) are queued again, so later searches mostly repair the first route.
+ *
+ * After every search the route is published. Its cost is summed along the
+ * parent chain it was rebuilt from: g(goal) can be stale once cells in
+ * INCONS have taken new parents. With a consistent heuristic (heuristic 1)
+ * the route carries the bound eps = min(w, cost / min(g + h) over the open
+ * and INCONS cells) and costs at most eps times the optimum. Heuristic 2 is
+ * not admissible, so its routes carry no bound (NaN) and its searches stop
+ * after the one with w = 1 instead of at a proof of optimality.
+ *
+ * The result is the last route published when the time budget
+ * (SearchLimits.timeBudgetMs()) runs out, or the last search's route if the
+ * searches finish first (proven optimal, bound 1, for heuristic 1). The
+ * first search always runs to the end, so a reachable goal always gets a
+ * route.
+ */
+public final class AnytimeRepairingAStar {
+
+    // Weights in tenths: 3.0, 2.5, ..., 1.0
+    static final int INITIAL_WEIGHT = 30;
+    static final int WEIGHT_STEP = 5;
+    private static final int SCALE = 10;
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int CLOCK_INTERVAL = 256; // expansions between deadline checks
+
+    private final IntSearchProblem problem;
+    private final int heuristicId;
+    private final boolean admissible; // heuristic 2 overestimates, so it proves no bound
+    private final long deadline; // System.nanoTime() value; Long.MAX_VALUE when unlimited
+
+    private final int[] g, h, parent, parentCost, closedIn;
+    private final byte[] parentAction;
+    private final boolean[] inconsistent;
+    private int[] incons = new int[64];
+    private int inconsCount;
+    private final IndexedHeap open;
+    private int goalCell = -1;
+
+    private int nodesExpanded;
+    private final ExpansionTrace trace;
+    private SearchResult published;
+
+    private AnytimeRepairingAStar(IntSearchProblem problem, int heuristicId, long timeBudgetMs) {
+        this.problem = problem;
+        this.heuristicId = heuristicId;
+        this.admissible = heuristicId != 2;
+        this.trace = ExpansionTrace.forProblem(problem);
+        long now = System.nanoTime();
+        this.deadline = timeBudgetMs <= 0 || timeBudgetMs > (Long.MAX_VALUE - now) / 1_000_000
+                ? Long.MAX_VALUE : now + timeBudgetMs * 1_000_000;
+        int n = problem.cellCount();
+        g = new int[n];
+        h = new int[n];
+        parent = new int[n];
+        parentCost = new int[n];
+        closedIn = new int[n];
+        parentAction = new byte[n];
+        inconsistent = new boolean[n];
+        open = new IndexedHeap(n);
+        Arrays.fill(g, INF);
+        Arrays.fill(h, -1);
+    }
+
+    public static SearchResult search(IntSearchProblem problem, int heuristicId) {
+        return search(problem, heuristicId, IntGenericSearch.limits(problem).timeBudgetMs());
+    }
+
+    /** timeBudgetMs <= 0 runs until the route is proven optimal. */
+    public static SearchResult search(IntSearchProblem problem, int heuristicId, long timeBudgetMs) {
+        return new AnytimeRepairingAStar(problem, heuristicId, timeBudgetMs).run();
+    }
+
+    private SearchResult run() {
+        int root = problem.initialCell();
+        g[root] = 0;
+        parent[root] = -1;
+        if (problem.isGoalCell(root))
+            goalCell = root;
+        int w = INITIAL_WEIGHT;
+        open.push(root, key(root, w));
+
+        for (int iteration = 1;; iteration++) {
+            if (!improvePath(w, iteration))
+                break; // out of time: keep the last published route
+            if (goalCell < 0)
+                return unreachable();
+
+            // Drain open and INCONS: the bound needs their min g + h, and the
+            // next search queues them again under the lower weight
+            int[] pending = drain();
+            int cost = publish();
+            if (admissible)
+                published.suboptimalityBound = bound(w, cost, pending);
+            boolean done = admissible ? published.suboptimalityBound <= 1 : w == SCALE;
+            if (done || System.nanoTime() >= deadline)
+                break;
+
+            w = Math.max(SCALE, w - WEIGHT_STEP);
+            for (int cell : pending)
+                open.push(cell, key(cell, w));
+        }
+        return published;
+    }
+
+    // Weighted A* until no open cell could improve the goal under weight w;
+    // false if the deadline passed once a route had been published
+    private boolean improvePath(int w, int iteration) {
+        int[] cells = new int[problem.maxSuccessors()], costs = new int[cells.length];
+        byte[] actions = new byte[cells.length];
+
+        while (!open.isEmpty() && (goalCell < 0 || (long) g[goalCell] * SCALE > open.minKey())) {
+            if (published != null && nodesExpanded % CLOCK_INTERVAL == 0 && System.nanoTime() >= deadline)
+                return false;
+            int cell = open.pop();
+            closedIn[cell] = iteration;
+            nodesExpanded++;
+            trace.add(problem.stateOf(cell));
+
+            int count = problem.successors(cell, cells, costs, actions);
+            for (int i = 0; i < count; i++) {
+                int next = cells[i];
+                int cost = g[cell] + costs[i];
+                if (cost >= g[next])
+                    continue;
+                g[next] = cost;
+                parent[next] = cell;
+                parentCost[next] = costs[i];
+                parentAction[next] = actions[i];
+                if (goalCell < 0 && problem.isGoalCell(next))
+                    goalCell = next;
+                if (closedIn[next] != iteration)
+                    open.push(next, key(next, w));
+                else if (!inconsistent[next]) {
+                    inconsistent[next] = true;
+                    if (inconsCount == incons.length)
+                        incons = Arrays.copyOf(incons, inconsCount * 2);
+                    incons[inconsCount++] = next;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int[] drain() {
+        int[] cells = new int[open.size() + inconsCount];
+        int n = 0;
+        while (!open.isEmpty())
+            cells[n++] = open.pop();
+        for (int i = 0; i < inconsCount; i++) {
+            inconsistent[incons[i]] = false;
+            cells[n++] = incons[i];
+        }
+        inconsCount = 0;
+        return cells;
+    }
+
+    // min(w, cost / min g + h): with an admissible heuristic no open or
+    // INCONS cell can lead to a route cheaper than that min, so the optimum
+    // is at least it
+    private double bound(int w, int cost, int[] pending) {
+        long lowest = Long.MAX_VALUE;
+        for (int cell : pending)
+            lowest = Math.min(lowest, (long) g[cell] + heuristic(cell));
+        if (lowest == Long.MAX_VALUE || cost <= lowest)
+            return 1.0;
+        return Math.min(w / (double) SCALE, cost / (double) lowest);
+    }
+
+    private int key(int cell, int w) {
+        return (int) Math.min(INF - 1, (long) g[cell] * SCALE + (long) w * heuristic(cell));
+    }
+
+    private int heuristic(int cell) {
+        if (h[cell] < 0)
+            h[cell] = Heuristics.heuristic(problem, cell, heuristicId);
+        return h[cell];
+    }
+
+    // Publishes the route the parent chain holds now; returns its cost
+    private int publish() {
+        List<String> plan = new ArrayList<>();
+        List<State> states = new ArrayList<>();
+        int cost = 0;
+        for (int cell = goalCell; cell >= 0; cell = parent[cell]) {
+            states.add(problem.stateOf(cell));
+            if (parent[cell] >= 0) {
+                plan.add(problem.actionName(parentAction[cell]));
+                cost += parentCost[cell];
+            }
+        }
+        Collections.reverse(plan);
+        Collections.reverse(states);
+        published = new SearchResult(String.join(",", plan), cost, nodesExpanded, trace.snapshot(), states);
+        return cost;
+    }
+
+    private SearchResult unreachable() {
+        SearchResult r = new SearchResult("", -1, nodesExpanded, trace, new ArrayList<>());
+        r.suboptimalityBound = 1.0;
+        return r;
+    }
+}
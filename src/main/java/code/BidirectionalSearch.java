@@ -0,0 +1,242 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bidirectional searches over a DeliverySearch's CompiledGrid.
+ *
+ * The forward half walks the CSR from the start, the backward half walks
+ * CompiledGrid.reverse() from the goal, since traffic costs are directional.
+ * Expansions are reported per direction in SearchResult.
+ *
+ * - BFS: fewest-steps path, layer by layer from the side with the smaller frontier.
+ * - AStar: front-to-end bidirectional A* with consistent average potentials
+ *   p(v) = (h_goal(v) - h_start(v)) / 2 over Manhattan distance (heuristic 1);
+ *   with useHeuristic = false it is bidirectional Dijkstra. Both return the
+ *   same cost as UCS.
+ */
+public class BidirectionalSearch {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    // ------------------ Bidirectional BFS ------------------
+    public static SearchResult BFS(DeliverySearch problem) {
+        CompiledGrid graph = problem.getGraph();
+        CompiledGrid.Reverse rev = graph.reverse();
+        int n = graph.cellCount();
+        int s = problem.initialCell();
+        int t = graph.cellId(problem.getGoal());
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+        if (t < 0)
+            return emptyResult(0, 0, trace);
+
+        Halves h = new Halves(n, s, t);
+        int[] queueF = new int[n], queueB = new int[n];
+        int headF = 0, tailF = 0, headB = 0, tailB = 0;
+        queueF[tailF++] = s;
+        queueB[tailB++] = t;
+        int expandedF = 0, expandedB = 0;
+
+        if (s == t) {
+            trace.add(graph.state(s));
+            return h.result(graph, s, 1, 0, trace);
+        }
+
+        while (headF < tailF && headB < tailB) {
+            int best = INF, meet = -1;
+            if (tailF - headF <= tailB - headB) {
+                // Expand one whole forward layer
+                for (int end = tailF; headF < end; ) {
+                    int u = queueF[headF++];
+                    expandedF++;
+                    trace.add(graph.state(u));
+                    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                        int v = graph.targets[e];
+                        if (h.hopsF[v] != INF) continue;
+                        h.setForward(v, u, graph.actions[e], graph.costs[e], h.hopsF[u] + 1);
+                        queueF[tailF++] = v;
+                        if (h.hopsB[v] != INF && h.hopsF[v] + h.hopsB[v] < best) {
+                            best = h.hopsF[v] + h.hopsB[v];
+                            meet = v;
+                        }
+                    }
+                }
+            } else {
+                // Expand one whole backward layer
+                for (int end = tailB; headB < end; ) {
+                    int v = queueB[headB++];
+                    expandedB++;
+                    trace.add(graph.state(v));
+                    for (int i = rev.offsets[v]; i < rev.offsets[v + 1]; i++) {
+                        int u = rev.sources[i];
+                        if (h.hopsB[u] != INF) continue;
+                        h.setBackward(u, v, rev.actions[i], rev.costs[i], h.hopsB[v] + 1);
+                        queueB[tailB++] = u;
+                        if (h.hopsF[u] != INF && h.hopsF[u] + h.hopsB[u] < best) {
+                            best = h.hopsF[u] + h.hopsB[u];
+                            meet = u;
+                        }
+                    }
+                }
+            }
+            if (meet >= 0)
+                return h.result(graph, meet, expandedF, expandedB, trace);
+        }
+        return emptyResult(expandedF, expandedB, trace);
+    }
+
+    // ------------------ Bidirectional A* / Dijkstra ------------------
+    public static SearchResult AStar(DeliverySearch problem, boolean useHeuristic) {
+        CompiledGrid graph = problem.getGraph();
+        CompiledGrid.Reverse rev = graph.reverse();
+        int n = graph.cellCount();
+        int s = problem.initialCell();
+        int t = graph.cellId(problem.getGoal());
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+        if (t < 0)
+            return emptyResult(0, 0, trace);
+
+        // Costs are doubled so the averaged potential stays integral:
+        // key_f(v) = 2 g_f(v) + p(v), key_b(v) = 2 g_b(v) - p(v), p = h_goal - h_start.
+        // Reduced edge costs 2c + p(v) - p(u) are >= 0 because Manhattan
+        // distance is consistent in both directions (tunnel cost = its length).
+        int[] potential = new int[n];
+        if (useHeuristic)
+            for (int c = 0; c < n; c++)
+                potential[c] = manhattan(graph, c, t) - manhattan(graph, s, c);
+
+        Halves h = new Halves(n, s, t);
+        boolean[] closedF = new boolean[n], closedB = new boolean[n];
+        IndexedHeap openF = new IndexedHeap(n), openB = new IndexedHeap(n);
+        openF.push(s, potential[s]);
+        openB.push(t, -potential[t]);
+
+        int mu = s == t ? 0 : INF; // best complete path cost seen so far
+        int meet = s == t ? s : -1;
+        int expandedF = 0, expandedB = 0;
+
+        while (!openF.isEmpty() && !openB.isEmpty()) {
+            // Keys of both halves sum to 2 * (g_f + g_b) for a meeting cell
+            if (mu != INF && (long) openF.minKey() + openB.minKey() >= 2L * mu)
+                break;
+
+            if (openF.size() <= openB.size()) {
+                int u = openF.pop();
+                closedF[u] = true;
+                expandedF++;
+                trace.add(graph.state(u));
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    int g = h.gF[u] + graph.costs[e];
+                    if (g < h.gF[v] && !closedF[v]) {
+                        h.setForward(v, u, graph.actions[e], graph.costs[e], h.hopsF[u] + 1);
+                        openF.push(v, 2 * g + potential[v]);
+                    }
+                    if (h.gB[v] != INF && h.gF[v] != INF && h.gF[v] + h.gB[v] < mu) {
+                        mu = h.gF[v] + h.gB[v];
+                        meet = v;
+                    }
+                }
+            } else {
+                int v = openB.pop();
+                closedB[v] = true;
+                expandedB++;
+                trace.add(graph.state(v));
+                for (int i = rev.offsets[v]; i < rev.offsets[v + 1]; i++) {
+                    int u = rev.sources[i];
+                    int g = h.gB[v] + rev.costs[i];
+                    if (g < h.gB[u] && !closedB[u]) {
+                        h.setBackward(u, v, rev.actions[i], rev.costs[i], h.hopsB[v] + 1);
+                        openB.push(u, 2 * g - potential[u]);
+                    }
+                    if (h.gF[u] != INF && h.gB[u] != INF && h.gF[u] + h.gB[u] < mu) {
+                        mu = h.gF[u] + h.gB[u];
+                        meet = u;
+                    }
+                }
+            }
+        }
+
+        if (meet < 0)
+            return emptyResult(expandedF, expandedB, trace);
+        return h.result(graph, meet, expandedF, expandedB, trace);
+    }
+
+    private static int manhattan(CompiledGrid graph, int a, int b) {
+        return Math.abs(graph.x(a) - graph.x(b)) + Math.abs(graph.y(a) - graph.y(b));
+    }
+
+    private static SearchResult emptyResult(int expandedF, int expandedB, ExpansionTrace trace) {
+        SearchResult r = new SearchResult("", -1, expandedF + expandedB, trace, new ArrayList<>());
+        r.nodesExpandedForward = expandedF;
+        r.nodesExpandedBackward = expandedB;
+        return r;
+    }
+
+    // Labels of both halves. Forward: parent toward the start and the action
+    // taken at the parent. Backward: next cell toward the goal and the action
+    // taken at this cell.
+    private static final class Halves {
+        final int[] gF, gB, hopsF, hopsB, parentF, nextB;
+        final byte[] actionF, actionB;
+
+        Halves(int n, int s, int t) {
+            gF = new int[n];
+            gB = new int[n];
+            hopsF = new int[n];
+            hopsB = new int[n];
+            parentF = new int[n];
+            nextB = new int[n];
+            actionF = new byte[n];
+            actionB = new byte[n];
+            Arrays.fill(gF, INF);
+            Arrays.fill(gB, INF);
+            Arrays.fill(hopsF, INF);
+            Arrays.fill(hopsB, INF);
+            gF[s] = 0;
+            hopsF[s] = 0;
+            parentF[s] = -1;
+            gB[t] = 0;
+            hopsB[t] = 0;
+            nextB[t] = -1;
+        }
+
+        void setForward(int v, int u, byte action, int cost, int hops) {
+            gF[v] = gF[u] + cost;
+            hopsF[v] = hops;
+            parentF[v] = u;
+            actionF[v] = action;
+        }
+
+        void setBackward(int u, int v, byte action, int cost, int hops) {
+            gB[u] = gB[v] + cost;
+            hopsB[u] = hops;
+            nextB[u] = v;
+            actionB[u] = action;
+        }
+
+        SearchResult result(CompiledGrid graph, int meet, int expandedF, int expandedB, ExpansionTrace trace) {
+            List<String> plan = new ArrayList<>();
+            List<State> states = new ArrayList<>();
+            for (int c = meet; c >= 0; c = parentF[c]) {
+                states.add(graph.state(c));
+                if (parentF[c] >= 0) plan.add(CompiledGrid.ACTION_NAMES[actionF[c]]);
+            }
+            Collections.reverse(plan);
+            Collections.reverse(states);
+            for (int c = meet; nextB[c] >= 0; c = nextB[c]) {
+                plan.add(CompiledGrid.ACTION_NAMES[actionB[c]]);
+                states.add(graph.state(nextB[c]));
+            }
+
+            SearchResult r = new SearchResult(String.join(",", plan), gF[meet] + gB[meet],
+                    expandedF + expandedB, trace, states);
+            r.nodesExpandedForward = expandedF;
+            r.nodesExpandedBackward = expandedB;
+            return r;
+        }
+    }
+}
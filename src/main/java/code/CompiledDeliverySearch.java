@@ -0,0 +1,62 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DeliverySearch backed by the grid's CompiledGrid snapshot.
+ *
+ * actions() returns one of 32 shared immutable lists (one per action mask) and
+ * result() returns the snapshot's canonical State, so expanding a node no longer
+ * allocates lists, States or RoadBlocks. Heuristics still see a DeliverySearch.
+ */
+public class CompiledDeliverySearch extends DeliverySearch {
+
+    private static final List<List<String>> ACTION_LISTS = new ArrayList<>();
+
+    static {
+        for (int mask = 0; mask < 32; mask++) {
+            List<String> list = new ArrayList<>();
+            for (int a = 0; a < CompiledGrid.ACTION_NAMES.length; a++)
+                if ((mask & (1 << a)) != 0)
+                    list.add(CompiledGrid.ACTION_NAMES[a]);
+            ACTION_LISTS.add(Collections.unmodifiableList(list));
+        }
+    }
+
+    private final CompiledGrid graph;
+
+    public CompiledDeliverySearch(State start, State goal, Grid grid) {
+        super(start, goal, grid);
+        this.graph = getGraph();
+    }
+
+    @Override
+    public List<String> actions(State s) {
+        int cell = graph.cellId(s);
+        if (cell < 0)
+            return super.actions(s);
+        return ACTION_LISTS.get(graph.actionMask(cell));
+    }
+
+    @Override
+    public State result(State s, String action) {
+        int e = edgeOf(s, action);
+        return e < 0 ? super.result(s, action) : graph.state(graph.targets[e]);
+    }
+
+    @Override
+    public int stepCost(State s, String action, State next) {
+        int e = edgeOf(s, action);
+        return e < 0 ? super.stepCost(s, action, next) : graph.costs[e];
+    }
+
+    private int edgeOf(State s, String action) {
+        int cell = graph.cellId(s);
+        int code = CompiledGrid.actionCode(action);
+        if (cell < 0 || code < 0)
+            return -1;
+        return graph.edge(cell, code);
+    }
+}
@@ -0,0 +1,260 @@
+package code;
+
+import java.util.Arrays;
+
+/**
+ * Immutable CSR (compressed sparse row) snapshot of a Grid's road network.
+ *
+ * Cells are numbered id = y * cols + x. The outgoing edges of cell c live in
+ * [offsets[c], offsets[c + 1]) of targets / costs / actions, in the same order
+ * Grid.getPossibleActions lists them (up, down, left, right, tunnel), so a
+ * search walking the CSR generates successors exactly like the State-based path.
+ * Blocked roads, zero traffic and tunnels are resolved once at compile time.
+ */
+public final class CompiledGrid {
+
+    // Action codes, the direction of Grid.traffic(x, y, direction)
+    public static final byte UP = 0;
+    public static final byte DOWN = 1;
+    public static final byte LEFT = 2;
+    public static final byte RIGHT = 3;
+    public static final byte TUNNEL = 4;
+
+    public static final String[] ACTION_NAMES = { "up", "down", "left", "right", "tunnel" };
+
+    public final int rows, cols;
+    public final int[] offsets;  // size cellCount + 1
+    public final int[] targets;  // neighbour cell id per edge
+    public final int[] costs;    // edge cost per edge (same value Grid.getCost returns)
+    public final byte[] actions; // action code per edge
+
+    private final State[] states; // canonical State per cell, never reallocated
+    private final int maxEdgeCost;
+    private Reverse reverse;      // built on first reverse() call
+
+    private CompiledGrid(int rows, int cols, int[] offsets, int[] targets, int[] costs, byte[] actions) {
+        this.rows = rows;
+        this.cols = cols;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+        this.actions = actions;
+
+        this.states = new State[rows * cols];
+        for (int y = 0; y < rows; y++)
+            for (int x = 0; x < cols; x++)
+                states[y * cols + x] = new State(x, y);
+
+        int max = 0;
+        for (int c : costs)
+            max = Math.max(max, c);
+        this.maxEdgeCost = max;
+    }
+
+    // ---------------------------------------
+    // COMPILATION
+    // ---------------------------------------
+    public static CompiledGrid compile(Grid grid) {
+        int rows = grid.rows, cols = grid.cols;
+        int n = rows * cols;
+
+        // blocked[cell * 4 + dir] : RoadBlocks are undirected, so mark both ends
+        boolean[] blocked = new boolean[n * 4];
+        for (RoadBlock rb : grid.blockedRoads) {
+            int dir = direction(rb.A, rb.B);
+            if (dir < 0 || !inBounds(grid, rb.A) || !inBounds(grid, rb.B))
+                continue;
+            blocked[(rb.A.y * cols + rb.A.x) * 4 + dir] = true;
+            blocked[(rb.B.y * cols + rb.B.x) * 4 + opposite(dir)] = true;
+        }
+
+        // First tunnel touching a cell wins, like Grid.getTunnelExit / getTunnelCost
+        int[] tunnelExit = new int[n];
+        int[] tunnelCost = new int[n];
+        Arrays.fill(tunnelExit, -1);
+        for (Tunnel t : grid.tunnels) {
+            if (!inBounds(grid, t.A) || !inBounds(grid, t.B))
+                continue;
+            int a = t.A.y * cols + t.A.x;
+            int b = t.B.y * cols + t.B.x;
+            int cost = Math.abs(t.A.x - t.B.x) + Math.abs(t.A.y - t.B.y);
+            if (tunnelExit[a] < 0) {
+                tunnelExit[a] = b;
+                tunnelCost[a] = cost;
+            }
+            if (tunnelExit[b] < 0) {
+                tunnelExit[b] = a;
+                tunnelCost[b] = cost;
+            }
+        }
+
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[n * 5];
+        int[] costs = new int[n * 5];
+        byte[] actions = new byte[n * 5];
+        int e = 0;
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                int id = y * cols + x;
+                offsets[id] = e;
+                int up = grid.traffic(id * 4 + UP), down = grid.traffic(id * 4 + DOWN);
+                int left = grid.traffic(id * 4 + LEFT), right = grid.traffic(id * 4 + RIGHT);
+
+                if (y > 0 && !blocked[id * 4 + UP] && up > 0) {
+                    targets[e] = id - cols; costs[e] = up; actions[e++] = UP;
+                }
+                if (y < rows - 1 && !blocked[id * 4 + DOWN] && down > 0) {
+                    targets[e] = id + cols; costs[e] = down; actions[e++] = DOWN;
+                }
+                if (x > 0 && !blocked[id * 4 + LEFT] && left > 0) {
+                    targets[e] = id - 1; costs[e] = left; actions[e++] = LEFT;
+                }
+                if (x < cols - 1 && !blocked[id * 4 + RIGHT] && right > 0) {
+                    targets[e] = id + 1; costs[e] = right; actions[e++] = RIGHT;
+                }
+                if (tunnelExit[id] >= 0) {
+                    targets[e] = tunnelExit[id]; costs[e] = tunnelCost[id]; actions[e++] = TUNNEL;
+                }
+            }
+        }
+        offsets[n] = e;
+
+        return new CompiledGrid(rows, cols, offsets,
+                Arrays.copyOf(targets, e), Arrays.copyOf(costs, e), Arrays.copyOf(actions, e));
+    }
+
+    private static boolean inBounds(Grid grid, State s) {
+        return s.x >= 0 && s.y >= 0 && s.x < grid.cols && s.y < grid.rows;
+    }
+
+    // Direction code of the unit move a -> b, or -1 if they are not adjacent
+    static int direction(State a, State b) {
+        if (a.x == b.x && b.y == a.y - 1) return UP;
+        if (a.x == b.x && b.y == a.y + 1) return DOWN;
+        if (a.y == b.y && b.x == a.x - 1) return LEFT;
+        if (a.y == b.y && b.x == a.x + 1) return RIGHT;
+        return -1;
+    }
+
+    static int opposite(int dir) {
+        return dir ^ 1; // up<->down, left<->right
+    }
+
+    // ---------------------------------------
+    // REVERSE VIEW
+    // ---------------------------------------
+
+    /**
+     * Incoming edges per cell, for searches that run backwards from the goal.
+     * Traffic is directional, so this is the transpose of the forward CSR:
+     * row v lists every edge u -> v as (sources[i] = u, costs[i], actions[i]),
+     * where actions[i] is the action taken at u. Tunnel edges are
+     * transposed like any other edge.
+     */
+    public static final class Reverse {
+        public final int[] offsets;
+        public final int[] sources;
+        public final int[] costs;
+        public final byte[] actions;
+
+        private Reverse(int[] offsets, int[] sources, int[] costs, byte[] actions) {
+            this.offsets = offsets;
+            this.sources = sources;
+            this.costs = costs;
+            this.actions = actions;
+        }
+    }
+
+    public synchronized Reverse reverse() {
+        if (reverse == null) {
+            int n = cellCount();
+            int m = edgeCount();
+            int[] revOffsets = new int[n + 1];
+            for (int e = 0; e < m; e++)
+                revOffsets[targets[e] + 1]++;
+            for (int c = 0; c < n; c++)
+                revOffsets[c + 1] += revOffsets[c];
+
+            int[] fill = Arrays.copyOf(revOffsets, n);
+            int[] sources = new int[m];
+            int[] revCosts = new int[m];
+            byte[] revActions = new byte[m];
+            for (int u = 0; u < n; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int i = fill[targets[e]]++;
+                    sources[i] = u;
+                    revCosts[i] = costs[e];
+                    revActions[i] = actions[e];
+                }
+            }
+            reverse = new Reverse(revOffsets, sources, revCosts, revActions);
+        }
+        return reverse;
+    }
+
+    // ---------------------------------------
+    // ACCESSORS
+    // ---------------------------------------
+    public int cellCount() {
+        return rows * cols;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int maxEdgeCost() {
+        return maxEdgeCost;
+    }
+
+    public int cellId(int x, int y) {
+        return y * cols + x;
+    }
+
+    /** Cell id of s, or -1 if s lies outside the grid. */
+    public int cellId(State s) {
+        if (s.x < 0 || s.y < 0 || s.x >= cols || s.y >= rows)
+            return -1;
+        return s.y * cols + s.x;
+    }
+
+    public int x(int cell) {
+        return cell % cols;
+    }
+
+    public int y(int cell) {
+        return cell / cols;
+    }
+
+    public State state(int cell) {
+        return states[cell];
+    }
+
+    /** Index of the edge leaving cell with the given action code, or -1. */
+    public int edge(int cell, int action) {
+        for (int e = offsets[cell]; e < offsets[cell + 1]; e++)
+            if (actions[e] == action)
+                return e;
+        return -1;
+    }
+
+    /** Bit i is set when action code i leaves the cell. */
+    public int actionMask(int cell) {
+        int mask = 0;
+        for (int e = offsets[cell]; e < offsets[cell + 1]; e++)
+            mask |= 1 << actions[e];
+        return mask;
+    }
+
+    public static int actionCode(String action) {
+        switch (action) {
+            case "up": return UP;
+            case "down": return DOWN;
+            case "left": return LEFT;
+            case "right": return RIGHT;
+            case "tunnel": return TUNNEL;
+            default: return -1;
+        }
+    }
+}
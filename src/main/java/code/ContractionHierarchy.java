@@ -0,0 +1,468 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Contraction Hierarchies over a CompiledGrid (strategy "CH").
+ *
+ * Preprocessing contracts cells one at a time in order of importance (edge
+ * difference, contracted neighbours and hierarchy level, updated lazily). Contracting v adds
+ * a shortcut u -> x for every pair of roads u -> v -> x whose cost no
+ * witness path avoiding v matches. Roads keep their direction and tunnels
+ * are ordinary edges, so both can be bypassed by shortcuts.
+ *
+ * A query is a bidirectional Dijkstra that only climbs: forward over edges to
+ * higher-ranked cells, backward over edges coming from higher-ranked cells,
+ * with stall-on-demand pruning labels a higher cell already beats. It settles a few hundred cells where a plain search settles the whole
+ * grid. Shortcuts are unpacked into their original roads, so plan and
+ * pathStates match the other strategies and the cost equals UCS's.
+ *
+ * The hierarchy is built on first use per grid fingerprint and shared by
+ * every grid with that fingerprint (see of()); call of() up front to keep
+ * preprocessing off the first query. Hierarchies are held in an LRU bounded
+ * by their size (see configure()).
+ */
+public final class ContractionHierarchy {
+
+    private static final int INF = Integer.MAX_VALUE;
+    // Witness searches give up after this many settled cells; giving up only
+    // adds a shortcut that was not strictly needed
+    private static final int WITNESS_SETTLE_LIMIT = 64;
+
+    public static final long DEFAULT_MAX_BYTES = 128L * 1024 * 1024;
+
+    private static final FingerprintCache<ContractionHierarchy> BUILT = new FingerprintCache<>(
+            DEFAULT_MAX_BYTES, ContractionHierarchy::new, ContractionHierarchy::sizeInBytes);
+
+    private final int n;
+    private final int[] rank;
+    // Edges: originals first (action >= 0), then shortcuts (child edges)
+    private final int[] edgeFrom, edgeTo, edgeCost, childA, childB;
+    private final byte[] edgeAction;
+    private final int shortcuts;
+    // Upward CSR: forward edges to higher ranks, backward edges from higher ranks
+    private final int[] upOffsets, upEdges, downOffsets, downEdges;
+
+    // Query workspaces not in use; one per concurrent query at most
+    private final ConcurrentLinkedQueue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    // ---------------------------------------
+    // PREPROCESSING
+    // ---------------------------------------
+
+    /** Hierarchy for grid's current fingerprint, built on first call. */
+    public static ContractionHierarchy of(Grid grid) {
+        return BUILT.get(grid);
+    }
+
+    /** Bounds the memory of the hierarchies kept; see ContractionHierarchyConfig. */
+    public static void configure(long maxBytes) {
+        BUILT.configure(maxBytes);
+    }
+
+    static void clearCache() {
+        BUILT.clear();
+    }
+
+    static long builds() {
+        return BUILT.builds();
+    }
+
+    private ContractionHierarchy(CompiledGrid graph) {
+        n = graph.cellCount();
+        Builder b = new Builder(graph);
+        b.contractAll();
+
+        rank = b.rank;
+        int m = b.edgeCount;
+        edgeFrom = Arrays.copyOf(b.from, m);
+        edgeTo = Arrays.copyOf(b.to, m);
+        edgeCost = Arrays.copyOf(b.cost, m);
+        childA = Arrays.copyOf(b.childA, m);
+        childB = Arrays.copyOf(b.childB, m);
+        edgeAction = Arrays.copyOf(b.action, m);
+        shortcuts = m - graph.edgeCount();
+
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (edgeFrom[e] == edgeTo[e]) continue;
+            if (rank[edgeTo[e]] > rank[edgeFrom[e]]) upOffsets[edgeFrom[e] + 1]++;
+            else downOffsets[edgeTo[e] + 1]++;
+        }
+        for (int c = 0; c < n; c++) {
+            upOffsets[c + 1] += upOffsets[c];
+            downOffsets[c + 1] += downOffsets[c];
+        }
+        upEdges = new int[upOffsets[n]];
+        downEdges = new int[downOffsets[n]];
+        int[] upFill = Arrays.copyOf(upOffsets, n), downFill = Arrays.copyOf(downOffsets, n);
+        for (int e = 0; e < m; e++) {
+            if (edgeFrom[e] == edgeTo[e]) continue;
+            if (rank[edgeTo[e]] > rank[edgeFrom[e]]) upEdges[upFill[edgeFrom[e]]++] = e;
+            else downEdges[downFill[edgeTo[e]]++] = e;
+        }
+    }
+
+    public int shortcutCount() {
+        return shortcuts;
+    }
+
+    long sizeInBytes() {
+        long m = edgeFrom.length;
+        return 64 + 4L * (rank.length + upOffsets.length + downOffsets.length + upEdges.length + downEdges.length)
+                + 5 * 4 * m + m;
+    }
+
+    // ---------------------------------------
+    // QUERY
+    // ---------------------------------------
+    public static SearchResult search(DeliverySearch problem) {
+        CompiledGrid graph = problem.getGraph();
+        int t = graph.cellId(problem.getGoal());
+        if (t < 0)
+            return new SearchResult("", -1, 0);
+        return of(problem.getGrid()).query(graph, problem.initialCell(), t, problem.getLimits().traceLevel());
+    }
+
+    public SearchResult query(CompiledGrid graph, int s, int t) {
+        return query(graph, s, t, SearchLimits.defaults().traceLevel());
+    }
+
+    public SearchResult query(CompiledGrid graph, int s, int t, TraceLevel traceLevel) {
+        Workspace w = workspaces.poll();
+        if (w == null)
+            w = new Workspace(n);
+        try {
+            return query(graph, w, s, t, traceLevel);
+        } finally {
+            workspaces.offer(w);
+        }
+    }
+
+    private SearchResult query(CompiledGrid graph, Workspace w, int s, int t, TraceLevel traceLevel) {
+        if (++w.epoch == Integer.MAX_VALUE) {
+            Arrays.fill(w.fwd.stamp, 0);
+            Arrays.fill(w.bwd.stamp, 0);
+            w.epoch = 1;
+        }
+        ExpansionTrace trace = new ExpansionTrace(traceLevel);
+
+        w.label(w.fwd, s, 0, -1);
+        w.label(w.bwd, t, 0, -1);
+        w.openF.push(s, 0);
+        w.openB.push(t, 0);
+        int best = INF, meet = -1;
+
+        while (true) {
+            boolean goF = !w.openF.isEmpty() && w.openF.minKey() < best;
+            boolean goB = !w.openB.isEmpty() && w.openB.minKey() < best;
+            if (!goF && !goB)
+                break;
+            boolean forward = goF && (!goB || w.openF.minKey() <= w.openB.minKey());
+            Side side = forward ? w.fwd : w.bwd;
+            Side other = forward ? w.bwd : w.fwd;
+            IndexedHeap open = forward ? w.openF : w.openB;
+
+            int u = open.pop();
+            int d = side.dist[u];
+            trace.add(graph.state(u));
+            if (other.stamp[u] == w.epoch && d + other.dist[u] < best) {
+                best = d + other.dist[u];
+                meet = u;
+            }
+
+            if (stalled(w, side, forward, u, d))
+                continue;
+
+            int[] offsets = forward ? upOffsets : downOffsets;
+            int[] edges = forward ? upEdges : downEdges;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int e = edges[i];
+                int v = forward ? edgeTo[e] : edgeFrom[e];
+                int nd = d + edgeCost[e];
+                if (side.stamp[v] != w.epoch || nd < side.dist[v]) {
+                    w.label(side, v, nd, e);
+                    open.push(v, nd);
+                }
+            }
+        }
+        w.openF.clear();
+        w.openB.clear();
+
+        if (meet < 0)
+            return new SearchResult("", -1, trace.count(), trace, new ArrayList<>());
+        return unpack(graph, w, s, meet, best, trace);
+    }
+
+    // Stall-on-demand: u's label is not a shortest distance if a higher cell
+    // already labelled by this side reaches u more cheaply going down, so
+    // relaxing u's upward edges would be wasted work.
+    private boolean stalled(Workspace w, Side side, boolean forward, int u, int d) {
+        int[] offsets = forward ? downOffsets : upOffsets;
+        int[] edges = forward ? downEdges : upEdges;
+        for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+            int e = edges[i];
+            int h = forward ? edgeFrom[e] : edgeTo[e];
+            if (side.stamp[h] == w.epoch && side.dist[h] + edgeCost[e] < d)
+                return true;
+        }
+        return false;
+    }
+
+    // ---------------------------------------
+    // PATH UNPACKING
+    // ---------------------------------------
+    private SearchResult unpack(CompiledGrid graph, Workspace w, int s, int meet, int cost,
+                                ExpansionTrace trace) {
+        // Hierarchy edges from s to meet, then from meet to t
+        List<Integer> route = new ArrayList<>();
+        for (int c = meet; c != s; c = edgeFrom[w.fwd.parentEdge[c]])
+            route.add(w.fwd.parentEdge[c]);
+        Collections.reverse(route);
+        for (int c = meet; w.bwd.parentEdge[c] >= 0; c = edgeTo[w.bwd.parentEdge[c]])
+            route.add(w.bwd.parentEdge[c]);
+
+        List<String> plan = new ArrayList<>();
+        List<State> states = new ArrayList<>();
+        states.add(graph.state(s));
+        int[] stack = new int[16];
+        for (int top : route) {
+            int size = 0;
+            stack[size++] = top;
+            while (size > 0) {
+                int e = stack[--size];
+                if (childA[e] < 0) {
+                    plan.add(CompiledGrid.ACTION_NAMES[edgeAction[e]]);
+                    states.add(graph.state(edgeTo[e]));
+                    continue;
+                }
+                if (size + 2 > stack.length)
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[size++] = childB[e]; // second half, walked after the first
+                stack[size++] = childA[e];
+            }
+        }
+        return new SearchResult(String.join(",", plan), cost, trace.count(), trace, states);
+    }
+
+    // ---------------------------------------
+    // QUERY WORKSPACE (pooled per hierarchy, reset by epoch)
+    // ---------------------------------------
+    private static final class Side {
+        final int[] dist, parentEdge, stamp;
+
+        Side(int n) {
+            dist = new int[n];
+            parentEdge = new int[n];
+            stamp = new int[n];
+        }
+    }
+
+    private static final class Workspace {
+        final Side fwd, bwd;
+        final IndexedHeap openF, openB;
+        int epoch;
+
+        Workspace(int n) {
+            fwd = new Side(n);
+            bwd = new Side(n);
+            openF = new IndexedHeap(n);
+            openB = new IndexedHeap(n);
+        }
+
+        void label(Side side, int cell, int dist, int parentEdge) {
+            side.stamp[cell] = epoch;
+            side.dist[cell] = dist;
+            side.parentEdge[cell] = parentEdge;
+        }
+    }
+
+    // ---------------------------------------
+    // CONTRACTION
+    // ---------------------------------------
+    private static final class Builder {
+        final int n;
+        int[] from, to, cost, childA, childB;
+        byte[] action;
+        int edgeCount;
+
+        final IntList[] out, in;  // edge ids per cell, including ones to contracted cells
+        final boolean[] contracted;
+        final int[] contractedNeighbours;
+        final int[] level; // 1 + highest level among contracted neighbours
+        final int[] rank;
+
+        // Witness search state
+        final int[] witnessDist, witnessStamp;
+        final IndexedHeap witnessOpen;
+        int witnessEpoch;
+
+        Builder(CompiledGrid graph) {
+            n = graph.cellCount();
+            int m = graph.edgeCount();
+            int capacity = Math.max(16, m * 2);
+            from = new int[capacity];
+            to = new int[capacity];
+            cost = new int[capacity];
+            childA = new int[capacity];
+            childB = new int[capacity];
+            action = new byte[capacity];
+
+            out = new IntList[n];
+            in = new IntList[n];
+            for (int c = 0; c < n; c++) {
+                out[c] = new IntList();
+                in[c] = new IntList();
+            }
+            for (int u = 0; u < n; u++)
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++)
+                    addEdge(u, graph.targets[e], graph.costs[e], -1, -1, graph.actions[e]);
+
+            contracted = new boolean[n];
+            contractedNeighbours = new int[n];
+            level = new int[n];
+            rank = new int[n];
+            witnessDist = new int[n];
+            witnessStamp = new int[n];
+            witnessOpen = new IndexedHeap(n);
+        }
+
+        int addEdge(int u, int v, int c, int a, int b, byte act) {
+            if (edgeCount == from.length) {
+                int cap = from.length * 2;
+                from = Arrays.copyOf(from, cap);
+                to = Arrays.copyOf(to, cap);
+                cost = Arrays.copyOf(cost, cap);
+                childA = Arrays.copyOf(childA, cap);
+                childB = Arrays.copyOf(childB, cap);
+                action = Arrays.copyOf(action, cap);
+            }
+            int e = edgeCount++;
+            from[e] = u;
+            to[e] = v;
+            cost[e] = c;
+            childA[e] = a;
+            childB[e] = b;
+            action[e] = act;
+            if (u != v) {
+                out[u].add(e);
+                in[v].add(e);
+            }
+            return e;
+        }
+
+        void contractAll() {
+            IndexedHeap order = new IndexedHeap(n);
+            for (int v = 0; v < n; v++)
+                order.push(v, priority(v));
+
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.pop();
+                // Lazy update: re-queue if v is no longer the least important
+                int p = priority(v);
+                if (!order.isEmpty() && p > order.minKey()) {
+                    order.push(v, p);
+                    continue;
+                }
+                contract(v, true);
+                contracted[v] = true;
+                rank[v] = next++;
+                for (int i = 0; i < out[v].size; i++) neighbourContracted(to[out[v].items[i]], v);
+                for (int i = 0; i < in[v].size; i++) neighbourContracted(from[in[v].items[i]], v);
+            }
+        }
+
+        void neighbourContracted(int u, int v) {
+            contractedNeighbours[u]++;
+            level[u] = Math.max(level[u], level[v] + 1);
+        }
+
+        int priority(int v) {
+            int degree = 0;
+            for (int i = 0; i < out[v].size; i++) if (!contracted[to[out[v].items[i]]]) degree++;
+            for (int i = 0; i < in[v].size; i++) if (!contracted[from[in[v].items[i]]]) degree++;
+            return 2 * (contract(v, false) - degree) + contractedNeighbours[v] + level[v];
+        }
+
+        /** Shortcuts needed to remove v; added to the graph when `apply`. */
+        int contract(int v, boolean apply) {
+            int added = 0;
+            IntList ins = in[v], outs = out[v];
+            for (int i = 0; i < ins.size; i++) {
+                int eIn = ins.items[i];
+                int u = from[eIn];
+                if (contracted[u]) continue;
+
+                int limit = 0;
+                for (int j = 0; j < outs.size; j++) {
+                    int x = to[outs.items[j]];
+                    if (!contracted[x] && x != u)
+                        limit = Math.max(limit, cost[eIn] + cost[outs.items[j]]);
+                }
+                if (limit == 0) continue;
+                witness(u, v, limit);
+
+                for (int j = 0; j < outs.size; j++) {
+                    int eOut = outs.items[j];
+                    int x = to[eOut];
+                    if (contracted[x] || x == u) continue;
+                    int via = cost[eIn] + cost[eOut];
+                    if (witnessStamp[x] == witnessEpoch && witnessDist[x] <= via) continue;
+                    added++;
+                    if (apply) {
+                        addEdge(u, x, via, eIn, eOut, (byte) -1);
+                        // A parallel road v -> x now finds this shortcut as its witness
+                        witnessStamp[x] = witnessEpoch;
+                        witnessDist[x] = via;
+                    }
+                }
+            }
+            return added;
+        }
+
+        // Bounded Dijkstra from u over uncontracted cells, skipping v
+        void witness(int u, int v, int limit) {
+            witnessEpoch++;
+            witnessOpen.clear();
+            witnessStamp[u] = witnessEpoch;
+            witnessDist[u] = 0;
+            witnessOpen.push(u, 0);
+            int settled = 0;
+            while (!witnessOpen.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int c = witnessOpen.pop();
+                int d = witnessDist[c];
+                if (d > limit) break;
+                settled++;
+                IntList outs = out[c];
+                for (int i = 0; i < outs.size; i++) {
+                    int e = outs.items[i];
+                    int x = to[e];
+                    if (x == v || contracted[x]) continue;
+                    int nd = d + cost[e];
+                    if (witnessStamp[x] != witnessEpoch || nd < witnessDist[x]) {
+                        witnessStamp[x] = witnessEpoch;
+                        witnessDist[x] = nd;
+                        witnessOpen.push(x, nd);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class IntList {
+        int[] items = new int[6];
+        int size;
+
+        void add(int v) {
+            if (size == items.length)
+                items = Arrays.copyOf(items, size * 2);
+            items[size++] = v;
+        }
+    }
+}
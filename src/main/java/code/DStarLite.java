@@ -0,0 +1,378 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * D* Lite: a truck's route that is repaired, not searched again, when
+ * traffic or road blocks change under it or when the truck moves.
+ *
+ * The search runs backwards from the goal, keeping g (cost to the goal as
+ * last computed) and rhs (one-step lookahead from the successors' g) per
+ * cell. A cell is queued only while the two disagree, so after a change
+ * only the cells whose cost to the goal actually moved are expanded again:
+ * repair time follows the size of the change, not of the grid. Moving the
+ * truck only shifts the key offset km, so nothing is requeued.
+ *
+ * Edge costs are read live from Grid.traffic() and from a blocked-road table
+ * built from Grid.blockedRoads; tunnels are read once at construction. The
+ * owner of the route must report every edit through trafficChanged() and
+ * roadChanged() (ReplanningSession does this for all of its routes).
+ *
+ * Keys are [min(g, rhs) + h + km; min(g, rhs)] with h the Manhattan
+ * distance from the truck (heuristic 1, consistent on this grid).
+ * Not thread-safe.
+ */
+public final class DStarLite {
+
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int[] DX = { 0, 0, -1, 1 };
+    private static final int[] DY = { -1, 1, 0, 0 };
+
+    private final Grid grid;
+    private final int rows, cols;
+    private final int goal;
+    private int start;
+    private int last; // truck position when km was last raised
+    private long km;
+
+    private final int[] g, rhs;
+    private final boolean[] blocked; // [cell * 4 + direction]
+    private final int[] tunnelExit, tunnelCost;
+    private final Map<Integer, int[]> tunnelSources = new HashMap<>(); // exit -> entrances
+    private final KeyHeap open;
+
+    private int nodesExpanded;
+
+    public DStarLite(Grid grid, State start, State goal) {
+        this.grid = grid;
+        this.rows = grid.rows;
+        this.cols = grid.cols;
+        this.goal = cell(goal);
+        this.start = cell(start);
+        this.last = this.start;
+        int n = rows * cols;
+
+        blocked = new boolean[n * 4];
+        for (RoadBlock rb : grid.blockedRoads)
+            setBlocked(rb.A, rb.B, true);
+
+        // First tunnel touching a cell wins, like CompiledGrid
+        tunnelExit = new int[n];
+        tunnelCost = new int[n];
+        Arrays.fill(tunnelExit, -1);
+        for (Tunnel t : grid.tunnels) {
+            if (!inBounds(t.A) || !inBounds(t.B))
+                continue;
+            int a = cell(t.A), b = cell(t.B);
+            int cost = Math.abs(t.A.x - t.B.x) + Math.abs(t.A.y - t.B.y);
+            if (tunnelExit[a] < 0) { tunnelExit[a] = b; tunnelCost[a] = cost; }
+            if (tunnelExit[b] < 0) { tunnelExit[b] = a; tunnelCost[b] = cost; }
+        }
+        for (int c = 0; c < n; c++)
+            if (tunnelExit[c] >= 0)
+                tunnelSources.merge(tunnelExit[c], new int[] { c }, DStarLite::concat);
+
+        g = new int[n];
+        rhs = new int[n];
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        open = new KeyHeap(n);
+        rhs[this.goal] = 0;
+        open.push(this.goal, key(this.goal));
+    }
+
+    // ---------------------------------------
+    // ROUTE
+    // ---------------------------------------
+
+    /**
+     * Current route from the truck to the goal, repairing the search first.
+     * nodesExpanded counts only the cells expanded by this repair.
+     */
+    public SearchResult plan() {
+        int before = nodesExpanded;
+        ExpansionTrace trace = new ExpansionTrace(SearchLimits.defaults().traceLevel());
+        computeShortestPath(trace);
+        int expanded = nodesExpanded - before;
+        // The search may stop with the truck's own cell unsettled, so its cost
+        // is read from rhs: the cheapest successor's g plus the road to it
+        if (rhs[start] == INF)
+            return new SearchResult("", -1, expanded, trace, new ArrayList<>());
+
+        // Follow the cheapest successor; g strictly decreases, so this ends at the goal
+        List<String> plan = new ArrayList<>();
+        List<State> states = new ArrayList<>();
+        states.add(state(start));
+        int cost = 0;
+        for (int u = start; u != goal && states.size() <= g.length;) {
+            int best = -1, bestCost = INF, bestAction = -1;
+            for (int d = 0; d <= CompiledGrid.TUNNEL; d++) {
+                int v = target(u, d);
+                int c = cost(u, d);
+                if (v < 0 || c == INF || g[v] == INF)
+                    continue;
+                if (c + g[v] < bestCost) {
+                    best = v;
+                    bestCost = c + g[v];
+                    bestAction = d;
+                }
+            }
+            cost += bestCost - g[best];
+            plan.add(CompiledGrid.ACTION_NAMES[bestAction]);
+            states.add(state(best));
+            u = best;
+        }
+        return new SearchResult(String.join(",", plan), cost, expanded, trace, states);
+    }
+
+    /** The truck is now at position; the next plan() routes from there. */
+    public void moveTo(State position) {
+        start = cell(position);
+        km += heuristic(last, start);
+        last = start;
+    }
+
+    public State position() {
+        return state(start);
+    }
+
+    public State goal() {
+        return state(goal);
+    }
+
+    /** Cells expanded by every repair so far, including the first search. */
+    public int totalNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    // ---------------------------------------
+    // CHANGE NOTIFICATIONS
+    // ---------------------------------------
+
+    /** grid.traffic(cell.x, cell.y, direction) was changed. */
+    public void trafficChanged(State cell, int direction) {
+        updateVertex(cell(cell));
+    }
+
+    /** A road block between a and b was added to or removed from grid.blockedRoads. */
+    public void roadChanged(State a, State b) {
+        if (!inBounds(a) || !inBounds(b) || CompiledGrid.direction(a, b) < 0)
+            return;
+        setBlocked(a, b, grid.blockedRoads.contains(new RoadBlock(a, b)));
+        updateVertex(cell(a));
+        updateVertex(cell(b));
+    }
+
+    // ---------------------------------------
+    // SEARCH
+    // ---------------------------------------
+    private void computeShortestPath(ExpansionTrace trace) {
+        while (!open.isEmpty() && (open.minKey() < key(start) || rhs[start] > g[start])) {
+            int u = open.top();
+            long oldKey = open.minKey();
+            long newKey = key(u);
+            if (oldKey < newKey) {
+                open.push(u, newKey); // the truck moved since u was queued
+                continue;
+            }
+            open.remove(u);
+            nodesExpanded++;
+            trace.add(state(u));
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u]; // cheaper than before: settle it
+            } else {
+                g[u] = INF; // dearer: reopen it and let rhs find its new cost
+                updateVertex(u);
+            }
+            // Either way the cells with a road into u see a new g behind it
+            for (int d = 0; d <= CompiledGrid.TUNNEL; d++)
+                forEachSource(u, d, this::updateVertex);
+        }
+    }
+
+    // Recomputes rhs from the successors and (de)queues u to match
+    private void updateVertex(int u) {
+        if (u != goal) {
+            int best = INF;
+            for (int d = 0; d <= CompiledGrid.TUNNEL; d++) {
+                int v = target(u, d);
+                int c = cost(u, d);
+                if (v >= 0 && c != INF && g[v] != INF)
+                    best = Math.min(best, c + g[v]);
+            }
+            rhs[u] = best;
+        }
+        if (g[u] != rhs[u])
+            open.push(u, key(u));
+        else
+            open.remove(u);
+    }
+
+    private long key(int u) {
+        int m = Math.min(g[u], rhs[u]);
+        if (m == INF)
+            return Long.MAX_VALUE;
+        long k1 = Math.min(m + heuristic(start, u) + km, (1L << 32) - 1);
+        return k1 << 31 | m;
+    }
+
+    private int heuristic(int a, int b) {
+        return Math.abs(a % cols - b % cols) + Math.abs(a / cols - b / cols);
+    }
+
+    // ---------------------------------------
+    // EDGES
+    // ---------------------------------------
+
+    // Neighbour of u in direction d (or its tunnel exit), -1 if off the grid
+    private int target(int u, int d) {
+        if (d == CompiledGrid.TUNNEL)
+            return tunnelExit[u];
+        int x = u % cols + DX[d], y = u / cols + DY[d];
+        return x < 0 || y < 0 || x >= cols || y >= rows ? -1 : y * cols + x;
+    }
+
+    // Cost of leaving u in direction d, INF if that road is closed
+    private int cost(int u, int d) {
+        if (d == CompiledGrid.TUNNEL)
+            return tunnelExit[u] < 0 ? INF : tunnelCost[u];
+        if (blocked[u * 4 + d])
+            return INF;
+        int t = grid.traffic(u * 4 + d);
+        return t > 0 ? t : INF;
+    }
+
+    private interface SourceVisitor {
+        void visit(int source);
+    }
+
+    // Cells with an edge into v in the d-th slot: the neighbour that moves
+    // towards v for d < TUNNEL, the tunnel entrances leading to v otherwise
+    private void forEachSource(int v, int d, SourceVisitor visitor) {
+        if (d == CompiledGrid.TUNNEL) {
+            int[] sources = tunnelSources.get(v);
+            if (sources != null)
+                for (int s : sources)
+                    visitor.visit(s);
+            return;
+        }
+        int s = target(v, d);
+        if (s >= 0 && cost(s, CompiledGrid.opposite(d)) != INF)
+            visitor.visit(s);
+    }
+
+    private void setBlocked(State a, State b, boolean value) {
+        int dir = CompiledGrid.direction(a, b);
+        if (dir < 0 || !inBounds(a) || !inBounds(b))
+            return;
+        blocked[cell(a) * 4 + dir] = value;
+        blocked[cell(b) * 4 + CompiledGrid.opposite(dir)] = value;
+    }
+
+    private boolean inBounds(State s) {
+        return s.x >= 0 && s.y >= 0 && s.x < cols && s.y < rows;
+    }
+
+    private int cell(State s) {
+        return s.y * cols + s.x;
+    }
+
+    private State state(int cell) {
+        return new State(cell % cols, cell / cols);
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] c = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        return c;
+    }
+
+    // Indexed binary min-heap of cells by long key, with removal
+    private static final class KeyHeap {
+        private final int[] heap;
+        private final int[] pos;
+        private final long[] key;
+        private int size;
+
+        KeyHeap(int capacity) {
+            heap = new int[capacity];
+            pos = new int[capacity];
+            key = new long[capacity];
+            Arrays.fill(pos, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int top() {
+            return heap[0];
+        }
+
+        long minKey() {
+            return key[heap[0]];
+        }
+
+        void push(int cell, long k) {
+            int i = pos[cell];
+            if (i < 0) {
+                i = size++;
+                heap[i] = cell;
+                pos[cell] = i;
+            }
+            key[cell] = k;
+            siftUp(i);
+            siftDown(pos[cell]);
+        }
+
+        void remove(int cell) {
+            int i = pos[cell];
+            if (i < 0)
+                return;
+            pos[cell] = -1;
+            int moved = heap[--size];
+            if (i == size)
+                return;
+            heap[i] = moved;
+            pos[moved] = i;
+            siftUp(i);
+            siftDown(pos[moved]);
+        }
+
+        private void siftUp(int i) {
+            int cell = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (key[heap[parent]] <= key[cell])
+                    break;
+                heap[i] = heap[parent];
+                pos[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = cell;
+            pos[cell] = i;
+        }
+
+        private void siftDown(int i) {
+            int cell = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && key[heap[child + 1]] < key[heap[child]])
+                    child++;
+                if (key[heap[child]] >= key[cell])
+                    break;
+                heap[i] = heap[child];
+                pos[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = cell;
+            pos[cell] = i;
+        }
+    }
+}
@@ -42,27 +42,18 @@ public class DeliveryPlanner {
         // PHASE 1 : ASSIGN EACH DESTINATION TO THE BEST STORE
         // destination -> store
         // ==================================================================
-        Map<State, State> assignment = new HashMap<>();
+        // Every store -> destination route of this plan is searched at most once
+        // The visualiser shades each route's expanded cells, so only then trace them in full
+        SearchLimits limits = visualize
+                ? SearchLimits.defaults().withTraceLevel(TraceLevel.FULL) : SearchLimits.defaults();
+        DistanceMatrix matrix = new DistanceMatrix(grid, strategy, limits);
+        matrix.phase("Phase 1");
 
-        for (State dest : grid.destinations) {
-
-            int bestCost = Integer.MAX_VALUE;
-            State bestStore = null;
-
-            for (State store : grid.stores) {
-
-                SearchResult r = DeliverySearch.solve(store, dest, grid, strategy);
-
-                if (r != null && r.cost >= 0 && r.cost < bestCost) {
-                    bestCost = r.cost;
-                    bestStore = store;
-                }
-            }
-
-            if (bestStore != null) {
-                assignment.put(dest, bestStore);
+        // Cost-optimal strategies share one multi-source sweep from all stores
+        Map<State, State> assignment = StoreAssignment.assign(matrix);
 
-            } else {
+        for (State dest : grid.destinations) {
+            if (!assignment.containsKey(dest)) {
                 // no store can reach this destination
                 output.append("Destination ").append(dest)
                         .append(" is NOT reachable from any store.\n");
@@ -73,19 +64,32 @@ public class DeliveryPlanner {
         // ==================================================================
         // PHASE 2 : FOR EACH STORE, PLAN A FULL TOUR (Greedy)
         // ==================================================================
-        for (State store : grid.stores) {
-            output.append("------------------------------------ \n");
-            output.append("TRUCK AT STORE ").append(store).append(" \n");
-            output.append("------------------------------------ \n");
+        matrix.phase("Phase 2");
 
-            // collect only destinations assigned to this store
-            List<State> myDestinations = new ArrayList<>();
+        // collect only destinations assigned to each store
+        Map<State, List<State>> assigned = new HashMap<>();
+        for (State store : grid.stores) {
+            List<State> mine = new ArrayList<>();
             for (State d : grid.destinations) {
                 State assignedStore = assignment.get(d);
                 if (assignedStore != null && assignedStore.equals(store)) {
-                    myDestinations.add(d);
+                    mine.add(d);
                 }
             }
+            assigned.put(store, mine);
+        }
+
+        // The truck returns to the store after each delivery, so every
+        // candidate route starts at the store: search each store's missing
+        // routes in parallel, then write the tours below in store order
+        PlanningExecutor.shared().map(grid.stores, store -> matrix.routes(store, assigned.get(store)));
+
+        for (State store : grid.stores) {
+            output.append("------------------------------------ \n");
+            output.append("TRUCK AT STORE ").append(store).append(" \n");
+            output.append("------------------------------------ \n");
+
+            List<State> myDestinations = new ArrayList<>(assigned.get(store));
 
             if (myDestinations.isEmpty()) {
                 output.append("No destinations assigned to this store.\n\n");
@@ -103,7 +107,7 @@ public class DeliveryPlanner {
                 // since it returns after each delivery)
                 // ---------------------------------------------------------
                 for (State d : myDestinations) {
-                    SearchResult r = DeliverySearch.solve(truckPos, d, grid, strategy);
+                    SearchResult r = matrix.route(truckPos, d);
 
                     if (r != null && r.cost >= 0) {
                         if (bestResult == null || r.cost < bestResult.cost) {
@@ -114,18 +118,34 @@ public class DeliveryPlanner {
                 }
 
                 if (bestDest == null) {
-                    output.append("Some assigned destinations are NOT reachable from store ")
-                            .append(store).append(".\n");
+                    boolean overBudget = false;
+                    for (State d : myDestinations) {
+                        SearchResult r = matrix.route(truckPos, d);
+                        overBudget |= r != null && r.budgetExhausted;
+                    }
+                    if (overBudget)
+                        output.append("Search from store ").append(store)
+                                .append(" stopped at the search limits (")
+                                .append(matrix.getLimits()).append(") for some destinations.\n");
+                    else
+                        output.append("Some assigned destinations are NOT reachable from store ")
+                                .append(store).append(".\n");
                     break;
                 }
                 // Log the delivery
                 output.append("Delivers to :\n").append(bestDest)
                         .append(" plan=").append(bestResult.plan)
                         .append(" | cost=").append(bestResult.cost)
-                        .append(" | expanded=").append(bestResult.nodesExpanded)
-                        .append("\n");
+                        .append(" | expanded=").append(bestResult.nodesExpanded);
+                if (bestResult.nodesForgotten > 0)
+                    output.append(" | forgotten=").append(bestResult.nodesForgotten)
+                            .append(" | regenerated=").append(bestResult.nodesRegenerated);
+                if (!Double.isNaN(bestResult.suboptimalityBound))
+                    output.append(" | bound=").append(bestResult.suboptimalityBound);
+                output.append("\n");
                 // Visualize the path if needed
                 if (visualize) {
+                    ui.showExpanded(bestResult);
                     animatePlan(ui, grid, truckPos, bestResult.plan);
                 }
                 truckPos = store;
@@ -155,6 +175,14 @@ public class DeliveryPlanner {
         System.out.println("RAM Usage      : " + memoryUsedKB + " KB");
         System.out.println("CPU Time       : " + cpuTimeMs + " ms");
         System.out.println("Execution Time : " + executionTimeMs + " ms");
+        System.out.println("-".repeat(80));
+        System.out.println("Route lookups  : " + matrix.pairsSearched() + " pairs searched");
+        if (matrix.pairsOverBudget() > 0)
+            System.out.println("Node budget    : " + matrix.pairsOverBudget() + " searches stopped after "
+                    + matrix.getLimits().nodeBudget() + " expansions");
+        System.out.print(matrix.stats());
+        if (strategy.equals("PORTFOLIO"))
+            System.out.println("Portfolio wins : " + StrategyPortfolio.shared().winSummary());
         System.out.println("=".repeat(80));
         
         if (visualize && ui != null) {
@@ -169,10 +197,27 @@ public class DeliveryPlanner {
             case "DF": return "Depth-First Search (DFS)";
             case "UC": return "Uniform Cost Search (UCS)";
             case "ID": return "Iterative Deepening (ID)";
+            case "IDA1": return "IDA* Search (Heuristic 1 - Manhattan)";
+            case "IDA3": return "IDA* Search (Heuristic 3 - ALT landmarks)";
+            case "SMA1": return "SMA* Search (Heuristic 1 - Manhattan)";
+            case "SMA3": return "SMA* Search (Heuristic 3 - ALT landmarks)";
+            case "ARA1": return "ARA* Search (Heuristic 1 - Manhattan)";
+            case "ARA2": return "ARA* Search (Heuristic 2 - Traffic-aware)";
             case "G1": case "GR1": return "Greedy Search (Heuristic 1 - Manhattan)";
             case "G2": case "GR2": return "Greedy Search (Heuristic 2 - Traffic-aware)";
+            case "G3": return "Greedy Search (Heuristic 3 - ALT landmarks)";
             case "AS1": return "A* Search (Heuristic 1 - Manhattan)";
             case "AS2": return "A* Search (Heuristic 2 - Traffic-aware)";
+            case "AS3": return "A* Search (Heuristic 3 - ALT landmarks)";
+            case "AS4": return "A* Search (Heuristic 4 - Exact distance field)";
+            case "UCS_BUCKET": return "Uniform Cost Search (Bucket queue)";
+            case "AS1_BUCKET": return "A* Search (Heuristic 1 - Bucket queue)";
+            case "BI_BF": return "Bidirectional Breadth-First Search";
+            case "BI_UC": return "Bidirectional Uniform Cost Search";
+            case "BI_AS1": return "Bidirectional A* Search (Heuristic 1 - Manhattan)";
+            case "JPS": return "Jump Point Search (Heuristic 1 - Manhattan)";
+            case "CH": return "Contraction Hierarchies";
+            case "PORTFOLIO": return "Portfolio race (" + String.join(", ", StrategyPortfolio.shared().engines()) + ")";
             default: return strategy;
         }
     }
@@ -212,7 +257,7 @@ public class DeliveryPlanner {
     // Matches Grid.GenGrid() format:
     // m;n;P;S;DESTS;STORES;TUNNELS;
     // ======================================================================
-    private static Grid parseGrid(String initialState, String trafficString) {
+    static Grid parseGrid(String initialState, String trafficString) {
         String[] parts = initialState.split(";");
         int cols = Integer.parseInt(parts[0]);
         int rows = Integer.parseInt(parts[1]);
@@ -248,25 +293,28 @@ public class DeliveryPlanner {
                 int dx = Integer.parseInt(t[2]);
                 int dy = Integer.parseInt(t[3]);
                 int cost = Integer.parseInt(t[4]);
+                if (cost < 0 || cost > Grid.MAX_TRAFFIC)
+                    throw new IllegalArgumentException("Traffic " + seg + ": cost must be between 0 and "
+                            + Grid.MAX_TRAFFIC);
 
                 if (dx == sx && dy == sy - 1) {
-                    g.traffic[sy][sx][0] = cost; // up
+                    g.setTraffic(sx, sy, 0, cost); // up
                     if (cost == 0)
                         g.blockedRoads.add(new RoadBlock(new State(sx, sy), new State(dx, dy)));
     
                 }
                 if (dx == sx && dy == sy + 1) {
-                    g.traffic[sy][sx][1] = cost; // down
+                    g.setTraffic(sx, sy, 1, cost); // down
                     if (cost == 0)
                         g.blockedRoads.add(new RoadBlock(new State(sx, sy), new State(dx, dy)));
                 }
                 if (dx == sx - 1 && dy == sy) {
-                    g.traffic[sy][sx][2] = cost; // left
+                    g.setTraffic(sx, sy, 2, cost); // left
                     if (cost == 0)
                         g.blockedRoads.add(new RoadBlock(new State(sx, sy), new State(dx, dy)));
                 }
                 if (dx == sx + 1 && dy == sy) {
-                    g.traffic[sy][sx][3] = cost; // right
+                    g.setTraffic(sx, sy, 3, cost); // right
                     if (cost == 0)
                         g.blockedRoads.add(new RoadBlock(new State(sx, sy), new State(dx, dy)));
                 }
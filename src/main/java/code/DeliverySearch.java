@@ -1,17 +1,33 @@
 package code;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class DeliverySearch implements SearchProblem {
+public class DeliverySearch implements SearchProblem, IntSearchProblem {
+
+    // RouteCache strategy suffix for results computed by solveAll's one-to-many search
+    private static final String ONE_TO_MANY = "@all";
 
     private final State start;
     private final State goal;
     private final Grid grid;
+    private final SearchLimits limits;
+    private CompiledGrid graph; // resolved on first int-API call
+    private int[] goalDistances; // heuristic 4 / AS4, resolved on first use
+    private TrafficRangeMin trafficRangeMin; // heuristic 2, resolved on first use
+    private Landmarks landmarks; // heuristic 3, resolved on first use
 
     public DeliverySearch(State start, State goal, Grid grid) {
+        this(start, goal, grid, SearchLimits.defaults());
+    }
+
+    public DeliverySearch(State start, State goal, Grid grid, SearchLimits limits) {
         this.start = start;
         this.goal = goal;
         this.grid = grid;
+        this.limits = limits;
     }
 
     public State getGoal() {
@@ -22,6 +38,37 @@ public class DeliverySearch implements SearchProblem {
         return grid;
     }
 
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    public CompiledGrid getGraph() {
+        if (graph == null)
+            graph = grid.compile();
+        return graph;
+    }
+
+    /** Exact cost from every cell to the goal; see DistanceFields. */
+    int[] goalDistances() {
+        if (goalDistances == null)
+            goalDistances = DistanceFields.shared().field(grid, goal);
+        return goalDistances;
+    }
+
+    // Held per problem so heuristic calls skip the Grid's lock
+    TrafficRangeMin trafficRangeMin() {
+        if (trafficRangeMin == null)
+            trafficRangeMin = grid.trafficRangeMin();
+        return trafficRangeMin;
+    }
+
+    // Held per problem so heuristic calls skip the shared cache's lock
+    Landmarks landmarks() {
+        if (landmarks == null)
+            landmarks = Landmarks.of(grid);
+        return landmarks;
+    }
+
     // ---------------------------------------------------
     // SearchProblem implementation
     // ---------------------------------------------------
@@ -51,33 +98,275 @@ public class DeliverySearch implements SearchProblem {
         return grid.getCost(s, next, action);
     }
 
+    // ---------------------------------------------------
+    // IntSearchProblem implementation (over the CSR snapshot)
+    // ---------------------------------------------------
+
+    @Override
+    public int cellCount() {
+        return getGraph().cellCount();
+    }
+
+    @Override
+    public int initialCell() {
+        return getGraph().cellId(start);
+    }
+
+    @Override
+    public boolean isGoalCell(int cell) {
+        CompiledGrid g = getGraph();
+        return g.x(cell) == goal.x && g.y(cell) == goal.y;
+    }
+
+    @Override
+    public int maxSuccessors() {
+        return CompiledGrid.ACTION_NAMES.length;
+    }
+
+    @Override
+    public int successors(int cell, int[] cells, int[] costs, byte[] actions) {
+        CompiledGrid g = getGraph();
+        int count = 0;
+        for (int e = g.offsets[cell]; e < g.offsets[cell + 1]; e++) {
+            cells[count] = g.targets[e];
+            costs[count] = g.costs[e];
+            actions[count] = g.actions[e];
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int maxStepCost() {
+        return getGraph().maxEdgeCost(); // includes tunnel costs
+    }
+
+    @Override
+    public State stateOf(int cell) {
+        return getGraph().state(cell);
+    }
+
+    @Override
+    public String actionName(byte action) {
+        return CompiledGrid.ACTION_NAMES[action];
+    }
+
     // ---------------------------------------------------
     // SOLVE (called by DeliveryPlanner)
     // ---------------------------------------------------
     public static SearchResult solve(State start, State goal, Grid grid, String strategy) {
+        return solve(start, goal, grid, strategy, SearchLimits.defaults());
+    }
+
+    public static SearchResult solve(State start, State goal, Grid grid, String strategy, SearchLimits limits) {
+        RouteCache cache = RouteCache.shared();
+        String key = cacheKey(strategy, limits);
+        SearchResult cached = cache.get(grid, start, goal, key);
+        if (cached != null)
+            return cached;
+
+        SearchResult result = search(new DeliverySearch(start, goal, grid, limits), strategy);
+        // A search cut short by the node budget may succeed under another budget,
+        // and an ARA* route stopped by its deadline may improve with more time.
+        // ARA2 proves no bound, so none of its routes is known to be final
+        if (result == null || (!result.budgetExhausted && !(result.suboptimalityBound > 1)
+                && !strategy.equals("ARA2")))
+            cache.put(grid, start, goal, key, result);
+        return result;
+    }
+
+    // Results under non-default limits may differ (forgotten nodes, budget cut-offs)
+    private static String cacheKey(String strategy, SearchLimits limits) {
+        return limits.equals(SearchLimits.defaults()) ? strategy : strategy + "#" + limits;
+    }
 
-        DeliverySearch problem = new DeliverySearch(start, goal, grid);
+    /**
+     * Whether a result cached under key (a strategy, possibly with a suffix
+     * from cacheKey or solveAll) read no road except those out of or into
+     * the cells it expanded. An edit elsewhere cannot change such a result;
+     * see TrafficPatch. Strategies whose heuristic or preprocessing reads
+     * the whole grid, or that scan past the cells they expand, are never
+     * local.
+     */
+    static boolean readsOnlyExpandedCells(String key) {
+        if (key.endsWith(ONE_TO_MANY))
+            return true; // BFS or Dijkstra, whatever the requested strategy
+        int limits = key.indexOf('#');
+        switch (limits < 0 ? key : key.substring(0, limits)) {
+            case "BF":
+            case "DF":
+            case "UC":
+            case "ID":
+            case "IDA1":
+            case "SMA1":
+            case "ARA1":
+            case "G1":
+            case "AS1":
+            case "UCS_BUCKET":
+            case "AS1_BUCKET":
+            case "BI_BF":
+            case "BI_UC":
+            case "BI_AS1":
+                return true;
+            default:
+                return false;
+        }
+    }
 
+    private static SearchResult search(DeliverySearch problem, String strategy) {
         switch (strategy) {
             case "BF":
-                return GenericSearch.BFS(problem);
+                return IntGenericSearch.BFS(problem);
             case "DF":
-                return GenericSearch.DFS(problem);
+                return IntGenericSearch.DFS(problem);
             case "UC":
-                return GenericSearch.UCS(problem);
+                return IntGenericSearch.UCS(problem);
             case "ID":
-                return GenericSearch.ID(problem);
+                return IntGenericSearch.ID(problem);
+            case "IDA1":
+                return IntGenericSearch.IDAStar(problem, 1);
+            case "IDA3":
+                return IntGenericSearch.IDAStar(problem, 3);
+            case "SMA1":
+                return MemoryBoundedAStar.search(problem, 1);
+            case "SMA3":
+                return MemoryBoundedAStar.search(problem, 3);
+            case "ARA1":
+                return AnytimeRepairingAStar.search(problem, 1);
+            case "ARA2":
+                return AnytimeRepairingAStar.search(problem, 2);
             case "G1":
-                return GenericSearch.Greedy(problem, 1);
+                return IntGenericSearch.Greedy(problem, 1);
             case "G2":
-                return GenericSearch.Greedy(problem, 2);
+                return IntGenericSearch.Greedy(problem, 2);
             case "AS1":
-                return GenericSearch.AStar(problem, 1);
+                return IntGenericSearch.AStar(problem, 1);
             case "AS2":
-                return GenericSearch.AStar(problem, 2);
+                return IntGenericSearch.AStar(problem, 2);
+            case "G3":
+                return IntGenericSearch.Greedy(problem, 3);
+            case "AS3":
+                return IntGenericSearch.AStar(problem, 3);
+            case "AS4":
+                return DistanceFields.search(problem);
+            case "UCS_BUCKET":
+                return IntGenericSearch.UCSBucket(problem);
+            case "AS1_BUCKET":
+                return IntGenericSearch.AStarBucket(problem, 1);
+            case "BI_BF":
+                return BidirectionalSearch.BFS(problem);
+            case "BI_UC":
+                return BidirectionalSearch.AStar(problem, false);
+            case "BI_AS1":
+                return BidirectionalSearch.AStar(problem, true);
+            case "JPS":
+                return JumpPointSearch.search(problem);
+            case "CH":
+                return ContractionHierarchy.search(problem);
+            case "PORTFOLIO":
+                return StrategyPortfolio.shared().race(problem);
             default:
                 return null;
         }
     }
+
+    // ---------------------------------------------------
+    // SOLVE FROM ONE SOURCE TO MANY GOALS (called by the planners)
+    // ---------------------------------------------------
+
+    /**
+     * Strategies whose result cost is the optimal (UCS) cost, so any
+     * cost-optimal search can answer for them. SMA* falls short only when
+     * its memory limit cuts off the cheaper route, and then says so with a
+     * suboptimalityBound above 1.
+     */
+    public static boolean isCostOptimal(String strategy) {
+        switch (strategy) {
+            case "UC":
+            case "AS1":
+            case "AS3":
+            case "AS4":
+            case "IDA1":
+            case "IDA3":
+            case "SMA1":
+            case "SMA3":
+            case "UCS_BUCKET":
+            case "AS1_BUCKET":
+            case "BI_UC":
+            case "BI_AS1":
+            case "JPS":
+            case "CH":
+            case "PORTFOLIO":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Cost-optimal strategies that keep their own per-goal searches: CH and
+    // AS4 queries beat one grid-wide search, the memory-bounded ones must
+    // not be swapped for a search that holds the whole grid, and a portfolio
+    // exists to race its engines on every route
+    private static boolean searchesPerGoal(String strategy) {
+        switch (strategy) {
+            case "CH":
+            case "AS4":
+            case "IDA1":
+            case "IDA3":
+            case "SMA1":
+            case "SMA3":
+            case "PORTFOLIO":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Result of `strategy` from start to each goal, in goal order. BF and the
+     * cost-optimal strategies share one one-to-many search for all goals;
+     * the others still run one search per goal, and so do the strategies
+     * listed in searchesPerGoal. Values are null for an unknown strategy,
+     * like solve().
+     */
+    public static Map<State, SearchResult> solveAll(State start, List<State> goals, Grid grid, String strategy) {
+        return solveAll(start, goals, grid, strategy, SearchLimits.defaults());
+    }
+
+    public static Map<State, SearchResult> solveAll(State start, List<State> goals, Grid grid, String strategy,
+                                                    SearchLimits limits) {
+        Map<State, SearchResult> results = new LinkedHashMap<>();
+        boolean breadthFirst = strategy.equals("BF");
+
+        if (breadthFirst || (isCostOptimal(strategy) && !searchesPerGoal(strategy))) {
+            // One-to-many results may expand differently from solve(), so they
+            // are cached under their own strategy key
+            RouteCache cache = RouteCache.shared();
+            String key = cacheKey(strategy, limits) + ONE_TO_MANY;
+            List<State> missing = new ArrayList<>();
+            for (State goal : goals) {
+                SearchResult cached = cache.get(grid, start, goal, key);
+                results.put(goal, cached);
+                if (cached == null)
+                    missing.add(goal);
+            }
+            if (missing.isEmpty())
+                return results;
+
+            DeliverySearch problem = new DeliverySearch(start, start, grid, limits);
+            int[] cells = new int[missing.size()];
+            for (int i = 0; i < cells.length; i++)
+                cells[i] = problem.getGraph().cellId(missing.get(i));
+            SearchResult[] found = IntGenericSearch.oneToMany(problem, cells, breadthFirst);
+            for (int i = 0; i < cells.length; i++) {
+                results.put(missing.get(i), found[i]);
+                cache.put(grid, start, missing.get(i), key, found[i]);
+            }
+        } else {
+            for (State goal : goals)
+                results.put(goal, solve(start, goal, grid, strategy, limits));
+        }
+        return results;
+    }
 }
 
@@ -0,0 +1,80 @@
+package code;
+
+import java.util.Arrays;
+
+/**
+ * Dial's bucket queue: a circular array of buckets, one per priority value.
+ *
+ * Valid when priorities are monotone (nothing is pushed below the last popped
+ * priority) and every queued priority lies within `spread` of the smallest one,
+ * which holds for UCS (spread = max edge cost) and for A* with a consistent
+ * heuristic (spread = 2 * max edge cost). push and pop are O(1) amortised.
+ * A better path to a queued cell leaves a stale entry that pop() skips.
+ */
+public final class DialQueue implements OpenList {
+
+    private final int[][] buckets;
+    private final int[] bucketSize;
+    private final int[] key;
+    private final boolean[] queued;
+    private int cursor; // priority of the bucket pop() is scanning
+    private int size;   // live cells
+    private boolean started;
+
+    public DialQueue(int capacity, int spread) {
+        int count = spread + 1;
+        buckets = new int[count][8];
+        bucketSize = new int[count];
+        key = new int[capacity];
+        queued = new boolean[capacity];
+    }
+
+    @Override
+    public void push(int cell, int priority) {
+        if (!started) {
+            // The window opens at the first priority ever pushed
+            started = true;
+            cursor = priority;
+        }
+        if (priority < cursor)
+            throw new IllegalStateException("Non-monotone priority " + priority + " < " + cursor);
+        if (priority - cursor >= buckets.length)
+            throw new IllegalStateException("Priority " + priority + " exceeds bucket span from " + cursor);
+        if (queued[cell] && key[cell] == priority)
+            return;
+
+        if (!queued[cell]) {
+            queued[cell] = true;
+            size++;
+        }
+        key[cell] = priority;
+
+        int b = priority % buckets.length;
+        if (bucketSize[b] == buckets[b].length)
+            buckets[b] = Arrays.copyOf(buckets[b], bucketSize[b] * 2);
+        buckets[b][bucketSize[b]++] = cell;
+    }
+
+    @Override
+    public int pop() {
+        if (size == 0)
+            throw new IllegalStateException("Queue is empty");
+        while (true) {
+            int b = cursor % buckets.length;
+            while (bucketSize[b] > 0) {
+                int cell = buckets[b][--bucketSize[b]];
+                if (queued[cell] && key[cell] == cursor) {
+                    queued[cell] = false;
+                    size--;
+                    return cell;
+                }
+            }
+            cursor++;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
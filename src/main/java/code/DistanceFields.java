@@ -0,0 +1,234 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact cost-to-go fields: for a goal cell, the cost of the cheapest route
+ * from every cell to it, found by one Dijkstra over the reversed roads.
+ *
+ * In planning every destination is the goal of one search per store, so
+ * the field of a destination pays for itself on the second query. With it
+ * A* has a perfect heuristic (heuristic 4), and strategy "AS4" skips the
+ * search altogether: from the start it follows any road whose cost plus the
+ * next cell's field value equals the current value, which walks a cheapest
+ * route in time linear in its length.
+ *
+ * Fields are keyed by (grid fingerprint, goal) like the RouteCache, and
+ * held in a process-wide LRU bounded by their total size. Field values are
+ * INF for cells that cannot reach the goal; fields are shared between
+ * callers and must not be modified. After a traffic edit, carryOver() copies
+ * the fields the edit leaves exact to the grid's new fingerprint.
+ */
+public final class DistanceFields {
+
+    public static final int INF = Integer.MAX_VALUE;
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final DistanceFields SHARED = new DistanceFields(DEFAULT_MAX_BYTES);
+
+    private final LinkedHashMap<Key, int[]> fields = new LinkedHashMap<>(64, 0.75f, true);
+    private long maxBytes;
+    private long bytes;
+    private long hits, misses, evictions;
+
+    public DistanceFields(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Process-wide instance used by heuristic 4 and AS4; see DistanceFieldsConfig. */
+    public static DistanceFields shared() {
+        return SHARED;
+    }
+
+    public synchronized void configure(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictToFit();
+    }
+
+    // ---------------------------------------
+    // LOOKUP
+    // ---------------------------------------
+
+    /** Cost from every cell of grid.compile() to goal (INF where unreachable). */
+    public int[] field(Grid grid, State goal) {
+        Key key = new Key(grid.fingerprint(), goal.x, goal.y);
+        int[] field = lookup(key);
+        if (field != null)
+            return field;
+
+        // Built outside the lock; two threads may both build the same field
+        CompiledGrid graph = grid.compile();
+        field = reverseDijkstra(graph, graph.cellId(goal));
+        store(key, field);
+        return field;
+    }
+
+    private synchronized int[] lookup(Key key) {
+        int[] field = fields.get(key);
+        if (field != null) hits++;
+        else misses++;
+        return field;
+    }
+
+    private synchronized void store(Key key, int[] field) {
+        long size = estimateBytes(field);
+        if (size > maxBytes)
+            return;
+        int[] old = fields.put(key, field);
+        if (old != null)
+            bytes -= estimateBytes(old);
+        bytes += size;
+        evictToFit();
+    }
+
+    public synchronized void clear() {
+        fields.clear();
+        bytes = 0;
+    }
+
+    /** Decides whether a field is still exact after an edit; see carryOver(). */
+    public interface FieldTest {
+        boolean unaffected(int goalX, int goalY, int[] field);
+    }
+
+    /**
+     * Copies the fields cached under fromFingerprint that test accepts to
+     * toFingerprint, like RouteCache.carryOver(): they stay under
+     * fromFingerprint too, and a copy is counted in full. Returns {copied,
+     * left behind}.
+     */
+    public synchronized int[] carryOver(long fromFingerprint, long toFingerprint, FieldTest test) {
+        if (fromFingerprint == toFingerprint)
+            return new int[2];
+        List<Key> copying = new ArrayList<>();
+        int left = 0;
+        for (Map.Entry<Key, int[]> e : fields.entrySet()) {
+            Key k = e.getKey();
+            if (k.fingerprint != fromFingerprint)
+                continue;
+            if (test.unaffected(k.gx, k.gy, e.getValue()))
+                copying.add(k);
+            else
+                left++;
+        }
+        for (Key k : copying) {
+            int[] field = fields.get(k);
+            int[] old = fields.put(new Key(toFingerprint, k.gx, k.gy), field);
+            if (old != null)
+                bytes -= estimateBytes(old);
+            bytes += estimateBytes(field);
+        }
+        evictToFit();
+        return new int[] { copying.size(), left };
+    }
+
+    private void evictToFit() {
+        Iterator<int[]> it = fields.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= estimateBytes(it.next()); // least recently used first
+            it.remove();
+            evictions++;
+        }
+    }
+
+    static long estimateBytes(int[] field) {
+        return 64 + 4L * field.length;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("fields", fields.size());
+        s.put("bytes", bytes);
+        s.put("maxBytes", maxBytes);
+        s.put("hits", hits);
+        s.put("misses", misses);
+        s.put("evictions", evictions);
+        return s;
+    }
+
+    // ---------------------------------------
+    // FIELD CONSTRUCTION / PATH READOUT
+    // ---------------------------------------
+    static int[] reverseDijkstra(CompiledGrid graph, int goal) {
+        int[] dist = new int[graph.cellCount()];
+        Arrays.fill(dist, INF);
+        if (goal < 0)
+            return dist;
+
+        CompiledGrid.Reverse reverse = graph.reverse();
+        IndexedHeap open = new IndexedHeap(graph.cellCount());
+        dist[goal] = 0;
+        open.push(goal, 0);
+        while (!open.isEmpty()) {
+            int u = open.pop();
+            for (int e = reverse.offsets[u]; e < reverse.offsets[u + 1]; e++) {
+                int v = reverse.sources[e];
+                int d = dist[u] + reverse.costs[e];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    open.push(v, d);
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Strategy "AS4": A* with the exact heuristic, where every cell on the
+     * route is expanded once and nothing else is, done as a walk down the
+     * goal's field.
+     */
+    public static SearchResult search(DeliverySearch problem) {
+        CompiledGrid graph = problem.getGraph();
+        int[] field = problem.goalDistances();
+        int cell = problem.initialCell();
+        List<State> states = new ArrayList<>();
+        if (cell < 0 || field[cell] == INF)
+            return new SearchResult("", -1, 0, ExpansionTrace.forProblem(problem), states);
+
+        List<String> plan = new ArrayList<>();
+        states.add(graph.state(cell));
+        while (field[cell] != 0) {
+            int e = graph.offsets[cell];
+            // The field guarantees a road on a cheapest route; tunnels may loop back
+            while (graph.targets[e] == cell || graph.costs[e] + field[graph.targets[e]] != field[cell])
+                e++;
+            plan.add(CompiledGrid.ACTION_NAMES[graph.actions[e]]);
+            cell = graph.targets[e];
+            states.add(graph.state(cell));
+        }
+        int cost = field[problem.initialCell()];
+        return new SearchResult(String.join(",", plan), cost, states.size(),
+                ExpansionTrace.of(problem.getLimits().traceLevel(), states), states);
+    }
+
+    private static final class Key {
+        final long fingerprint;
+        final int gx, gy;
+
+        Key(long fingerprint, int gx, int gy) {
+            this.fingerprint = fingerprint;
+            this.gx = gx;
+            this.gy = gy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return fingerprint == k.fingerprint && gx == k.gx && gy == k.gy;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = Long.hashCode(fingerprint);
+            h = 31 * h + gx;
+            return 31 * h + gy;
+        }
+    }
+}
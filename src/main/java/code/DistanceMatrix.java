@@ -0,0 +1,151 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Store -> destination routes for one plan, searched at most once per pair
+ * and shared by every planning phase.
+ *
+ * Entries are filled lazily: nothing is searched until a phase asks for a
+ * pair, and a batch request for one store goes through a single
+ * DeliverySearch.solveAll call for the pairs still missing. Lookups are
+ * counted as hits or misses against the current phase (see phase()).
+ *
+ * Safe to share between the planners' worker threads: each store's row is
+ * filled under its own lock, so different stores search in parallel and a
+ * pair is still searched only once.
+ */
+public class DistanceMatrix {
+
+    private final Grid grid;
+    private final String strategy;
+    private final SearchLimits limits;
+    private final Map<State, Map<State, SearchResult>> rows = new ConcurrentHashMap<>();
+
+    // phase -> {hits, misses}
+    private final Map<String, AtomicIntegerArray> counters = new LinkedHashMap<>();
+    private volatile AtomicIntegerArray current;
+
+    public DistanceMatrix(Grid grid, String strategy) {
+        this(grid, strategy, SearchLimits.defaults());
+    }
+
+    public DistanceMatrix(Grid grid, String strategy, SearchLimits limits) {
+        this.grid = grid;
+        this.strategy = strategy;
+        this.limits = limits;
+        phase("default");
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /** Counts subsequent lookups against the named phase. */
+    public synchronized void phase(String name) {
+        current = counters.computeIfAbsent(name, k -> new AtomicIntegerArray(2));
+    }
+
+    // ---------------------------------------
+    // LOOKUPS
+    // ---------------------------------------
+
+    /** Route store -> dest, or null for an unknown strategy (like solve()). */
+    public SearchResult route(State store, State dest) {
+        List<State> one = new ArrayList<>(1);
+        one.add(dest);
+        return routes(store, one).get(dest);
+    }
+
+    /** Cost of store -> dest, or -1 if unreachable. */
+    public int cost(State store, State dest) {
+        SearchResult r = route(store, dest);
+        return r == null || r.cost < 0 ? -1 : r.cost;
+    }
+
+    /** Routes from store to every dest, searching only the pairs not seen yet. */
+    public Map<State, SearchResult> routes(State store, List<State> dests) {
+        Map<State, SearchResult> row = rows.computeIfAbsent(store, k -> new HashMap<>());
+        AtomicIntegerArray counter = current;
+
+        synchronized (row) {
+            Set<State> missing = new LinkedHashSet<>();
+            for (State d : dests) {
+                if (row.containsKey(d))
+                    counter.incrementAndGet(0);
+                else if (missing.add(d))
+                    counter.incrementAndGet(1);
+            }
+            if (!missing.isEmpty())
+                row.putAll(DeliverySearch.solveAll(store, new ArrayList<>(missing), grid, strategy, limits));
+
+            Map<State, SearchResult> result = new LinkedHashMap<>();
+            for (State d : dests)
+                result.put(d, row.get(d));
+            return result;
+        }
+    }
+
+    // ---------------------------------------
+    // COUNTERS
+    // ---------------------------------------
+    public synchronized int hits(String phase) {
+        AtomicIntegerArray c = counters.get(phase);
+        return c == null ? 0 : c.get(0);
+    }
+
+    public synchronized int misses(String phase) {
+        AtomicIntegerArray c = counters.get(phase);
+        return c == null ? 0 : c.get(1);
+    }
+
+    /** Number of distinct (store, destination) pairs searched so far. */
+    public int pairsSearched() {
+        int n = 0;
+        for (Map<State, SearchResult> row : rows.values())
+            synchronized (row) {
+                n += row.size();
+            }
+        return n;
+    }
+
+    /** Pairs whose search stopped at a search limit (see SearchLimits). */
+    public int pairsOverBudget() {
+        int n = 0;
+        for (Map<State, SearchResult> row : rows.values())
+            synchronized (row) {
+                for (SearchResult r : row.values())
+                    if (r != null && r.budgetExhausted) n++;
+            }
+        return n;
+    }
+
+    /** One line per phase that did any lookups, e.g. "Phase 2: hits=6, misses=3". */
+    public synchronized String stats() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, AtomicIntegerArray> e : counters.entrySet()) {
+            AtomicIntegerArray c = e.getValue();
+            if (c.get(0) + c.get(1) == 0)
+                continue;
+            sb.append(e.getKey()).append(": hits=").append(c.get(0))
+                    .append(", misses=").append(c.get(1)).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The cells a search expanded, recorded at its TraceLevel.
+ *
+ * A FULL trace is a byte buffer of zigzag varints: dx then dy from the
+ * previous cell (the first from (0, 0)). Searches mostly expand a cell next
+ * to the previous one, so an expansion costs 2 bytes instead of a State
+ * and a list slot. states() decodes the buffer on demand.
+ *
+ * Not thread-safe while recording. A snapshot() shares the buffer and
+ * copies it only if it is itself added to.
+ */
+public final class ExpansionTrace {
+
+    private final TraceLevel level;
+    private int count;
+    private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+    // FULL only
+    private byte[] data;
+    private int length;
+    private int lastX, lastY;
+    private boolean shared; // data is also read by a snapshot
+
+    public ExpansionTrace(TraceLevel level) {
+        this.level = level;
+        if (level == TraceLevel.FULL)
+            data = new byte[64];
+    }
+
+    /** Trace at the level of the problem's SearchLimits (the defaults for other problems). */
+    static ExpansionTrace forProblem(Object problem) {
+        SearchLimits limits = problem instanceof DeliverySearch
+                ? ((DeliverySearch) problem).getLimits() : SearchLimits.defaults();
+        return new ExpansionTrace(limits.traceLevel());
+    }
+
+    /** Trace of states expanded in list order. */
+    static ExpansionTrace of(TraceLevel level, List<State> states) {
+        ExpansionTrace trace = new ExpansionTrace(level);
+        for (State s : states)
+            trace.add(s);
+        return trace;
+    }
+
+    // ---------------------------------------
+    // RECORDING
+    // ---------------------------------------
+
+    public void add(State s) {
+        add(s.x, s.y);
+    }
+
+    public void add(int x, int y) {
+        count++;
+        if (level == TraceLevel.OFF)
+            return;
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+        if (level == TraceLevel.FULL) {
+            if (shared || length + 10 > data.length) {
+                data = Arrays.copyOf(data, Math.max(64, 2 * (length + 10)));
+                shared = false;
+            }
+            put(x - lastX);
+            put(y - lastY);
+            lastX = x;
+            lastY = y;
+        }
+    }
+
+    // Zigzag keeps small negative deltas small: 0, -1, 1, -2, ... -> 0, 1, 2, 3, ...
+    private void put(int delta) {
+        int v = (delta << 1) ^ (delta >> 31);
+        while ((v & ~0x7F) != 0) {
+            data[length++] = (byte) (v & 0x7F | 0x80);
+            v >>>= 7;
+        }
+        data[length++] = (byte) v;
+    }
+
+    /** The trace so far; later additions to this trace do not show in it. */
+    public ExpansionTrace snapshot() {
+        ExpansionTrace copy = new ExpansionTrace(level, count, minX, minY, maxX, maxY, data, length, lastX, lastY);
+        shared = data != null;
+        return copy;
+    }
+
+    private ExpansionTrace(TraceLevel level, int count, int minX, int minY, int maxX, int maxY,
+                           byte[] data, int length, int lastX, int lastY) {
+        this.level = level;
+        this.count = count;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.data = data;
+        this.length = length;
+        this.lastX = lastX;
+        this.lastY = lastY;
+        this.shared = data != null;
+    }
+
+    // ---------------------------------------
+    // READING
+    // ---------------------------------------
+
+    public TraceLevel level() {
+        return level;
+    }
+
+    /** Cells recorded, whatever the level. */
+    public int count() {
+        return count;
+    }
+
+    /** Whether minX()..maxY() bound every expanded cell (COUNTERS or FULL, at least one cell). */
+    public boolean hasBounds() {
+        return level != TraceLevel.OFF && count > 0;
+    }
+
+    public int minX() { return minX; }
+    public int minY() { return minY; }
+    public int maxX() { return maxX; }
+    public int maxY() { return maxY; }
+
+    /** Expanded states in order; empty unless FULL. Decoded on every call. */
+    public List<State> states() {
+        return level == TraceLevel.FULL ? decode(data, length) : new ArrayList<>();
+    }
+
+    /** The FULL encoding (see class comment); empty unless FULL. */
+    public byte[] encoded() {
+        return level == TraceLevel.FULL ? Arrays.copyOf(data, length) : new byte[0];
+    }
+
+    /** Decodes encoded(). */
+    public static List<State> decode(byte[] encoded) {
+        return decode(encoded, encoded.length);
+    }
+
+    private static List<State> decode(byte[] data, int length) {
+        List<State> states = new ArrayList<>();
+        int x = 0, y = 0;
+        for (int[] i = { 0 }; i[0] < length;) {
+            x += get(data, i);
+            y += get(data, i);
+            states.add(new State(x, y));
+        }
+        return states;
+    }
+
+    private static int get(byte[] data, int[] pos) {
+        int v = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = data[pos[0]++];
+            v |= (b & 0x7F) << shift;
+            if (b >= 0)
+                break;
+        }
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /** Heap bytes of this trace, counting only the part of a shared buffer it reads. */
+    public long sizeInBytes() {
+        return 48 + (data == null ? 0 : 16 + length);
+    }
+}
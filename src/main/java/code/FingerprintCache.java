@@ -0,0 +1,111 @@
+package code;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Preprocessing of a whole grid (a contraction hierarchy, landmark tables),
+ * keyed by Grid.fingerprint() so that equal grids share it: POST /plan
+ * builds a new Grid per call, but the same city gets the same fingerprint.
+ *
+ * Each value is built once and outside the lock. The first caller for a
+ * fingerprint builds it, later callers for that fingerprint wait for it,
+ * and callers for other grids are not held up. Values are held in an LRU
+ * bounded by their total size; the latest value is kept whatever its
+ * size, so a grid above the bound is not preprocessed again per query.
+ */
+final class FingerprintCache<V> {
+
+    private final Function<CompiledGrid, V> build;
+    private final ToLongFunction<V> sizeInBytes;
+    private final LinkedHashMap<Long, CompletableFuture<V>> values = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long bytes;
+    private long builds;
+
+    FingerprintCache(long maxBytes, Function<CompiledGrid, V> build, ToLongFunction<V> sizeInBytes) {
+        this.maxBytes = maxBytes;
+        this.build = build;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    /** The value for grid's current fingerprint, built from grid.compile() on first use. */
+    V get(Grid grid) {
+        long key = grid.fingerprint();
+        CompletableFuture<V> future, mine = null;
+        synchronized (this) {
+            future = values.get(key);
+            if (future == null) {
+                future = mine = new CompletableFuture<>();
+                values.put(key, mine);
+            }
+        }
+        if (mine == null)
+            return await(future);
+
+        V value;
+        try {
+            value = build.apply(grid.compile());
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                values.remove(key, mine);
+            }
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        mine.complete(value);
+        synchronized (this) {
+            builds++;
+            if (values.get(key) == mine) { // not cleared meanwhile
+                bytes += sizeInBytes.applyAsLong(value);
+                evictToFit(key);
+            }
+        }
+        return value;
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    synchronized void configure(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictToFit(null);
+    }
+
+    synchronized void clear() {
+        values.clear();
+        bytes = 0;
+    }
+
+    /** Values built so far, including ones evicted since. */
+    synchronized long builds() {
+        return builds;
+    }
+
+    // Least recently used first; values still being built have no size yet
+    private void evictToFit(Long keep) {
+        Iterator<Map.Entry<Long, CompletableFuture<V>>> it = values.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<Long, CompletableFuture<V>> e = it.next();
+            V value = e.getValue().getNow(null);
+            if (value == null || e.getKey().equals(keep))
+                continue;
+            bytes -= sizeInBytes.applyAsLong(value);
+            it.remove();
+        }
+    }
+}
@@ -15,17 +15,17 @@ public class GenericSearch {
         visited.add(initial);
 
         int nodesExpanded = 0;
-        List<State> expandedOrder = new ArrayList<>();
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
 
         while (!frontier.isEmpty()) {
             Node current = frontier.poll();
             nodesExpanded++;
-            expandedOrder.add(current.state);
+            trace.add(current.state);
 
             if (problem.isGoal(current.state)) {
                 String plan = reconstructPlan(current);
                 java.util.List<State> pathStates = reconstructPathStates(current);
-                return new SearchResult(plan, current.pathCost, nodesExpanded, expandedOrder, pathStates);
+                return new SearchResult(plan, current.pathCost, nodesExpanded, trace, pathStates);
             }
 
             for (String action : problem.actions(current.state)) {
@@ -38,7 +38,7 @@ public class GenericSearch {
                 }
             }
         }
-        return new SearchResult("", -1, nodesExpanded, expandedOrder, new java.util.ArrayList<>()); 
+        return new SearchResult("", -1, nodesExpanded, trace, new java.util.ArrayList<>()); 
 
     }
 
@@ -51,17 +51,17 @@ public class GenericSearch {
 
         frontier.push(root);
         int nodesExpanded = 0;
-        List<State> expandedOrder = new ArrayList<>();
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
 
         while (!frontier.isEmpty()) {
             Node current = frontier.pop();
             if (!visited.add(current.state)) continue;
 
             nodesExpanded++;
-            expandedOrder.add(current.state);
+            trace.add(current.state);
 
             if (problem.isGoal(current.state))
-                return resultFromNode(current, nodesExpanded, expandedOrder);
+                return resultFromNode(current, nodesExpanded, trace);
 
             for (String action : problem.actions(current.state)) {
                 State next = problem.result(current.state, action);
@@ -73,28 +73,49 @@ public class GenericSearch {
                 }
             }
         }
-        return emptyResult(nodesExpanded, expandedOrder);
+        return emptyResult(nodesExpanded, trace);
     }
 
     // ------------------ Iterative Deepening ------------------
     public static SearchResult ID(SearchProblem problem) {
+        SearchLimits limits = problem instanceof DeliverySearch
+                ? ((DeliverySearch) problem).getLimits() : SearchLimits.defaults();
+        return ID(problem, limits.nodeBudget());
+    }
+
+    public static SearchResult ID(SearchProblem problem, long nodeBudget) {
         State initial = problem.initialState();
         int totalNodesExpanded = 0;
-        List<State> expandedOrder = new ArrayList<>();
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+        // States on the current root-to-node path, by depth
+        List<State> path = new ArrayList<>();
+        Set<State> onPath = new HashSet<>();
 
         for (int limit = 0;; limit++) {
             Deque<Node> frontier = new ArrayDeque<>();
             frontier.push(new Node(initial, null, null, 0, 0));
+            path.clear();
+            onPath.clear();
             boolean cutoffOccurred = false;
             int nodesExpandedThisIter = 0;
 
             while (!frontier.isEmpty()) {
                 Node current = frontier.pop();
+                if (totalNodesExpanded + nodesExpandedThisIter >= nodeBudget) {
+                    SearchResult result = emptyResult(totalNodesExpanded + nodesExpandedThisIter, trace);
+                    result.budgetExhausted = true;
+                    return result;
+                }
                 nodesExpandedThisIter++;
-                expandedOrder.add(current.state);
+                trace.add(current.state);
+                // The stack is LIFO, so current's ancestors are the path up to its depth
+                while (path.size() > current.depth)
+                    onPath.remove(path.remove(path.size() - 1));
+                path.add(current.state);
+                onPath.add(current.state);
 
                 if (problem.isGoal(current.state))
-                    return resultFromNode(current, totalNodesExpanded + nodesExpandedThisIter, expandedOrder);
+                    return resultFromNode(current, totalNodesExpanded + nodesExpandedThisIter, trace);
 
                 if (current.depth == limit) {
                     cutoffOccurred = true;
@@ -103,7 +124,7 @@ public class GenericSearch {
 
                 for (String action : problem.actions(current.state)) {
                     State next = problem.result(current.state, action);
-                    if (isInPath(next, current)) continue;
+                    if (onPath.contains(next)) continue;
 
                     Node child = new Node(next, current, action,
                             current.pathCost + problem.stepCost(current.state, action, next),
@@ -114,7 +135,7 @@ public class GenericSearch {
 
             totalNodesExpanded += nodesExpandedThisIter;
             if (!cutoffOccurred)
-                return emptyResult(totalNodesExpanded, expandedOrder);
+                return emptyResult(totalNodesExpanded, trace);
         }
     }
 
@@ -156,7 +177,7 @@ public class GenericSearch {
         bestG.put(initial, 0);
 
         int nodesExpanded = 0;
-        List<State> expandedOrder = new ArrayList<>();
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
 
         while (!frontier.isEmpty()) {
             Node current = frontier.poll();
@@ -164,10 +185,10 @@ public class GenericSearch {
             if (recorded != null && current.pathCost != recorded) continue;
 
             nodesExpanded++;
-            expandedOrder.add(current.state);
+            trace.add(current.state);
 
             if (problem.isGoal(current.state))
-                return resultFromNode(current, nodesExpanded, expandedOrder);
+                return resultFromNode(current, nodesExpanded, trace);
 
             for (String action : problem.actions(current.state)) {
                 State next = problem.result(current.state, action);
@@ -180,7 +201,78 @@ public class GenericSearch {
                 }
             }
         }
-        return emptyResult(nodesExpanded, expandedOrder);
+        return emptyResult(nodesExpanded, trace);
+    }
+
+    // ------------------ One-to-many Dijkstra ------------------
+
+    /**
+     * Cheapest path from the initial state to every target with a single
+     * search that stops once all targets are expanded, instead of one UCS per
+     * target. Unreachable targets map to a result with cost -1.
+     */
+    public static Map<State, SearchResult> oneToMany(SearchProblem problem, Collection<State> targets) {
+        if (problem instanceof DeliverySearch) {
+            CompiledGrid graph = ((DeliverySearch) problem).getGraph();
+            List<State> list = new ArrayList<>(targets);
+            int[] cells = new int[list.size()];
+            for (int i = 0; i < cells.length; i++)
+                cells[i] = graph.cellId(list.get(i));
+            SearchResult[] results = IntGenericSearch.oneToMany((DeliverySearch) problem, cells, false);
+            Map<State, SearchResult> byTarget = new LinkedHashMap<>();
+            for (int i = 0; i < cells.length; i++)
+                byTarget.put(list.get(i), results[i]);
+            return byTarget;
+        }
+
+        Set<State> remaining = new HashSet<>(targets);
+        Map<State, Node> settled = new HashMap<>();
+        Map<State, Integer> settledAt = new HashMap<>();
+        Map<State, ExpansionTrace> settledTrace = new HashMap<>();
+
+        State initial = problem.initialState();
+        PriorityQueue<Node> frontier = new PriorityQueue<>(Comparator.comparingInt(n -> n.pathCost));
+        Map<State, Integer> bestG = new HashMap<>();
+        frontier.add(new Node(initial, null, null, 0, 0));
+        bestG.put(initial, 0);
+
+        int nodesExpanded = 0;
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+
+        while (!frontier.isEmpty() && !remaining.isEmpty()) {
+            Node current = frontier.poll();
+            if (current.pathCost != bestG.get(current.state)) continue;
+
+            nodesExpanded++;
+            trace.add(current.state);
+            if (remaining.remove(current.state)) {
+                settled.put(current.state, current);
+                settledAt.put(current.state, nodesExpanded);
+                settledTrace.put(current.state, trace.snapshot());
+            }
+
+            for (String action : problem.actions(current.state)) {
+                State next = problem.result(current.state, action);
+                int newCost = current.pathCost + problem.stepCost(current.state, action, next);
+                Integer prev = bestG.get(next);
+                if (prev == null || newCost < prev) {
+                    bestG.put(next, newCost);
+                    frontier.add(new Node(next, current, action, newCost, current.depth + 1));
+                }
+            }
+        }
+
+        Map<State, SearchResult> byTarget = new LinkedHashMap<>();
+        for (State target : targets) {
+            Node node = settled.get(target);
+            if (node == null) {
+                byTarget.put(target, emptyResult(nodesExpanded, trace));
+            } else {
+                int at = settledAt.get(target);
+                byTarget.put(target, resultFromNode(node, at, settledTrace.get(target)));
+            }
+        }
+        return byTarget;
     }
 
     // ------------------ Utilities ------------------
@@ -205,19 +297,12 @@ public class GenericSearch {
         return states;
     }
 
-    private static boolean isInPath(State state, Node node) {
-        while (node != null) {
-            if (node.state.equals(state)) return true;
-            node = node.parent;
-        }
-        return false;
-    }
 
-    private static SearchResult resultFromNode(Node node, int nodesExpanded, List<State> expandedOrder) {
-        return new SearchResult(reconstructPlan(node), node.pathCost, nodesExpanded, expandedOrder, reconstructPathStates(node));
+    private static SearchResult resultFromNode(Node node, int nodesExpanded, ExpansionTrace trace) {
+        return new SearchResult(reconstructPlan(node), node.pathCost, nodesExpanded, trace, reconstructPathStates(node));
     }
 
-    private static SearchResult emptyResult(int nodesExpanded, List<State> expandedOrder) {
-        return new SearchResult("", -1, nodesExpanded, expandedOrder, new ArrayList<>());
+    private static SearchResult emptyResult(int nodesExpanded, ExpansionTrace trace) {
+        return new SearchResult("", -1, nodesExpanded, trace, new ArrayList<>());
     }
 }
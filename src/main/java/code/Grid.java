@@ -9,19 +9,80 @@ public class Grid {
 
     public int rows, cols;
 
-    // traffic[y][x][direction] : cost
-    // direction: 0=up, 1=down, 2=left, 3=right
-    public int[][][] traffic;
+    /** Highest traffic cost a road can have; 0 means no road. */
+    public static final int MAX_TRAFFIC = 0xFFFF;
+
+    // Traffic cost of the road leaving (x, y) in each direction, flat at
+    // slot (y * cols + x) * 4 + direction (0=up, 1=down, 2=left, 3=right).
+    // Unsigned bytes until a cost above 255 is set, then unsigned shorts:
+    // 4 or 8 bytes a cell instead of an int[4] and its header and pointer.
+    private byte[] traffic;
+    private short[] wideTraffic; // replaces traffic once non-null
 
     public List<State> stores = new ArrayList<>();
     public List<State> destinations = new ArrayList<>();
     public List<Tunnel> tunnels = new ArrayList<>();
     public Set<RoadBlock> blockedRoads = new HashSet<>();
 
+    // Lazily built CSR snapshot, see compile()
+    private CompiledGrid compiled;
+    // Lazily computed content hash, see fingerprint(); 0 = not computed yet
+    private long fingerprint;
+    // Lazily built heuristic-2 tables, see trafficRangeMin()
+    private TrafficRangeMin trafficRangeMin;
+
     public Grid(int rows, int cols) {
         this.rows = rows;
         this.cols = cols;
-        traffic = new int[rows][cols][4];
+        traffic = new byte[rows * cols * 4];
+    }
+
+    // ---------------------------------------
+    // TRAFFIC
+    // ---------------------------------------
+
+    public int traffic(int x, int y, int direction) {
+        return traffic((y * cols + x) * 4 + direction);
+    }
+
+    /** Cost at a flat slot, (y * cols + x) * 4 + direction. */
+    int traffic(int slot) {
+        return wideTraffic != null ? wideTraffic[slot] & 0xFFFF : traffic[slot] & 0xFF;
+    }
+
+    /**
+     * Sets the cost of the road leaving (x, y) in direction; 0 closes it.
+     * Like any traffic edit, call invalidateCaches() afterwards if the grid
+     * has been searched.
+     */
+    public void setTraffic(int x, int y, int direction, int cost) {
+        if (cost < 0 || cost > MAX_TRAFFIC)
+            throw new IllegalArgumentException("Traffic must be between 0 and " + MAX_TRAFFIC + ", got " + cost);
+        int slot = (y * cols + x) * 4 + direction;
+        if (wideTraffic == null && cost > 0xFF) {
+            short[] wide = new short[traffic.length];
+            for (int i = 0; i < wide.length; i++)
+                wide[i] = (short) (traffic[i] & 0xFF);
+            wideTraffic = wide;
+            traffic = null;
+        }
+        if (wideTraffic != null)
+            wideTraffic[slot] = (short) cost;
+        else
+            traffic[slot] = (byte) cost;
+    }
+
+    /** Sets every road of the grid to cost. */
+    public void fillTraffic(int cost) {
+        for (int y = 0; y < rows; y++)
+            for (int x = 0; x < cols; x++)
+                for (int d = 0; d < 4; d++)
+                    setTraffic(x, y, d, cost);
+    }
+
+    /** Heap bytes holding the traffic costs. */
+    public long trafficSizeInBytes() {
+        return 16 + (wideTraffic != null ? 2L * wideTraffic.length : traffic.length);
     }
 
     // ---------------------------------------
@@ -31,19 +92,19 @@ public class Grid {
         List<String> actions = new ArrayList<>();
 
         State up = new State(s.x, s.y - 1);
-        if (s.y > 0 && !isBlockedEdge(s, up) && traffic[s.y][s.x][0] > 0)
+        if (s.y > 0 && !isBlockedEdge(s, up) && traffic(s.x, s.y, 0) > 0)
             actions.add("up");
 
         State down = new State(s.x, s.y + 1);
-        if (s.y < rows - 1 && !isBlockedEdge(s, down) && traffic[s.y][s.x][1] > 0)
+        if (s.y < rows - 1 && !isBlockedEdge(s, down) && traffic(s.x, s.y, 1) > 0)
             actions.add("down");
 
         State left = new State(s.x - 1, s.y);
-        if (s.x > 0 && !isBlockedEdge(s, left) && traffic[s.y][s.x][2] > 0)
+        if (s.x > 0 && !isBlockedEdge(s, left) && traffic(s.x, s.y, 2) > 0)
             actions.add("left");
 
         State right = new State(s.x + 1, s.y);
-        if (s.x < cols - 1 && !isBlockedEdge(s, right) && traffic[s.y][s.x][3] > 0)
+        if (s.x < cols - 1 && !isBlockedEdge(s, right) && traffic(s.x, s.y, 3) > 0)
             actions.add("right");
 
         if (isTunnelEntrance(s))
@@ -62,13 +123,13 @@ public class Grid {
 
         switch (action) {
             case "up":
-                return traffic[s.y][s.x][0];
+                return traffic(s.x, s.y, 0);
             case "down":
-                return traffic[s.y][s.x][1];
+                return traffic(s.x, s.y, 1);
             case "left":
-                return traffic[s.y][s.x][2];
+                return traffic(s.x, s.y, 2);
             case "right":
-                return traffic[s.y][s.x][3];
+                return traffic(s.x, s.y, 3);
             default:
                 return 1;
         }
@@ -133,6 +194,72 @@ public class Grid {
         return blockedRoads.contains(new RoadBlock(s, neighbor));
     }
 
+    // ---------------------------------------
+    // COMPILED SNAPSHOT
+    // ---------------------------------------
+
+    /**
+     * Returns the CSR snapshot of this grid, building it on first use.
+     * Code that edits traffic, tunnels or blockedRoads after searching
+     * must call invalidateCaches() so the next search sees the change.
+     */
+    public synchronized CompiledGrid compile() {
+        if (compiled == null)
+            compiled = CompiledGrid.compile(this);
+        return compiled;
+    }
+
+    public synchronized void invalidateCaches() {
+        compiled = null;
+        fingerprint = 0;
+        trafficRangeMin = null;
+    }
+
+    /** Range-minimum tables over traffic, built on first use like compile(). */
+    public synchronized TrafficRangeMin trafficRangeMin() {
+        if (trafficRangeMin == null)
+            trafficRangeMin = new TrafficRangeMin(this);
+        return trafficRangeMin;
+    }
+
+    /**
+     * 64-bit hash of everything routes depend on: size, traffic, tunnels (in
+     * order, since the first tunnel touching a cell wins) and blocked roads
+     * (in any order or direction). Stores and destinations are left out, so
+     * grids that differ only in those share cached routes (see RouteCache).
+     * Cached like compile(); invalidateCaches() resets it.
+     */
+    public synchronized long fingerprint() {
+        if (fingerprint == 0) {
+            long h = mix(rows * 31L + cols);
+            for (int slot = 0, n = rows * cols * 4; slot < n; slot++)
+                h = mix(h + traffic(slot));
+
+            for (Tunnel t : tunnels)
+                h = mix(h ^ mix(((long) t.A.x << 48) ^ ((long) t.A.y << 32) ^ ((long) t.B.x << 16) ^ t.B.y));
+
+            long blocks = 0; // order-independent sum
+            for (RoadBlock rb : blockedRoads) {
+                State a = rb.A, b = rb.B;
+                if (a.y > b.y || (a.y == b.y && a.x > b.x)) {
+                    a = rb.B;
+                    b = rb.A;
+                }
+                blocks += mix(((long) a.x << 48) ^ ((long) a.y << 32) ^ ((long) b.x << 16) ^ b.y);
+            }
+            h = mix(h ^ blocks);
+            fingerprint = h == 0 ? 1 : h;
+        }
+        return fingerprint;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
     // Public random grid generator (keeps same API)
     public static String GenGrid() {
         Random rnd = new Random();
@@ -151,8 +278,13 @@ public class Grid {
     }
 
     private static String generateGridInternal(int rows, int cols, int numStores, int numDestinations) {
+        Grid g = randomGrid(rows, cols, numStores, numDestinations, new Random());
+        return serialize(g);
+    }
 
-        Random rnd = new Random();
+    // Random grid with the same distribution GenGrid serializes
+    // (also used by tests and PerformanceBenchmark with a seeded Random)
+    static Grid randomGrid(int rows, int cols, int numStores, int numDestinations, Random rnd) {
         Grid g = new Grid(rows, cols);
         HashSet<String> used = new HashSet<>();
 
@@ -187,7 +319,7 @@ public class Grid {
         for (int y = 0; y < rows; y++)
             for (int x = 0; x < cols; x++)
                 for (int d = 0; d < 4; d++)
-                    g.traffic[y][x][d] = rnd.nextInt(4) + 1;
+                    g.setTraffic(x, y, d, rnd.nextInt(4) + 1);
 
         // ----- ROADBLOCKS -----
         int blockCount = (int) (rows * cols * 0.1);
@@ -219,16 +351,21 @@ public class Grid {
 
             if (to != null) {
                 g.blockedRoads.add(new RoadBlock(from, to));
-                g.traffic[y][x][dir] = 0;
+                g.setTraffic(x, y, dir, 0);
             }
         }
 
-        // ----- SERIALIZATION -----
+        return g;
+    }
+
+    private static String serialize(Grid g) {
+        int rows = g.rows, cols = g.cols;
         StringBuilder initial = new StringBuilder();
         StringBuilder trafficSb = new StringBuilder();
 
+        // ----- SERIALIZATION -----
         initial.append(cols).append(";").append(rows).append(";")
-                .append(numDestinations).append(";").append(numStores).append(";");
+                .append(g.destinations.size()).append(";").append(g.stores.size()).append(";");
 
         // Destinations
         for (State d : g.destinations)
@@ -250,13 +387,13 @@ public class Grid {
         for (int y = 0; y < rows; y++) {
             for (int x = 0; x < cols; x++) {
                 if (y > 0)
-                    trafficSb.append(x + "," + y + "," + x + "," + (y - 1) + "," + g.traffic[y][x][0] + ";");
+                    trafficSb.append(x + "," + y + "," + x + "," + (y - 1) + "," + g.traffic(x, y, 0) + ";");
                 if (y < rows - 1)
-                    trafficSb.append(x + "," + y + "," + x + "," + (y + 1) + "," + g.traffic[y][x][1] + ";");
+                    trafficSb.append(x + "," + y + "," + x + "," + (y + 1) + "," + g.traffic(x, y, 1) + ";");
                 if (x > 0)
-                    trafficSb.append(x + "," + y + "," + (x - 1) + "," + y + "," + g.traffic[y][x][2] + ";");
+                    trafficSb.append(x + "," + y + "," + (x - 1) + "," + y + "," + g.traffic(x, y, 2) + ";");
                 if (x < cols - 1)
-                    trafficSb.append(x + "," + y + "," + (x + 1) + "," + y + "," + g.traffic[y][x][3] + ";");
+                    trafficSb.append(x + "," + y + "," + (x + 1) + "," + y + "," + g.traffic(x, y, 3) + ";");
             }
         }
 
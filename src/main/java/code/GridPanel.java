@@ -19,6 +19,7 @@ public class GridPanel extends JPanel {
 
     private final List<State> truckTrail = new ArrayList<>();
     private String[][] arrows;
+    private boolean[][] expanded; // cells the last shown search expanded, null when none
 
     private final Map<State, Color> StoresColors = new HashMap<>();
     private Color truckColor = Color.BLUE;
@@ -80,6 +81,19 @@ public class GridPanel extends JPanel {
         }
     }
 
+    /** Shade the cells a search expanded; null or empty clears the shading. */
+    public void setExpanded(List<State> cells) {
+        if (cells == null || cells.isEmpty()) {
+            expanded = null;
+        } else {
+            expanded = new boolean[grid.rows][grid.cols];
+            for (State s : cells)
+                if (s.y >= 0 && s.y < grid.rows && s.x >= 0 && s.x < grid.cols)
+                    expanded[s.y][s.x] = true;
+        }
+        repaint();
+    }
+
     @Override
     protected void paintComponent(Graphics g0) {
         super.paintComponent(g0);
@@ -104,6 +118,14 @@ public class GridPanel extends JPanel {
                 if ((r + c) % 2 == 0)
                     g.fillRect(gx + c * cellW, gy + r * cellH, cellW, cellH);
 
+        if (expanded != null) {
+            g.setColor(new Color(255, 236, 179));
+            for (int r = 0; r < grid.rows; r++)
+                for (int c = 0; c < grid.cols; c++)
+                    if (expanded[r][c])
+                        g.fillRect(gx + c * cellW, gy + r * cellH, cellW, cellH);
+        }
+
         g.setColor(new Color(220, 223, 227));
         for (int i = 0; i <= grid.cols; i++)
             g.drawLine(gx + i * cellW, gy, gx + i * cellW, gy + gh);
@@ -120,13 +142,13 @@ public class GridPanel extends JPanel {
 
                 // Edge costs (right and up)
                 if (x + 1 < grid.cols) {
-                    int cost = grid.getCost(s, new State(x + 1, y), "right");
-                    if (cost > 0)
+                    int cost = grid.traffic(x, y, CompiledGrid.RIGHT);
+                    if (cost > 0 && !grid.isBlockedEdge(s, new State(x + 1, y)))
                         drawEdgeCost(g, s, new State(x + 1, y), cost, cellW, cellH, gx, gy);
                 }
                 if (y - 1 >= 0) {
-                    int cost = grid.getCost(new State(x, y - 1), s, "down");
-                    if (cost > 0)
+                    int cost = grid.traffic(x, y - 1, CompiledGrid.DOWN);
+                    if (cost > 0 && !grid.isBlockedEdge(new State(x, y - 1), s))
                         drawEdgeCost(g, new State(x, y - 1), s, cost, cellW, cellH, gx, gy);
                 }
                 // Walls (all four directions)
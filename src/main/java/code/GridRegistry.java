@@ -0,0 +1,79 @@
+package code;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Grids held by the server between requests, so a client can send a grid
+ * once and then patch its traffic (see TrafficPatch) instead of re-sending
+ * the whole GridConfig for every edit.
+ *
+ * Each grid carries a read/write lock: planning holds the read lock, edits
+ * the write lock. At most maxGrids grids are kept; registering one more
+ * drops the least recently used.
+ */
+public final class GridRegistry {
+
+    public static final int DEFAULT_MAX_GRIDS = 64;
+
+    private static final GridRegistry SHARED = new GridRegistry(DEFAULT_MAX_GRIDS);
+
+    private final LinkedHashMap<String, Held> grids = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxGrids;
+
+    public GridRegistry(int maxGrids) {
+        this.maxGrids = maxGrids;
+    }
+
+    /** Process-wide instance used by the REST API. */
+    public static GridRegistry shared() {
+        return SHARED;
+    }
+
+    /** A registered grid and the lock guarding it. */
+    public static final class Held {
+        public final Grid grid;
+        public final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        Held(Grid grid) {
+            this.grid = grid;
+        }
+    }
+
+    public synchronized String register(Grid grid) {
+        String id = UUID.randomUUID().toString();
+        grids.put(id, new Held(grid));
+        if (grids.size() > maxGrids) {
+            String eldest = grids.keySet().iterator().next();
+            grids.remove(eldest);
+        }
+        return id;
+    }
+
+    /** The grid registered under id, or null if unknown or dropped. */
+    public synchronized Held get(String id) {
+        return grids.get(id);
+    }
+
+    public synchronized boolean remove(String id) {
+        return grids.remove(id) != null;
+    }
+
+    public synchronized int size() {
+        return grids.size();
+    }
+
+    public synchronized void clear() {
+        grids.clear();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("grids", grids.size());
+        s.put("maxGrids", maxGrids);
+        return s;
+    }
+}
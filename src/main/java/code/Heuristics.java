@@ -10,51 +10,43 @@ public class Heuristics {
      * Heuristic 1: Manhattan distance (admissible)
      * Heuristic 2: Traffic-aware admissible heuristic
      * Uses Manhattan distance weighted by minimal traffic along x and y axes
+     * Heuristic 3: ALT landmark bound (admissible and consistent, see Landmarks)
+     * Heuristic 4: exact cost to the goal (see DistanceFields)
      */
 public static int heuristic(SearchProblem problem, State s, int heuristicId) {
     if (!(problem instanceof DeliverySearch)) return 0;
 
     DeliverySearch ds = (DeliverySearch) problem;
     State goal = ds.getGoal();
-    Grid grid = ds.getGrid();
 
     if (s.equals(goal)) return 0;
 
     if (heuristicId == 1) {
         return manhattan(s, goal);
+    } else if (heuristicId == 3) {
+        CompiledGrid graph = ds.getGraph();
+        return ds.landmarks().estimate(graph.cellId(s), graph.cellId(goal));
+    } else if (heuristicId == 4) {
+        return exact(ds, ds.getGraph().cellId(s));
     } else {
         int dx = Math.abs(s.x - goal.x);
         int dy = Math.abs(s.y - goal.y);
 
+        // Range minimums over the row and column of s, O(1) each
+        TrafficRangeMin ranges = ds.trafficRangeMin();
         int minXCost = Integer.MAX_VALUE;
         if (dx > 0) {
-            int startX = Math.min(s.x, goal.x);
-            int endX = Math.max(s.x, goal.x);
-            int y = s.y;
-            if (goal.x > s.x) {
-                for (int x = startX; x < endX; x++) {
-                    minXCost = Math.min(minXCost, grid.traffic[y][x][3]);
-                }
-            } else {
-                for (int x = startX + 1; x <= endX; x++) {
-                    minXCost = Math.min(minXCost, grid.traffic[y][x][2]);
-                }
-            }
+            if (goal.x > s.x)
+                minXCost = ranges.rowMin(s.y, s.x, goal.x - 1, 3);
+            else
+                minXCost = ranges.rowMin(s.y, goal.x + 1, s.x, 2);
         }
         int minYCost = Integer.MAX_VALUE;
         if (dy > 0) {
-            int startY = Math.min(s.y, goal.y);
-            int endY = Math.max(s.y, goal.y);
-            int x = s.x;
-            if (goal.y > s.y) {
-                for (int y = startY; y < endY; y++) {
-                    minYCost = Math.min(minYCost, grid.traffic[y][x][1]);
-                }
-            } else {
-                for (int y = startY + 1; y <= endY; y++) {
-                    minYCost = Math.min(minYCost, grid.traffic[y][x][0]);
-                }
-            }
+            if (goal.y > s.y)
+                minYCost = ranges.columnMin(s.x, s.y, goal.y - 1, 1);
+            else
+                minYCost = ranges.columnMin(s.x, goal.y + 1, s.y, 0);
         }
         if (minXCost == Integer.MAX_VALUE || minXCost == 0 ) minXCost = 1;
         if (minYCost == Integer.MAX_VALUE || minYCost == 0) minYCost = 1;
@@ -63,4 +55,22 @@ public static int heuristic(SearchProblem problem, State s, int heuristicId) {
     }
 }
 
-}
\ No newline at end of file
+    /** Same heuristics for the int-state API; cells map to the snapshot's canonical States. */
+    public static int heuristic(IntSearchProblem problem, int cell, int heuristicId) {
+        if (!(problem instanceof DeliverySearch)) return 0;
+        DeliverySearch ds = (DeliverySearch) problem;
+        if (heuristicId == 3) {
+            return ds.landmarks().estimate(cell, ds.getGraph().cellId(ds.getGoal()));
+        }
+        if (heuristicId == 4)
+            return exact(ds, cell);
+        return heuristic(ds, problem.stateOf(cell), heuristicId);
+    }
+
+    // Cells that cannot reach the goal are ordered last without overflowing g + h
+    private static int exact(DeliverySearch ds, int cell) {
+        int d = ds.goalDistances()[cell];
+        return d == DistanceFields.INF ? Integer.MAX_VALUE / 2 : d;
+    }
+
+}
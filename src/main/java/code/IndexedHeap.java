@@ -0,0 +1,124 @@
+package code;
+
+import java.util.Arrays;
+
+/**
+ * Indexed 4-ary min-heap over cell ids, used as the open list of UCS, Greedy
+ * and A* in IntGenericSearch.
+ *
+ * Each cell appears at most once and carries its cached priority (f), so the
+ * heap never calls a heuristic while sifting and never holds stale duplicates:
+ * a better path to a queued cell is a decrease-key via push().
+ */
+public final class IndexedHeap implements OpenList {
+
+    private static final int D = 4;
+
+    private final int[] heap; // cells in heap order
+    private final int[] pos;  // position of each cell in heap, -1 when absent
+    private final int[] key;  // cached priority of each queued cell
+    private int size;
+
+    public IndexedHeap(int capacity) {
+        heap = new int[capacity];
+        pos = new int[capacity];
+        key = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int cell) {
+        return pos[cell] >= 0;
+    }
+
+    public int key(int cell) {
+        return key[cell];
+    }
+
+    /** Smallest priority currently queued; the heap must not be empty. */
+    public int minKey() {
+        return key[heap[0]];
+    }
+
+    /** Inserts cell, or moves it to the new priority if it is already queued. */
+    @Override
+    public void push(int cell, int priority) {
+        int i = pos[cell];
+        if (i < 0) {
+            i = size++;
+            heap[i] = cell;
+            pos[cell] = i;
+            key[cell] = priority;
+            siftUp(i);
+        } else {
+            int old = key[cell];
+            key[cell] = priority;
+            if (priority < old)
+                siftUp(i);
+            else if (priority > old)
+                siftDown(i);
+        }
+    }
+
+    /** Removes and returns the cell with the smallest priority. */
+    @Override
+    public int pop() {
+        int top = heap[0];
+        pos[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        int k = key[cell];
+        while (i > 0) {
+            int p = (i - 1) / D;
+            int parent = heap[p];
+            if (key[parent] <= k) break;
+            heap[i] = parent;
+            pos[parent] = i;
+            i = p;
+        }
+        heap[i] = cell;
+        pos[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        int k = key[cell];
+        while (true) {
+            int first = i * D + 1;
+            if (first >= size) break;
+            int best = first;
+            int last = Math.min(first + D, size);
+            for (int c = first + 1; c < last; c++)
+                if (key[heap[c]] < key[heap[best]]) best = c;
+            if (key[heap[best]] >= k) break;
+            heap[i] = heap[best];
+            pos[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = cell;
+        pos[cell] = i;
+    }
+}
@@ -0,0 +1,602 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Int-state versions of the GenericSearch strategies.
+ *
+ * Search nodes live in a NodeArena (parallel primitive arrays addressed by
+ * index), successors are read into reusable buffers and the frontier holds
+ * ints, so an expansion allocates nothing. Expansion order and tie
+ * handling follow GenericSearch; only the priority-queue tie order can differ.
+ */
+public class IntGenericSearch {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    // ------------------ BFS ------------------
+    public static SearchResult BFS(IntSearchProblem problem) {
+        int root = problem.initialCell();
+        NodeArena nodes = new NodeArena();
+        boolean[] visited = new boolean[problem.cellCount()];
+
+        // Nodes are appended in generation order, so the arena is the FIFO queue
+        nodes.add(NodeArena.NONE, root, (byte) -1, 0, 0);
+        visited[root] = true;
+        int head = 0;
+
+        Buffers buf = new Buffers(problem);
+        int nodesExpanded = 0;
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+
+        while (head < nodes.size()) {
+            int current = head++;
+            int cell = nodes.cell(current);
+            nodesExpanded++;
+            trace.add(problem.stateOf(cell));
+
+            if (problem.isGoalCell(cell))
+                return resultFromNode(problem, nodes, current, nodesExpanded, trace);
+
+            int count = problem.successors(cell, buf.cells, buf.costs, buf.actions);
+            for (int i = 0; i < count; i++) {
+                int next = buf.cells[i];
+                if (!visited[next]) {
+                    visited[next] = true;
+                    nodes.add(current, next, buf.actions[i],
+                            nodes.g(current) + buf.costs[i], nodes.depth(current) + 1);
+                }
+            }
+        }
+        return emptyResult(nodesExpanded, trace);
+    }
+
+    // ------------------ DFS ------------------
+    public static SearchResult DFS(IntSearchProblem problem) {
+        int root = problem.initialCell();
+        NodeArena nodes = new NodeArena();
+        boolean[] visited = new boolean[problem.cellCount()];
+        IntStack frontier = new IntStack();
+
+        frontier.push(nodes.add(NodeArena.NONE, root, (byte) -1, 0, 0));
+
+        Buffers buf = new Buffers(problem);
+        int nodesExpanded = 0;
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+
+        while (!frontier.isEmpty()) {
+            int current = frontier.pop();
+            int cell = nodes.cell(current);
+            if (visited[cell]) {
+                nodes.truncate(current);
+                continue;
+            }
+            // Everything pushed after the stack top is already popped
+            nodes.truncate(current + 1);
+            visited[cell] = true;
+
+            nodesExpanded++;
+            trace.add(problem.stateOf(cell));
+
+            if (problem.isGoalCell(cell))
+                return resultFromNode(problem, nodes, current, nodesExpanded, trace);
+
+            int count = problem.successors(cell, buf.cells, buf.costs, buf.actions);
+            for (int i = 0; i < count; i++) {
+                int next = buf.cells[i];
+                if (!visited[next])
+                    frontier.push(nodes.add(current, next, buf.actions[i],
+                            nodes.g(current) + buf.costs[i], nodes.depth(current) + 1));
+            }
+        }
+        return emptyResult(nodesExpanded, trace);
+    }
+
+    // ------------------ Iterative Deepening ------------------
+    public static SearchResult ID(IntSearchProblem problem) {
+        return ID(problem, limits(problem).nodeBudget());
+    }
+
+    /** Depth-limited DFS with growing limits; stops after nodeBudget expansions. */
+    public static SearchResult ID(IntSearchProblem problem, long nodeBudget) {
+        int root = problem.initialCell();
+        NodeArena nodes = new NodeArena();
+        IntStack frontier = new IntStack();
+        PathSet path = new PathSet(problem.cellCount());
+        Buffers buf = new Buffers(problem);
+        int totalNodesExpanded = 0;
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+
+        for (int limit = 0;; limit++) {
+            nodes.clear();
+            path.clear();
+            frontier.push(nodes.add(NodeArena.NONE, root, (byte) -1, 0, 0));
+            boolean cutoffOccurred = false;
+            int nodesExpandedThisIter = 0;
+
+            while (!frontier.isEmpty()) {
+                int current = frontier.pop();
+                nodes.truncate(current + 1);
+                int cell = nodes.cell(current);
+                if (totalNodesExpanded + nodesExpandedThisIter >= nodeBudget)
+                    return budgetExhausted(totalNodesExpanded + nodesExpandedThisIter, trace);
+                nodesExpandedThisIter++;
+                trace.add(problem.stateOf(cell));
+                // The stack is LIFO, so current's ancestors are the path up to its depth
+                path.enter(nodes.depth(current), cell);
+
+                if (problem.isGoalCell(cell))
+                    return resultFromNode(problem, nodes, current,
+                            totalNodesExpanded + nodesExpandedThisIter, trace);
+
+                if (nodes.depth(current) == limit) {
+                    cutoffOccurred = true;
+                    continue;
+                }
+
+                int count = problem.successors(cell, buf.cells, buf.costs, buf.actions);
+                for (int i = 0; i < count; i++) {
+                    int next = buf.cells[i];
+                    if (path.contains(next)) continue;
+                    frontier.push(nodes.add(current, next, buf.actions[i],
+                            nodes.g(current) + buf.costs[i], nodes.depth(current) + 1));
+                }
+            }
+
+            totalNodesExpanded += nodesExpandedThisIter;
+            if (!cutoffOccurred)
+                return emptyResult(totalNodesExpanded, trace);
+        }
+    }
+
+    // ------------------ IDA* ------------------
+    public static SearchResult IDAStar(IntSearchProblem problem, int heuristicId) {
+        SearchLimits limits = limits(problem);
+        return IDAStar(problem, heuristicId, limits.transpositionTableSize(), limits.nodeBudget());
+    }
+
+    /**
+     * Depth-first A*: each iteration explores every path with f = g + h up to
+     * a bound, and the next bound is the smallest f that went over. Memory is
+     * the current path plus a bitset of the cells on it, so with an
+     * admissible heuristic it finds UCS-optimal routes in O(n / 8) bytes.
+     *
+     * Cells reached by many paths (every cell of a grid) make plain IDA*
+     * re-explore the same subtrees. The transposition table remembers, per
+     * iteration, the cheapest g each cell was reached with and prunes costlier
+     * arrivals. It holds tableSize entries (0 turns it off); when smaller than
+     * the grid, cells share slots and the newest arrival wins, which only
+     * prunes less. Stops after nodeBudget expansions.
+     */
+    public static SearchResult IDAStar(IntSearchProblem problem, int heuristicId, int tableSize, long nodeBudget) {
+        int root = problem.initialCell();
+        int width = problem.maxSuccessors();
+        PathSet path = new PathSet(problem.cellCount());
+        TranspositionTable table = tableSize > 0 ? new TranspositionTable(tableSize, problem.cellCount()) : null;
+
+        // One frame per path depth; successors of depth d live at d * width
+        int[] cells = new int[64], g = new int[64], next = new int[64], end = new int[64];
+        byte[] actions = new byte[64];
+        int[] succCells = new int[64 * width], succCosts = new int[64 * width];
+        byte[] succActions = new byte[64 * width];
+        Buffers buf = new Buffers(problem);
+
+        int nodesExpanded = 0;
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+        int bound = Heuristics.heuristic(problem, root, heuristicId);
+
+        for (int iteration = 1;; iteration++) {
+            int nextBound = INF;
+            int depth = 0;
+            cells[0] = root;
+            g[0] = 0;
+            boolean entering = true;
+
+            while (depth >= 0) {
+                if (entering) {
+                    entering = false;
+                    int cell = cells[depth];
+                    int f = g[depth] + Heuristics.heuristic(problem, cell, heuristicId);
+                    if (f > bound || (table != null && table.reachedCheaper(cell, g[depth], iteration))) {
+                        if (f > bound)
+                            nextBound = Math.min(nextBound, f);
+                        depth--;
+                        continue;
+                    }
+                    if (nodesExpanded >= nodeBudget)
+                        return budgetExhausted(nodesExpanded, trace);
+                    nodesExpanded++;
+                    trace.add(problem.stateOf(cell));
+                    path.enter(depth, cell);
+
+                    if (problem.isGoalCell(cell))
+                        return pathResult(problem, cells, actions, g[depth], depth, nodesExpanded, trace);
+
+                    int base = depth * width;
+                    if (base + width > succCells.length) {
+                        succCells = Arrays.copyOf(succCells, succCells.length * 2);
+                        succCosts = Arrays.copyOf(succCosts, succCosts.length * 2);
+                        succActions = Arrays.copyOf(succActions, succActions.length * 2);
+                    }
+                    int count = problem.successors(cell, buf.cells, buf.costs, buf.actions);
+                    System.arraycopy(buf.cells, 0, succCells, base, count);
+                    System.arraycopy(buf.costs, 0, succCosts, base, count);
+                    System.arraycopy(buf.actions, 0, succActions, base, count);
+                    next[depth] = base;
+                    end[depth] = base + count;
+                }
+
+                if (next[depth] == end[depth]) {
+                    path.truncate(depth);
+                    depth--;
+                    continue;
+                }
+                int i = next[depth]++;
+                if (path.contains(succCells[i]))
+                    continue;
+
+                if (depth + 1 == cells.length) {
+                    int size = cells.length * 2;
+                    cells = Arrays.copyOf(cells, size);
+                    g = Arrays.copyOf(g, size);
+                    next = Arrays.copyOf(next, size);
+                    end = Arrays.copyOf(end, size);
+                    actions = Arrays.copyOf(actions, size);
+                }
+                depth++;
+                cells[depth] = succCells[i];
+                g[depth] = g[depth - 1] + succCosts[i];
+                actions[depth] = succActions[i];
+                entering = true;
+            }
+
+            path.clear();
+            if (nextBound == INF)
+                return emptyResult(nodesExpanded, trace);
+            bound = nextBound;
+        }
+    }
+
+    // ------------------ UCS ------------------
+    public static SearchResult UCS(IntSearchProblem problem) {
+        return uniformCost(problem, false, 0, false);
+    }
+
+    // ------------------ Greedy Search ------------------
+    public static SearchResult Greedy(IntSearchProblem problem, int heuristicId) {
+        return uniformCost(problem, true, heuristicId, false);
+    }
+
+    // ------------------ A* Search ------------------
+    public static SearchResult AStar(IntSearchProblem problem, int heuristicId) {
+        return uniformCost(problem, true, heuristicId, true);
+    }
+
+    // ------------------ Cancellable UCS / A* ------------------
+    /**
+     * UCS or A* (heuristicId > 0) that polls cancel every CANCEL_INTERVAL
+     * expansions and returns null once it says stop. With a consistent
+     * heuristic (or none) the f of the cell being expanded is passed as a
+     * lower bound on the route cost; pass consistent = false otherwise.
+     */
+    public static SearchResult cancellable(IntSearchProblem problem, int heuristicId, boolean consistent,
+                                           SearchCancellation cancel) {
+        return uniformCost(problem, heuristicId > 0, heuristicId, true, new IndexedHeap(problem.cellCount()),
+                cancel, consistent);
+    }
+
+    static final int CANCEL_INTERVAL = 64;
+
+    // ------------------ Bucket-queue UCS / A* ------------------
+    // Dial's algorithm when edge costs are small integers, a radix heap otherwise.
+    public static SearchResult UCSBucket(IntSearchProblem problem) {
+        return uniformCost(problem, false, 0, false, bucketQueue(problem, problem.maxStepCost()));
+    }
+
+    /** Bucketed A*; needs a consistent heuristic (1) so that f never decreases. */
+    public static SearchResult AStarBucket(IntSearchProblem problem, int heuristicId) {
+        // With a consistent h, f grows by at most 2 * max step cost per edge
+        return uniformCost(problem, true, heuristicId, true, bucketQueue(problem, 2 * problem.maxStepCost()));
+    }
+
+    static final int MAX_DIAL_BUCKETS = 1 << 12;
+
+    static OpenList bucketQueue(IntSearchProblem problem, int spread) {
+        if (spread < MAX_DIAL_BUCKETS)
+            return new DialQueue(problem.cellCount(), spread);
+        return new RadixHeap(problem.cellCount());
+    }
+
+    // ------------------ Unified UCS / Greedy / A* ------------------
+    private static SearchResult uniformCost(IntSearchProblem problem, boolean useHeuristic, int heuristicId, boolean isAStar) {
+        return uniformCost(problem, useHeuristic, heuristicId, isAStar, new IndexedHeap(problem.cellCount()));
+    }
+
+    private static SearchResult uniformCost(IntSearchProblem problem, boolean useHeuristic, int heuristicId,
+                                            boolean isAStar, OpenList frontier) {
+        return uniformCost(problem, useHeuristic, heuristicId, isAStar, frontier, null, false);
+    }
+
+    private static SearchResult uniformCost(IntSearchProblem problem, boolean useHeuristic, int heuristicId,
+                                            boolean isAStar, OpenList frontier,
+                                            SearchCancellation cancel, boolean reportsBound) {
+        int n = problem.cellCount();
+        int root = problem.initialCell();
+        NodeArena nodes = new NodeArena();
+        int[] nodeOf = new int[n]; // arena node holding each cell's best known path
+        int[] bestG = new int[n];
+        int[] h = new int[n];
+        Arrays.fill(bestG, INF);
+        Arrays.fill(h, -1);
+
+        // One entry per cell with its f cached: improvements are decrease-keys
+        bestG[root] = 0;
+        nodeOf[root] = nodes.add(NodeArena.NONE, root, (byte) -1, 0, 0);
+        frontier.push(root, priority(problem, root, 0, h, useHeuristic, heuristicId, isAStar));
+
+        Buffers buf = new Buffers(problem);
+        int nodesExpanded = 0;
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+
+        while (!frontier.isEmpty()) {
+            int cell = frontier.pop();
+            int current = nodeOf[cell];
+            int g = bestG[cell];
+
+            if (cancel != null && nodesExpanded % CANCEL_INTERVAL == 0
+                    && cancel.stop(reportsBound ? g + (useHeuristic ? h[cell] : 0) : -1))
+                return null;
+            nodesExpanded++;
+            trace.add(problem.stateOf(cell));
+
+            if (problem.isGoalCell(cell))
+                return resultFromNode(problem, nodes, current, nodesExpanded, trace);
+
+            int count = problem.successors(cell, buf.cells, buf.costs, buf.actions);
+            for (int i = 0; i < count; i++) {
+                int next = buf.cells[i];
+                int newCost = g + buf.costs[i];
+                if (newCost < bestG[next]) {
+                    // Also re-opens an expanded cell, as GenericSearch does through bestG
+                    bestG[next] = newCost;
+                    nodeOf[next] = nodes.add(current, next, buf.actions[i], newCost, nodes.depth(current) + 1);
+                    frontier.push(next, priority(problem, next, newCost, h, useHeuristic, heuristicId, isAStar));
+                }
+            }
+        }
+        return emptyResult(nodesExpanded, trace);
+    }
+
+    // Same ordering as GenericSearch's comparator; h is computed once per cell
+    private static int priority(IntSearchProblem problem, int cell, int g, int[] h,
+                                boolean useHeuristic, int heuristicId, boolean isAStar) {
+        if (useHeuristic && h[cell] < 0)
+            h[cell] = Heuristics.heuristic(problem, cell, heuristicId);
+        int hv = useHeuristic ? h[cell] : 0;
+        return isAStar ? g + hv : hv != 0 ? hv : g;
+    }
+
+    // ------------------ One-to-many ------------------
+
+    /**
+     * One search from the initial cell that keeps going until every target is
+     * expanded (the goal test is ignored). Returns one result per entry of
+     * targets, each with the nodes expanded up to that target; unreachable
+     * targets get cost -1. breadthFirst = true gives exactly the paths BFS
+     * would find per target, false gives Dijkstra (UCS-optimal) paths.
+     */
+    public static SearchResult[] oneToMany(IntSearchProblem problem, int[] targets, boolean breadthFirst) {
+        int n = problem.cellCount();
+        int root = problem.initialCell();
+        NodeArena nodes = new NodeArena();
+        int[] nodeOf = new int[n];
+        int[] bestG = new int[n];
+        Arrays.fill(bestG, INF);
+
+        boolean[] wanted = new boolean[n];
+        int remaining = 0;
+        for (int t : targets)
+            if (t >= 0 && !wanted[t]) {
+                wanted[t] = true;
+                remaining++;
+            }
+        int[] settledNode = new int[n];
+        int[] settledAt = new int[n];
+        ExpansionTrace[] settledTrace = new ExpansionTrace[n];
+
+        IndexedHeap open = breadthFirst ? null : new IndexedHeap(n);
+        int head = 0;
+        bestG[root] = 0;
+        nodeOf[root] = nodes.add(NodeArena.NONE, root, (byte) -1, 0, 0);
+        if (open != null) open.push(root, 0);
+
+        Buffers buf = new Buffers(problem);
+        int nodesExpanded = 0;
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+
+        while (remaining > 0 && (open != null ? !open.isEmpty() : head < nodes.size())) {
+            int current = open != null ? nodeOf[open.pop()] : head++;
+            int cell = nodes.cell(current);
+            int g = nodes.g(current);
+
+            nodesExpanded++;
+            trace.add(problem.stateOf(cell));
+            if (wanted[cell]) {
+                wanted[cell] = false;
+                settledNode[cell] = current;
+                settledAt[cell] = nodesExpanded;
+                settledTrace[cell] = trace.snapshot();
+                remaining--;
+            }
+
+            int count = problem.successors(cell, buf.cells, buf.costs, buf.actions);
+            for (int i = 0; i < count; i++) {
+                int next = buf.cells[i];
+                int newCost = g + buf.costs[i];
+                if (breadthFirst ? bestG[next] == INF : newCost < bestG[next]) {
+                    bestG[next] = newCost;
+                    nodeOf[next] = nodes.add(current, next, buf.actions[i], newCost, nodes.depth(current) + 1);
+                    if (open != null) open.push(next, newCost);
+                }
+            }
+        }
+
+        SearchResult[] results = new SearchResult[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            int t = targets[i];
+            if (t < 0 || settledAt[t] == 0) {
+                results[i] = emptyResult(nodesExpanded, trace);
+            } else {
+                int node = settledNode[t];
+                results[i] = new SearchResult(reconstructPlan(problem, nodes, node), nodes.g(node), settledAt[t],
+                        settledTrace[t], reconstructPathStates(problem, nodes, node));
+            }
+        }
+        return results;
+    }
+
+    // ------------------ Utilities ------------------
+    static SearchLimits limits(IntSearchProblem problem) {
+        return problem instanceof DeliverySearch ? ((DeliverySearch) problem).getLimits() : SearchLimits.defaults();
+    }
+
+    private static String reconstructPlan(IntSearchProblem problem, NodeArena nodes, int node) {
+        List<String> actions = new ArrayList<>();
+        for (int cur = node; nodes.parent(cur) != NodeArena.NONE; cur = nodes.parent(cur))
+            actions.add(problem.actionName(nodes.action(cur)));
+        Collections.reverse(actions);
+        return String.join(",", actions);
+    }
+
+    private static List<State> reconstructPathStates(IntSearchProblem problem, NodeArena nodes, int node) {
+        List<State> states = new ArrayList<>();
+        for (int cur = node; cur != NodeArena.NONE; cur = nodes.parent(cur))
+            states.add(problem.stateOf(nodes.cell(cur)));
+        Collections.reverse(states);
+        return states;
+    }
+
+    // Route along the IDA* frames 0..depth
+    private static SearchResult pathResult(IntSearchProblem problem, int[] cells, byte[] actions, int cost,
+                                           int depth, int nodesExpanded, ExpansionTrace trace) {
+        List<String> plan = new ArrayList<>();
+        List<State> states = new ArrayList<>();
+        states.add(problem.stateOf(cells[0]));
+        for (int d = 1; d <= depth; d++) {
+            plan.add(problem.actionName(actions[d]));
+            states.add(problem.stateOf(cells[d]));
+        }
+        return new SearchResult(String.join(",", plan), cost, nodesExpanded, trace, states);
+    }
+
+    private static SearchResult budgetExhausted(int nodesExpanded, ExpansionTrace trace) {
+        SearchResult result = emptyResult(nodesExpanded, trace);
+        result.budgetExhausted = true;
+        return result;
+    }
+
+    private static SearchResult resultFromNode(IntSearchProblem problem, NodeArena nodes, int node,
+                                               int nodesExpanded, ExpansionTrace trace) {
+        return new SearchResult(reconstructPlan(problem, nodes, node), nodes.g(node), nodesExpanded,
+                trace, reconstructPathStates(problem, nodes, node));
+    }
+
+    private static SearchResult emptyResult(int nodesExpanded, ExpansionTrace trace) {
+        return new SearchResult("", -1, nodesExpanded, trace, new ArrayList<>());
+    }
+
+    // Successor buffers reused across expansions
+    private static final class Buffers {
+        final int[] cells;
+        final int[] costs;
+        final byte[] actions;
+
+        Buffers(IntSearchProblem problem) {
+            int size = problem.maxSuccessors();
+            cells = new int[size];
+            costs = new int[size];
+            actions = new byte[size];
+        }
+    }
+
+    // Cells on the current root-to-node path of a depth-first search, by depth
+    private static final class PathSet {
+        private final BitSet onPath;
+        private int[] cells = new int[64];
+        private int length;
+
+        PathSet(int cellCount) {
+            onPath = new BitSet(cellCount);
+        }
+
+        // Makes cell the path's node at depth, dropping everything deeper
+        void enter(int depth, int cell) {
+            truncate(depth);
+            if (depth == cells.length) cells = Arrays.copyOf(cells, depth * 2);
+            cells[length++] = cell;
+            onPath.set(cell);
+        }
+
+        void truncate(int depth) {
+            while (length > depth)
+                onPath.clear(cells[--length]);
+        }
+
+        void clear() {
+            truncate(0);
+        }
+
+        boolean contains(int cell) {
+            return onPath.get(cell);
+        }
+    }
+
+    // Direct-mapped (cell -> cheapest g this iteration) table; colliding cells overwrite
+    private static final class TranspositionTable {
+        private final int[] cells, g, iteration;
+        private final int shift;
+        private final boolean direct;
+
+        TranspositionTable(int size, int cellCount) {
+            int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.min(size, cellCount) - 1));
+            cells = new int[1 << bits];
+            g = new int[1 << bits];
+            iteration = new int[1 << bits];
+            shift = 32 - bits;
+            direct = cells.length >= cellCount;
+        }
+
+        // True when cell was already reached at cost <= g this iteration; records g otherwise
+        boolean reachedCheaper(int cell, int cost, int iter) {
+            int slot = direct ? cell : (cell * 0x9E3779B1) >>> shift;
+            if (iteration[slot] == iter && cells[slot] == cell && g[slot] <= cost)
+                return true;
+            cells[slot] = cell;
+            g[slot] = cost;
+            iteration[slot] = iter;
+            return false;
+        }
+    }
+
+    private static final class IntStack {
+        private int[] data = new int[64];
+        private int size;
+
+        void push(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int pop() {
+            return data[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
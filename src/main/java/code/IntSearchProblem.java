@@ -0,0 +1,30 @@
+package code;
+
+/**
+ * Primitive counterpart of SearchProblem used by IntGenericSearch.
+ *
+ * States are int cell ids in [0, cellCount()), actions are byte codes and
+ * successors are written into caller-supplied buffers, so a search can expand
+ * nodes without allocating. stateOf / actionName are only used to build the
+ * final SearchResult.
+ */
+public interface IntSearchProblem {
+    int cellCount();
+
+    int initialCell();
+
+    boolean isGoalCell(int cell);
+
+    /** Upper bound on successors(); the buffers must be at least this long. */
+    int maxSuccessors();
+
+    /** Writes the successors of cell into the buffers and returns how many there are. */
+    int successors(int cell, int[] cells, int[] costs, byte[] actions);
+
+    /** Largest cost a single step can have; sizes bucket queues. */
+    int maxStepCost();
+
+    State stateOf(int cell);
+
+    String actionName(byte action);
+}
@@ -0,0 +1,295 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Jump Point Search for the 4-connected delivery grid (strategy "JPS").
+ *
+ * A* over Manhattan distance (heuristic 1) whose successors are jump points
+ * instead of neighbours. A straight jump only passes through "plain" cells:
+ * every road leaving the cell exists in both directions at one shared cost,
+ * and no tunnel touches it. Anything else ends a jump and is expanded in
+ * full: mixed or one-way costs, missing roads next to open ones, tunnel
+ * endpoints and the goal. On plain plateaus the usual 4-connected pruning
+ * applies:
+ *
+ * - Horizontal jumps stop where turning up or down could not have been done
+ *   one cell earlier at the same cost (a forced neighbour).
+ * - Vertical jumps stop at forced neighbours too, and wherever a horizontal
+ *   jump from the current cell finds a jump point.
+ *
+ * Plain cells joined by a road share their cost, so a jump's cost is the sum
+ * of the Grid.getCost values it passes and the result is UCS-optimal. Plans
+ * are unpacked into unit moves, so plan and pathStates look like any other
+ * strategy's; nodesExpanded counts expanded jump points.
+ *
+ * Horizontal jumps do not depend on the goal except for stopping on it, so
+ * their end points are precomputed once per CompiledGrid (as in JPS+) and
+ * the row scans of vertical jumps are O(1).
+ */
+public class JumpPointSearch {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    // One set of tables per snapshot; dropped with the snapshot
+    private static final Map<CompiledGrid, Tables> TABLES = new WeakHashMap<>();
+
+    private final CompiledGrid graph;
+    private final Tables tables;
+    private final int goal;
+
+    private JumpPointSearch(CompiledGrid graph, int goal) {
+        this.graph = graph;
+        this.tables = tables(graph);
+        this.goal = goal;
+    }
+
+    private static Tables tables(CompiledGrid graph) {
+        synchronized (TABLES) {
+            return TABLES.computeIfAbsent(graph, Tables::new);
+        }
+    }
+
+    // ------------------ A* over jump points ------------------
+    public static SearchResult search(DeliverySearch problem) {
+        CompiledGrid graph = problem.getGraph();
+        int s = problem.initialCell();
+        int t = graph.cellId(problem.getGoal());
+        ExpansionTrace trace = ExpansionTrace.forProblem(problem);
+        if (t < 0)
+            return new SearchResult("", -1, 0, trace, new ArrayList<>());
+
+        JumpPointSearch jps = new JumpPointSearch(graph, t);
+        int n = graph.cellCount();
+        int[] bestG = new int[n];
+        int[] parent = new int[n];
+        byte[] action = new byte[n]; // move that reached the cell from its parent
+        Arrays.fill(bestG, INF);
+        bestG[s] = 0;
+        parent[s] = -1;
+
+        IndexedHeap open = new IndexedHeap(n);
+        open.push(s, manhattan(graph, s, t));
+        int nodesExpanded = 0;
+
+        while (!open.isEmpty()) {
+            int u = open.pop();
+            nodesExpanded++;
+            trace.add(graph.state(u));
+            if (u == t)
+                return jps.result(s, t, bestG[t], parent, action, nodesExpanded, trace);
+
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                byte dir = graph.actions[e];
+                int v, g;
+                if (dir == CompiledGrid.TUNNEL) {
+                    v = graph.targets[e];
+                    g = bestG[u] + graph.costs[e];
+                } else {
+                    long jump = jps.jump(graph.targets[e], dir, graph.costs[e]);
+                    if (jump < 0)
+                        continue;
+                    v = (int) (jump >>> 32);
+                    g = bestG[u] + (int) jump;
+                }
+                if (g < bestG[v]) {
+                    bestG[v] = g;
+                    parent[v] = u;
+                    action[v] = dir;
+                    open.push(v, g + manhattan(graph, v, t));
+                }
+            }
+        }
+        return new SearchResult("", -1, nodesExpanded, trace, new ArrayList<>());
+    }
+
+    // ------------------ Jumping ------------------
+
+    /**
+     * Walks from cell (just entered in direction dir at cost g) until a jump
+     * point. Returns (jumpPoint << 32) | cost, or -1 at a dead end.
+     */
+    private long jump(int cell, byte dir, int g) {
+        if (dir == CompiledGrid.LEFT || dir == CompiledGrid.RIGHT)
+            return jumpHorizontal(cell, dir, g);
+
+        Tables tb = tables;
+        while (true) {
+            if (cell == goal || !tb.plain[cell])
+                return ((long) cell << 32) | g;
+            int prev = tb.neighbour(cell, opposite(dir));
+            if (tb.forced(prev, cell, dir, CompiledGrid.LEFT) || tb.forced(prev, cell, dir, CompiledGrid.RIGHT))
+                return ((long) cell << 32) | g;
+            if (scan(cell, CompiledGrid.LEFT) || scan(cell, CompiledGrid.RIGHT))
+                return ((long) cell << 32) | g;
+            if ((tb.mask[cell] & (1 << dir)) == 0)
+                return -1;
+            g += tb.cost[cell];
+            cell = tb.neighbour(cell, dir);
+        }
+    }
+
+    private long jumpHorizontal(int cell, byte dir, int g) {
+        int end = (dir == CompiledGrid.RIGHT ? tables.jumpRight : tables.jumpLeft)[cell];
+        int last = end >= 0 ? end : ~end;
+
+        // The goal ends the jump wherever it lies on the walked stretch
+        int stop = end;
+        if (graph.y(goal) == graph.y(cell) && between(graph.x(goal), graph.x(cell), graph.x(last)))
+            stop = goal;
+        if (stop < 0)
+            return -1;
+        // Every cell walked after the first is plain at the first one's cost
+        return ((long) stop << 32) | (g + Math.abs(graph.x(stop) - graph.x(cell)) * tables.cost[cell]);
+    }
+
+    // True when a horizontal jump from a plain cell finds a jump point
+    private boolean scan(int cell, byte dir) {
+        return (tables.mask[cell] & (1 << dir)) != 0
+                && jumpHorizontal(tables.neighbour(cell, dir), dir, tables.cost[cell]) >= 0;
+    }
+
+    private static boolean between(int v, int a, int b) {
+        return a <= b ? a <= v && v <= b : b <= v && v <= a;
+    }
+
+    private static byte opposite(byte dir) {
+        return (byte) (dir ^ 1); // up<->down, left<->right
+    }
+
+    private static int manhattan(CompiledGrid graph, int a, int b) {
+        return Math.abs(graph.x(a) - graph.x(b)) + Math.abs(graph.y(a) - graph.y(b));
+    }
+
+    // ------------------ Per-grid tables ------------------
+    private static final class Tables {
+        final int rows, cols;    // no reference back to the snapshot (WeakHashMap key)
+        final int[] mask;        // actionMask per cell
+        final int[] cost;        // cost of each plain cell's roads
+        final boolean[] plain;
+        // End of a horizontal jump entering the cell: the jump point, or
+        // ~last cell walked when it runs into a dead end (goal not considered)
+        final int[] jumpLeft, jumpRight;
+
+        Tables(CompiledGrid graph) {
+            rows = graph.rows;
+            cols = graph.cols;
+            int n = graph.cellCount();
+            mask = new int[n];
+            cost = new int[n];
+            plain = new boolean[n];
+            for (int c = 0; c < n; c++)
+                mask[c] = graph.actionMask(c);
+            for (int c = 0; c < n; c++)
+                plain[c] = isPlain(graph, c);
+
+            jumpLeft = new int[n];
+            jumpRight = new int[n];
+            for (int y = 0; y < rows; y++) {
+                int row = y * cols;
+                for (int x = cols - 1; x >= 1; x--) // entered from x - 1
+                    jumpRight[row + x] = end(row + x, CompiledGrid.RIGHT, x < cols - 1 ? jumpRight[row + x + 1] : 0);
+                for (int x = 0; x < cols - 1; x++)  // entered from x + 1
+                    jumpLeft[row + x] = end(row + x, CompiledGrid.LEFT, x > 0 ? jumpLeft[row + x - 1] : 0);
+            }
+        }
+
+        // Jump end for a cell entered moving dir, given the end for the next cell
+        private int end(int cell, byte dir, int next) {
+            if (!plain[cell])
+                return cell;
+            int prev = neighbour(cell, opposite(dir));
+            if (forced(prev, cell, dir, CompiledGrid.UP) || forced(prev, cell, dir, CompiledGrid.DOWN))
+                return cell;
+            if ((mask[cell] & (1 << dir)) == 0)
+                return ~cell;
+            return next;
+        }
+
+        /**
+         * Moving prev -> cell in direction dir, is turning `side` at cell forced?
+         * It is not when prev can turn `side` first and reach the same cell one
+         * step later through a plain cell at the same cost.
+         */
+        boolean forced(int prev, int cell, byte dir, byte side) {
+            if ((mask[cell] & (1 << side)) == 0)
+                return false;
+            if ((mask[prev] & (1 << side)) == 0)
+                return true;
+            // prev may be the jump's non-plain origin, so compare costs as well
+            int beside = neighbour(prev, side);
+            return !plain[beside] || (mask[beside] & (1 << dir)) == 0 || cost[beside] != cost[cell];
+        }
+
+        private boolean isPlain(CompiledGrid graph, int c) {
+            if ((mask[c] & (1 << CompiledGrid.TUNNEL)) != 0)
+                return false;
+            int shared = -1;
+            for (byte d = 0; d < 4; d++) {
+                int v = neighbourInBounds(c, d);
+                boolean out = (mask[c] & (1 << d)) != 0;
+                boolean in = v >= 0 && (mask[v] & (1 << opposite(d))) != 0;
+                if (out != in)
+                    return false;
+                if (!out)
+                    continue;
+                int a = graph.costs[graph.edge(c, d)];
+                int b = graph.costs[graph.edge(v, opposite(d))];
+                if (a != b || (shared >= 0 && a != shared))
+                    return false;
+                shared = a;
+            }
+            cost[c] = shared;
+            return true;
+        }
+
+        private int neighbourInBounds(int c, byte dir) {
+            int x = c % cols, y = c / cols;
+            switch (dir) {
+                case CompiledGrid.UP: return y > 0 ? c - cols : -1;
+                case CompiledGrid.DOWN: return y < rows - 1 ? c + cols : -1;
+                case CompiledGrid.LEFT: return x > 0 ? c - 1 : -1;
+                default: return x < cols - 1 ? c + 1 : -1;
+            }
+        }
+
+        // Only called where the road exists, so the neighbour is in bounds
+        int neighbour(int c, byte dir) {
+            switch (dir) {
+                case CompiledGrid.UP: return c - cols;
+                case CompiledGrid.DOWN: return c + cols;
+                case CompiledGrid.LEFT: return c - 1;
+                default: return c + 1;
+            }
+        }
+    }
+
+    // ------------------ Unpacking ------------------
+    private SearchResult result(int s, int t, int g, int[] parent, byte[] action,
+                                int nodesExpanded, ExpansionTrace trace) {
+        List<String> plan = new ArrayList<>();
+        List<State> states = new ArrayList<>();
+        for (int c = t; c != s; c = parent[c]) {
+            byte dir = action[c];
+            if (dir == CompiledGrid.TUNNEL) {
+                plan.add(CompiledGrid.ACTION_NAMES[dir]);
+                states.add(graph.state(c));
+                continue;
+            }
+            // Straight segment parent -> c, walked backwards
+            for (int cur = c; cur != parent[c]; cur = tables.neighbour(cur, opposite(dir))) {
+                plan.add(CompiledGrid.ACTION_NAMES[dir]);
+                states.add(graph.state(cur));
+            }
+        }
+        states.add(graph.state(s));
+        Collections.reverse(plan);
+        Collections.reverse(states);
+        return new SearchResult(String.join(",", plan), g, nodesExpanded, trace, states);
+    }
+}
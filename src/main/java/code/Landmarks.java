@@ -0,0 +1,147 @@
+package code;
+
+import java.util.Arrays;
+
+/**
+ * Landmark distance tables for the ALT heuristic (heuristic 3).
+ *
+ * For every landmark L the tables hold d(L, v) and d(v, L) for every cell v,
+ * so by the triangle inequality
+ *
+ *   d(v, t) >= d(L, t) - d(L, v)   and   d(v, t) >= d(v, L) - d(t, L).
+ *
+ * The estimate is the largest of these bounds over all landmarks. Each bound
+ * is a consistent heuristic, and so is their maximum, so A* with it returns
+ * UCS-optimal costs. Bounds involving a cell that cannot reach (or be
+ * reached from) the landmark are skipped.
+ *
+ * Landmarks are picked by farthest-point selection: each new landmark is the
+ * cell farthest (by road cost) from the landmarks already chosen, which puts
+ * them on the edges of the map where the bounds are tight. The tables are
+ * built once per grid fingerprint and shared by every query on a grid with
+ * that fingerprint, across requests; they are held in an LRU bounded by
+ * their size (see configure()). A DeliverySearch resolves them once, so
+ * estimates take no lock.
+ */
+public final class Landmarks {
+
+    public static final int DEFAULT_COUNT = 8;
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final FingerprintCache<Landmarks> BUILT = new FingerprintCache<>(
+            DEFAULT_MAX_BYTES, graph -> new Landmarks(graph, DEFAULT_COUNT), Landmarks::sizeInBytes);
+
+    private final int count;
+    private final int[] landmarks;
+    // Cell-major, so one estimate reads two contiguous runs: [cell * count + i]
+    private final int[] from; // d(landmark i, cell)
+    private final int[] to;   // d(cell, landmark i)
+
+    /** Tables for grid's current fingerprint, built on first call. */
+    public static Landmarks of(Grid grid) {
+        return BUILT.get(grid);
+    }
+
+    /** Bounds the memory of the tables kept; see LandmarksConfig. */
+    public static void configure(long maxBytes) {
+        BUILT.configure(maxBytes);
+    }
+
+    static void clearCache() {
+        BUILT.clear();
+    }
+
+    static long builds() {
+        return BUILT.builds();
+    }
+
+    Landmarks(CompiledGrid graph, int count) {
+        int n = graph.cellCount();
+        this.count = Math.max(1, Math.min(count, n));
+        this.landmarks = new int[this.count];
+        this.from = new int[n * this.count];
+        this.to = new int[n * this.count];
+
+        CompiledGrid.Reverse reverse = graph.reverse();
+        IndexedHeap open = new IndexedHeap(n);
+        int[] dist = new int[n];
+        int[] nearest = new int[n]; // cost from the closest chosen landmark
+        Arrays.fill(nearest, INF);
+
+        // Seed with the cell farthest from cell 0 rather than cell 0 itself
+        dijkstra(graph.offsets, graph.targets, graph.costs, 0, open, dist);
+        int next = farthest(dist);
+
+        for (int i = 0; i < this.count; i++) {
+            landmarks[i] = next;
+            dijkstra(graph.offsets, graph.targets, graph.costs, next, open, dist);
+            for (int v = 0; v < n; v++) {
+                from[v * this.count + i] = dist[v];
+                nearest[v] = Math.min(nearest[v], dist[v]);
+            }
+            dijkstra(reverse.offsets, reverse.sources, reverse.costs, next, open, dist);
+            for (int v = 0; v < n; v++)
+                to[v * this.count + i] = dist[v];
+            next = farthest(nearest);
+        }
+    }
+
+    /** Largest triangle-inequality lower bound on d(cell, goal). */
+    public int estimate(int cell, int goal) {
+        int best = 0;
+        int a = cell * count, b = goal * count;
+        for (int i = 0; i < count; i++) {
+            int lv = from[a + i], lt = from[b + i];
+            if (lv != INF && lt != INF && lt - lv > best)
+                best = lt - lv;
+            int vl = to[a + i], tl = to[b + i];
+            if (vl != INF && tl != INF && vl - tl > best)
+                best = vl - tl;
+        }
+        return best;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    long sizeInBytes() {
+        return 64 + 4L * (landmarks.length + from.length + to.length);
+    }
+
+    /** Landmark cell ids, in selection order. */
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    // Cells no landmark reaches come first, so disconnected parts of the grid
+    // get a landmark of their own; chosen landmarks sit at 0 and are skipped
+    private static int farthest(int[] dist) {
+        int best = 0;
+        for (int v = 1; v < dist.length; v++)
+            if (dist[v] > dist[best])
+                best = v;
+        return best;
+    }
+
+    private static void dijkstra(int[] offsets, int[] targets, int[] costs, int source,
+                                 IndexedHeap open, int[] dist) {
+        Arrays.fill(dist, INF);
+        dist[source] = 0;
+        open.push(source, 0);
+        while (!open.isEmpty()) {
+            int u = open.pop();
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                int d = dist[u] + costs[e];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    open.push(v, d);
+                }
+            }
+        }
+    }
+}
@@ -34,7 +34,9 @@ public class Main {
         gridInfoLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
         JLabel label = new JLabel("Select Algorithm: ");
         label.setAlignmentX(Component.CENTER_ALIGNMENT);
-        String[] algorithms = { "BF", "DF", "UC", "ID", "G1", "G2", "AS1", "AS2" };
+        String[] algorithms = { "BF", "DF", "UC", "ID", "IDA1", "IDA3", "G1", "G2", "G3", "AS1", "AS2", "AS3",
+                "AS4", "SMA1", "SMA3", "ARA1", "ARA2", "UCS_BUCKET", "AS1_BUCKET", "BI_BF", "BI_UC", "BI_AS1",
+                "JPS", "CH", "PORTFOLIO" };
         JComboBox<String> algoBox = new JComboBox<>(algorithms);
 
         algoBox.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -0,0 +1,518 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SMA* (simplified memory-bounded A*), strategies "SMA1" and "SMA3".
+ *
+ * Keeps at most SearchLimits.maxNodesInMemory() search nodes. The best node
+ * (lowest f, deepest first) generates one successor at a time, with
+ * f = max(f(parent), g + h). Once every successor of a node has been
+ * generated its f is backed up to the lowest f of its children, and so on
+ * up the tree. When memory is full the worst leaf (highest f, shallowest
+ * first) is forgotten: its parent remembers the leaf's f, so the subtree is
+ * only regenerated once everything cheaper has been explored.
+ *
+ * A node that would sit at the memory limit's depth can never be expanded
+ * and gets f = INF; the lowest f such a cut would otherwise have had is
+ * kept. With an admissible heuristic no route is cheaper than the route
+ * returned or that lowest cut f, so a route costing more than the cut is
+ * returned with suboptimalityBound = cost / cut f: a cheaper route may be
+ * deeper than memory allows. Routes within the cut are UCS-optimal. When
+ * no route fits, it gives up with budgetExhausted set. It also stops after
+ * SearchLimits.nodeBudget() expansions: with too little memory to hold the
+ * reachable region, proving a goal unreachable can take exponentially many
+ * regenerations.
+ *
+ * Successors reaching a cell that is already in memory at no higher cost
+ * are skipped (this includes cycles back to the path), so the tree stays
+ * close to a graph search; near the depth limit the node in memory must
+ * also be no deeper.
+ *
+ * nodesExpanded counts rounds of successor generation, and nodesForgotten
+ * and nodesRegenerated report the cost of the memory bound.
+ *
+ * Everything lives in arrays indexed by node id, so a node in memory costs
+ * 38 bytes of fields, 8 per possible successor (40 on the delivery grid:
+ * four roads and a tunnel), 16 for its places in the two queues, up to 32
+ * in the cell index and up to 8 on the free list: at most 134 bytes, or
+ * 140 MB at the default limit of 2^20 nodes.
+ */
+public final class MemoryBoundedAStar {
+
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+    private static final int DEAD = -2; // forgotten child with f = INF: never regenerated
+
+    private final IntSearchProblem problem;
+    private final int heuristicId;
+    private final int maxNodes;
+    private final long nodeBudget;
+    private final int width;
+
+    // Node pool, grown on demand up to maxNodes + 1 slots
+    private int[] cell, g, f, parent, depth, succIndex, childCount, cursor, succCount;
+    private byte[] action;
+    private boolean[] complete;
+    // Per (node, successor index): the child node, NONE or DEAD; forgotten child's f (INF = none)
+    private int[] child, forgottenF;
+    private int capacity;
+    private int allocated;
+    private int[] free = new int[16];
+    private int freeTop;
+
+    // Best first: lowest f, then deepest. Leaves that may be forgotten, worst first
+    private final NodeHeap queue = new NodeHeap(false);
+    private final NodeHeap leaves = new NodeHeap(true);
+    private final CellIndex index = new CellIndex();
+    private final int[] succCells, succCosts;
+    private final byte[] succActions;
+
+    private int live, nodesExpanded, forgotten, regenerated;
+    private boolean depthLimited;
+    private int cutF = INF; // lowest f of a node cut at the depth limit
+    private final ExpansionTrace trace;
+
+    private MemoryBoundedAStar(IntSearchProblem problem, int heuristicId, int maxNodes, long nodeBudget) {
+        this.problem = problem;
+        this.trace = ExpansionTrace.forProblem(problem);
+        this.heuristicId = heuristicId;
+        this.maxNodes = maxNodes;
+        this.nodeBudget = nodeBudget;
+        this.width = problem.maxSuccessors();
+        succCells = new int[width];
+        succCosts = new int[width];
+        succActions = new byte[width];
+        grow(Math.min(maxNodes + 1, 1024));
+    }
+
+    public static SearchResult search(IntSearchProblem problem, int heuristicId) {
+        return search(problem, heuristicId, IntGenericSearch.limits(problem).maxNodesInMemory());
+    }
+
+    public static SearchResult search(IntSearchProblem problem, int heuristicId, int maxNodes) {
+        return search(problem, heuristicId, maxNodes, IntGenericSearch.limits(problem).nodeBudget());
+    }
+
+    public static SearchResult search(IntSearchProblem problem, int heuristicId, int maxNodes, long nodeBudget) {
+        return new MemoryBoundedAStar(problem, heuristicId, Math.max(2, maxNodes), nodeBudget).run();
+    }
+
+    private SearchResult run() {
+        int root = allocate(problem.initialCell(), 0, NONE, 0, (byte) -1, 0);
+        f[root] = Heuristics.heuristic(problem, cell[root], heuristicId);
+        enqueue(root);
+
+        while (!queue.isEmpty()) {
+            int n = queue.peek();
+            if (f[n] == INF)
+                break;
+            if (cursor[n] == 0) {
+                if (nodesExpanded >= nodeBudget)
+                    return failure(true);
+                nodesExpanded++;
+                trace.add(problem.stateOf(cell[n]));
+            }
+            if (problem.isGoalCell(cell[n]))
+                return result(n);
+
+            succCount[n] = problem.successors(cell[n], succCells, succCosts, succActions);
+            int i = nextCandidate(n);
+            if (i < 0) {
+                finishRound(n);
+                continue;
+            }
+            cursor[n] = i + 1;
+            int s = generate(n, i);
+            if (complete[n])
+                backup(n); // a regenerated child may raise n's f
+            if (live > maxNodes)
+                forgetWorstLeaf(s);
+        }
+
+        return failure(depthLimited);
+    }
+
+    private SearchResult failure(boolean budgetExhausted) {
+        SearchResult failed = new SearchResult("", -1, nodesExpanded, trace, new ArrayList<>());
+        failed.budgetExhausted = budgetExhausted;
+        failed.nodesForgotten = forgotten;
+        failed.nodesRegenerated = regenerated;
+        return failed;
+    }
+
+    // ---------------------------------------
+    // SUCCESSOR GENERATION / BACKUP
+    // ---------------------------------------
+    private int nextCandidate(int n) {
+        for (int i = cursor[n]; i < succCount[n]; i++)
+            if (child[n * width + i] == NONE && !dominated(n, i))
+                return i;
+        return -1;
+    }
+
+    // A live node already reaches the successor's cell at no higher cost, so
+    // whatever the successor could reach it reaches too. Its depth only
+    // matters when a simple path from it could run into the depth limit.
+    private boolean dominated(int n, int i) {
+        int other = index.get(succCells[i]);
+        if (other == NONE || g[other] > g[n] + succCosts[i])
+            return false;
+        return depth[other] <= depth[n] + 1 || (long) depth[other] + problem.cellCount() < maxNodes - 1;
+    }
+
+    private int generate(int n, int i) {
+        int t = succCells[i];
+        int cost = g[n] + succCosts[i];
+        int s = allocate(t, cost, n, depth[n] + 1, succActions[i], i);
+
+        int fs = Math.max(f[n], cost + Heuristics.heuristic(problem, t, heuristicId));
+        if (depth[s] >= maxNodes - 1 && !problem.isGoalCell(t)) {
+            cutF = Math.min(cutF, fs);
+            fs = INF; // its children would not fit in memory
+            depthLimited = true;
+        }
+        int slot = n * width + i;
+        if (forgottenF[slot] != INF) {
+            fs = Math.max(fs, forgottenF[slot]);
+            forgottenF[slot] = INF;
+            regenerated++;
+        }
+        f[s] = fs;
+        child[slot] = s;
+        childCount[n]++;
+        leaves.remove(n);
+        int other = index.get(t);
+        if (other == NONE || g[other] > cost)
+            index.put(t, s);
+        enqueue(s);
+        return s;
+    }
+
+    private void finishRound(int n) {
+        cursor[n] = 0;
+        complete[n] = true;
+        boolean pending = false;
+        for (int i = 0; i < succCount[n]; i++) {
+            int slot = n * width + i;
+            if (child[slot] != NONE || forgottenF[slot] == INF)
+                continue;
+            if (dominated(n, i))
+                forgottenF[slot] = INF; // reachable as cheaply through a live node
+            else
+                pending = true;
+        }
+        backup(n);
+        // Internal nodes leave the queue; leaves stay so they can be forgotten
+        if (childCount[n] > 0 && !pending)
+            dequeue(n);
+    }
+
+    private void backup(int n) {
+        while (n != NONE && complete[n]) {
+            int best = INF;
+            for (int i = 0; i < succCount[n]; i++) {
+                int c = child[n * width + i];
+                best = Math.min(best, c >= 0 ? f[c] : forgottenF[n * width + i]);
+            }
+            int updated = Math.max(f[n], best);
+            if (updated == f[n])
+                return;
+            setF(n, updated);
+            n = parent[n];
+        }
+    }
+
+    // ---------------------------------------
+    // FORGETTING
+    // ---------------------------------------
+    private void forgetWorstLeaf(int keep) {
+        boolean kept = leaves.remove(keep);
+        if (!leaves.isEmpty()) {
+            int w = leaves.peek();
+            dequeue(w);
+            forget(w);
+        }
+        if (kept)
+            leaves.add(keep);
+    }
+
+    private void forget(int w) {
+        int p = parent[w];
+        int slot = p * width + succIndex[w];
+        if (f[w] == INF) {
+            child[slot] = DEAD;
+        } else {
+            child[slot] = NONE;
+            forgottenF[slot] = f[w];
+        }
+        childCount[p]--;
+        if (index.get(cell[w]) == w)
+            index.remove(cell[w]);
+        release(w);
+        forgotten++;
+        if (!queue.contains(p) && (child[slot] == NONE || childCount[p] == 0))
+            enqueue(p);
+        else if (queue.contains(p) && childCount[p] == 0 && parent[p] != NONE)
+            leaves.add(p);
+    }
+
+    // ---------------------------------------
+    // NODE POOL / QUEUE
+    // ---------------------------------------
+    private int allocate(int c, int cost, int par, int d, byte act, int index) {
+        int node;
+        if (freeTop > 0) {
+            node = free[--freeTop];
+        } else {
+            if (allocated == capacity)
+                grow(Math.min(maxNodes + 1, capacity * 2));
+            node = allocated++;
+        }
+        cell[node] = c;
+        g[node] = cost;
+        f[node] = 0;
+        parent[node] = par;
+        depth[node] = d;
+        action[node] = act;
+        succIndex[node] = index;
+        childCount[node] = 0;
+        cursor[node] = 0;
+        succCount[node] = 0;
+        complete[node] = false;
+        Arrays.fill(child, node * width, node * width + width, NONE);
+        Arrays.fill(forgottenF, node * width, node * width + width, INF);
+        live++;
+        return node;
+    }
+
+    private void release(int node) {
+        if (freeTop == free.length)
+            free = Arrays.copyOf(free, freeTop * 2);
+        free[freeTop++] = node;
+        live--;
+    }
+
+    private void grow(int size) {
+        cell = resize(cell, size);
+        g = resize(g, size);
+        f = resize(f, size);
+        parent = resize(parent, size);
+        depth = resize(depth, size);
+        succIndex = resize(succIndex, size);
+        childCount = resize(childCount, size);
+        cursor = resize(cursor, size);
+        succCount = resize(succCount, size);
+        action = action == null ? new byte[size] : Arrays.copyOf(action, size);
+        complete = complete == null ? new boolean[size] : Arrays.copyOf(complete, size);
+        child = resize(child, size * width);
+        forgottenF = resize(forgottenF, size * width);
+        queue.grow(size);
+        leaves.grow(size);
+        capacity = size;
+    }
+
+    private static int[] resize(int[] a, int size) {
+        return a == null ? new int[size] : Arrays.copyOf(a, size);
+    }
+
+    private void enqueue(int node) {
+        queue.add(node);
+        if (childCount[node] == 0 && parent[node] != NONE)
+            leaves.add(node);
+    }
+
+    private void dequeue(int node) {
+        queue.remove(node);
+        leaves.remove(node);
+    }
+
+    private void setF(int node, int value) {
+        f[node] = value;
+        queue.update(node);
+        leaves.update(node);
+    }
+
+    private SearchResult result(int goal) {
+        List<String> plan = new ArrayList<>();
+        List<State> states = new ArrayList<>();
+        for (int n = goal; n != NONE; n = parent[n]) {
+            states.add(problem.stateOf(cell[n]));
+            if (parent[n] != NONE)
+                plan.add(problem.actionName(action[n]));
+        }
+        Collections.reverse(plan);
+        Collections.reverse(states);
+        SearchResult r = new SearchResult(String.join(",", plan), g[goal], nodesExpanded, trace, states);
+        r.nodesForgotten = forgotten;
+        r.nodesRegenerated = regenerated;
+        if (g[goal] > cutF)
+            r.suboptimalityBound = (double) g[goal] / cutF;
+        return r;
+    }
+
+    // Indexed binary heap over node ids, ordered by the pool's f and depth
+    private final class NodeHeap {
+        private final boolean worstFirst;
+        private int[] heap = new int[0]; // nodes in heap order
+        private int[] pos = new int[0];  // position of each node in heap, -1 when absent
+        private int size;
+
+        NodeHeap(boolean worstFirst) {
+            this.worstFirst = worstFirst;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int node) {
+            return pos[node] >= 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void add(int node) {
+            if (contains(node))
+                return;
+            heap[size] = node;
+            pos[node] = size;
+            siftUp(size++);
+        }
+
+        /** Removes node if present; returns whether it was. */
+        boolean remove(int node) {
+            int i = pos[node];
+            if (i < 0)
+                return false;
+            pos[node] = -1;
+            if (i != --size) {
+                heap[i] = heap[size];
+                pos[heap[i]] = i;
+                update(heap[i]);
+            }
+            return true;
+        }
+
+        // Restores the order after node's f changed
+        void update(int node) {
+            int i = pos[node];
+            if (i >= 0)
+                siftDown(siftUp(i));
+        }
+
+        void grow(int capacity) {
+            int old = pos.length;
+            heap = Arrays.copyOf(heap, capacity);
+            pos = Arrays.copyOf(pos, capacity);
+            Arrays.fill(pos, old, capacity, -1);
+        }
+
+        // Whether a comes out before b: best is lowest f, then deepest, then lowest id
+        private boolean before(int a, int b) {
+            int c = f[a] != f[b] ? Integer.compare(f[a], f[b])
+                    : depth[a] != depth[b] ? Integer.compare(depth[b], depth[a])
+                    : Integer.compare(a, b);
+            return worstFirst ? c > 0 : c < 0;
+        }
+
+        private int siftUp(int i) {
+            int node = heap[i];
+            while (i > 0) {
+                int p = (i - 1) >> 1;
+                if (!before(node, heap[p])) break;
+                heap[i] = heap[p];
+                pos[heap[i]] = i;
+                i = p;
+            }
+            heap[i] = node;
+            pos[node] = i;
+            return i;
+        }
+
+        private void siftDown(int i) {
+            int node = heap[i];
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= size) break;
+                if (c + 1 < size && before(heap[c + 1], heap[c])) c++;
+                if (!before(heap[c], node)) break;
+                heap[i] = heap[c];
+                pos[heap[i]] = i;
+                i = c;
+            }
+            heap[i] = node;
+            pos[node] = i;
+        }
+    }
+
+    // Open-addressing map cell -> live node with the lowest g seen; sized to the nodes in memory
+    private static final class CellIndex {
+        private int[] keys = new int[64];
+        private int[] values = new int[64];
+        private int size;
+
+        CellIndex() {
+            Arrays.fill(keys, NONE);
+        }
+
+        int get(int cell) {
+            int mask = keys.length - 1;
+            for (int i = hash(cell) & mask; keys[i] != NONE; i = (i + 1) & mask)
+                if (keys[i] == cell) return values[i];
+            return NONE;
+        }
+
+        void put(int cell, int node) {
+            if (2 * (size + 1) > keys.length)
+                rehash(keys.length * 2);
+            int mask = keys.length - 1;
+            int i = hash(cell) & mask;
+            while (keys[i] != NONE && keys[i] != cell)
+                i = (i + 1) & mask;
+            if (keys[i] == NONE) size++;
+            keys[i] = cell;
+            values[i] = node;
+        }
+
+        void remove(int cell) {
+            int mask = keys.length - 1;
+            int i = hash(cell) & mask;
+            while (keys[i] != cell) {
+                if (keys[i] == NONE) return;
+                i = (i + 1) & mask;
+            }
+            // Backward-shift deletion keeps every probe chain unbroken
+            for (int j = (i + 1) & mask; keys[j] != NONE; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+                if (movable) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = NONE;
+            size--;
+        }
+
+        private void rehash(int length) {
+            int[] oldKeys = keys, oldValues = values;
+            keys = new int[length];
+            values = new int[length];
+            Arrays.fill(keys, NONE);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++)
+                if (oldKeys[i] != NONE) put(oldKeys[i], oldValues[i]);
+        }
+
+        private static int hash(int cell) {
+            return cell * 0x9E3779B1 >>> 7;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package code;
+
+/**
+ * Open list of the best-first searches in IntGenericSearch, keyed by cell id.
+ * A cell is queued at most once; pushing a queued cell moves it to the new priority.
+ */
+public interface OpenList {
+    void push(int cell, int priority);
+
+    /** Removes and returns the queued cell with the smallest priority. */
+    int pop();
+
+    boolean isEmpty();
+}
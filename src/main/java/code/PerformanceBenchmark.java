@@ -178,6 +178,396 @@ public class PerformanceBenchmark {
         System.out.println("\n" + "=".repeat(150));
     }
 
+    // ======================================================================
+    // OPEN LIST COMPARISON
+    // GenericSearch (PriorityQueue whose comparator recomputes h, stale
+    // duplicates) vs IntGenericSearch (IndexedHeap with cached f, decrease-key)
+    // ======================================================================
+    public static void compareOpenLists(Grid grid, State start, State goal) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("OPEN LIST COMPARISON - " + grid.rows + "x" + grid.cols + " | " + start + " -> " + goal);
+        System.out.println("=".repeat(100));
+        System.out.printf("%-8s | %-26s | %-26s | %-8s\n", "Search", "PriorityQueue (ms / nodes)",
+                "IndexedHeap (ms / nodes)", "Speedup");
+        System.out.println("-".repeat(100));
+
+        DeliverySearch problem = new DeliverySearch(start, goal, grid);
+        grid.compile(); // keep snapshot construction out of the timings
+
+        for (int heuristicId = 0; heuristicId <= 2; heuristicId++) {
+            final int id = heuristicId;
+            String name = id == 0 ? "UCS" : "A*-H" + id;
+
+            long t0 = System.nanoTime();
+            SearchResult legacy = id == 0 ? GenericSearch.UCS(problem) : GenericSearch.AStar(problem, id);
+            long legacyNs = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            SearchResult indexed = id == 0 ? IntGenericSearch.UCS(problem) : IntGenericSearch.AStar(problem, id);
+            long indexedNs = System.nanoTime() - t0;
+
+            System.out.printf("%-8s | %12.2f / %-11d | %12.2f / %-11d | %6.1fx%s\n", name,
+                    legacyNs / 1e6, legacy.nodesExpanded, indexedNs / 1e6, indexed.nodesExpanded,
+                    (double) legacyNs / Math.max(1, indexedNs),
+                    legacy.cost == indexed.cost ? "" : "  (cost " + legacy.cost + " vs " + indexed.cost + ")");
+        }
+
+        // Bucket queues (Dial / radix heap), same searches without a heap
+        for (int heuristicId = 0; heuristicId <= 1; heuristicId++) {
+            long t0 = System.nanoTime();
+            SearchResult bucket = heuristicId == 0 ? IntGenericSearch.UCSBucket(problem)
+                    : IntGenericSearch.AStarBucket(problem, heuristicId);
+            long bucketNs = System.nanoTime() - t0;
+            System.out.printf("%-8s | %-26s | %12.2f / %-11d | bucket queue, cost %d\n",
+                    heuristicId == 0 ? "UCS" : "A*-H1", "", bucketNs / 1e6, bucket.nodesExpanded, bucket.cost);
+        }
+        System.out.println("=".repeat(100));
+    }
+
+    // ======================================================================
+    // JUMP POINT SEARCH VS A* ON OPEN GRIDS
+    // ======================================================================
+    public static void compareJumpPoint(Grid grid, State start, State goal) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("JUMP POINT SEARCH - " + grid.rows + "x" + grid.cols + " | " + start + " -> " + goal);
+        System.out.println("=".repeat(100));
+        System.out.printf("%-8s | %-12s | %-14s | %-8s\n", "Search", "Time (ms)", "Nodes expanded", "Cost");
+        System.out.println("-".repeat(100));
+
+        DeliverySearch problem = new DeliverySearch(start, goal, grid);
+        grid.compile(); // keep snapshot construction out of the timings
+
+        for (String name : new String[] { "AS1", "AS2", "JPS" }) {
+            // First run warms the JIT and builds JPS's per-grid jump tables
+            runJumpPointCandidate(name, problem);
+            long t0 = System.nanoTime();
+            SearchResult r = runJumpPointCandidate(name, problem);
+            long ns = System.nanoTime() - t0;
+            System.out.printf("%-8s | %12.2f | %-14d | %d\n", name, ns / 1e6, r.nodesExpanded, r.cost);
+        }
+        System.out.println("=".repeat(100));
+    }
+
+    // ======================================================================
+    // CONTRACTION HIERARCHIES: ONE-OFF PREPROCESSING VS PER-QUERY SEARCH
+    // ======================================================================
+    public static void compareContractionHierarchy(Grid grid, int queries, long seed) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("CONTRACTION HIERARCHIES - " + grid.rows + "x" + grid.cols + " | " + queries + " random queries");
+        System.out.println("=".repeat(100));
+
+        CompiledGrid graph = grid.compile();
+        long t0 = System.nanoTime();
+        ContractionHierarchy ch = ContractionHierarchy.of(grid);
+        long buildNs = System.nanoTime() - t0;
+        System.out.printf("Preprocessing  : %.1f ms, %d shortcuts over %d roads\n",
+                buildNs / 1e6, ch.shortcutCount(), graph.edgeCount());
+
+        Random rnd = new Random(seed);
+        State[][] pairs = new State[queries][2];
+        for (State[] pair : pairs) {
+            pair[0] = new State(rnd.nextInt(grid.cols), rnd.nextInt(grid.rows));
+            pair[1] = new State(rnd.nextInt(grid.cols), rnd.nextInt(grid.rows));
+        }
+
+        System.out.printf("%-8s | %-16s | %-18s\n", "Search", "Avg query (us)", "Avg nodes expanded");
+        System.out.println("-".repeat(100));
+        for (String name : new String[] { "UC", "AS1", "CH" }) {
+            long nodes = 0, ns = 0;
+            for (State[] pair : pairs) {
+                DeliverySearch problem = new DeliverySearch(pair[0], pair[1], grid);
+                long q0 = System.nanoTime();
+                SearchResult r = name.equals("CH") ? ContractionHierarchy.search(problem)
+                        : name.equals("UC") ? IntGenericSearch.UCS(problem) : IntGenericSearch.AStar(problem, 1);
+                ns += System.nanoTime() - q0;
+                nodes += r.nodesExpanded;
+            }
+            System.out.printf("%-8s | %16.1f | %-18d\n", name, ns / 1e3 / queries, nodes / queries);
+        }
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareLandmarks(Grid grid, int queries, long seed) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("ALT LANDMARKS - " + grid.rows + "x" + grid.cols + " | " + queries + " random queries");
+        System.out.println("=".repeat(100));
+
+        CompiledGrid graph = grid.compile();
+        long t0 = System.nanoTime();
+        Landmarks alt = Landmarks.of(grid);
+        long buildNs = System.nanoTime() - t0;
+        System.out.printf("Preprocessing  : %.1f ms, %d landmarks, %d KB of tables\n",
+                buildNs / 1e6, alt.count(), 2L * 4 * alt.count() * graph.cellCount() / 1024);
+
+        Random rnd = new Random(seed);
+        State[][] pairs = new State[queries][2];
+        for (State[] pair : pairs) {
+            pair[0] = new State(rnd.nextInt(grid.cols), rnd.nextInt(grid.rows));
+            pair[1] = new State(rnd.nextInt(grid.cols), rnd.nextInt(grid.rows));
+        }
+
+        System.out.printf("%-8s | %-16s | %-18s\n", "Search", "Avg query (us)", "Avg nodes expanded");
+        System.out.println("-".repeat(100));
+        for (int heuristicId = 1; heuristicId <= 3; heuristicId++) {
+            long nodes = 0, ns = 0;
+            for (State[] pair : pairs) {
+                DeliverySearch problem = new DeliverySearch(pair[0], pair[1], grid);
+                long q0 = System.nanoTime();
+                SearchResult r = IntGenericSearch.AStar(problem, heuristicId);
+                ns += System.nanoTime() - q0;
+                nodes += r.nodesExpanded;
+            }
+            System.out.printf("%-8s | %16.1f | %-18d\n", "AS" + heuristicId, ns / 1e3 / queries, nodes / queries);
+        }
+        System.out.println("=".repeat(100));
+    }
+
+    /** Many stores per destination, as in planning: AS4 builds one field per goal. */
+    public static void compareDistanceFields(Grid grid, int goals, int startsPerGoal, long seed) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("DISTANCE FIELDS - " + grid.rows + "x" + grid.cols + " | " + goals + " goals x "
+                + startsPerGoal + " starts");
+        System.out.println("=".repeat(100));
+
+        Random rnd = new Random(seed);
+        State[] goalStates = new State[goals];
+        State[][] starts = new State[goals][startsPerGoal];
+        for (int i = 0; i < goals; i++) {
+            goalStates[i] = new State(rnd.nextInt(grid.cols), rnd.nextInt(grid.rows));
+            for (int j = 0; j < startsPerGoal; j++)
+                starts[i][j] = new State(rnd.nextInt(grid.cols), rnd.nextInt(grid.rows));
+        }
+        grid.compile().reverse();
+        DistanceFields.shared().clear();
+
+        System.out.printf("%-8s | %-16s | %-18s\n", "Search", "Avg query (us)", "Avg nodes expanded");
+        System.out.println("-".repeat(100));
+        for (String name : new String[] { "AS1", "AS4" }) {
+            long nodes = 0, ns = 0;
+            for (int i = 0; i < goals; i++)
+                for (State start : starts[i]) {
+                    DeliverySearch problem = new DeliverySearch(start, goalStates[i], grid);
+                    long q0 = System.nanoTime();
+                    SearchResult r = name.equals("AS4") ? DistanceFields.search(problem) : IntGenericSearch.AStar(problem, 1);
+                    ns += System.nanoTime() - q0;
+                    nodes += r.nodesExpanded;
+                }
+            int queries = goals * startsPerGoal;
+            System.out.printf("%-8s | %16.1f | %-18d\n", name, ns / 1e3 / queries, nodes / queries);
+        }
+        System.out.println("(AS4 times include building one field per goal)");
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareIterativeDeepening(Grid grid, State start, State goal) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("ITERATIVE DEEPENING - " + grid.rows + "x" + grid.cols + " | node budget "
+                + SearchLimits.defaults().nodeBudget());
+        System.out.println("=".repeat(100));
+        System.out.printf("%-8s | %-10s | %-14s | %-10s\n", "Search", "Cost", "Nodes expanded", "Time (ms)");
+        System.out.println("-".repeat(100));
+        DeliverySearch problem = new DeliverySearch(start, goal, grid);
+        for (String name : new String[] { "UC", "ID", "IDA1", "IDA3" }) {
+            long t0 = System.nanoTime();
+            SearchResult r = name.equals("UC") ? IntGenericSearch.UCS(problem)
+                    : name.equals("ID") ? IntGenericSearch.ID(problem)
+                    : IntGenericSearch.IDAStar(problem, name.charAt(3) - '0');
+            String cost = r.budgetExhausted ? "budget" : String.valueOf(r.cost);
+            System.out.printf("%-8s | %-10s | %-14d | %-10.1f\n", name, cost, r.nodesExpanded, (System.nanoTime() - t0) / 1e6);
+        }
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareMemoryBounded(Grid grid, State start, State goal, int... memoryLimits) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("SMA* MEMORY LIMITS - " + grid.rows + "x" + grid.cols + " | node budget "
+                + SearchLimits.defaults().nodeBudget());
+        System.out.println("=".repeat(100));
+        System.out.printf("%-10s | %-14s | %-14s | %-10s | %-12s | %-10s\n",
+                "Memory", "Cost", "Nodes expanded", "Forgotten", "Regenerated", "Time (ms)");
+        System.out.println("-".repeat(100));
+        DeliverySearch problem = new DeliverySearch(start, goal, grid);
+        for (int memory : memoryLimits) {
+            long t0 = System.nanoTime();
+            SearchResult r = MemoryBoundedAStar.search(problem, 1, memory);
+            String cost = r.budgetExhausted ? "limit"
+                    : r.suboptimalityBound > 1 ? r.cost + " (<=" + String.format("%.2f", r.suboptimalityBound) + "x)"
+                    : String.valueOf(r.cost);
+            System.out.printf("%-10d | %-14s | %-14d | %-10d | %-12d | %-10.1f\n", memory, cost, r.nodesExpanded,
+                    r.nodesForgotten, r.nodesRegenerated, (System.nanoTime() - t0) / 1e6);
+        }
+        System.out.println("(A* with no limit expands " + IntGenericSearch.AStar(problem, 1).nodesExpanded + " nodes)");
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareAnytime(Grid grid, State start, State goal, long... timeBudgetsMs) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("ARA* TIME BUDGETS - " + grid.rows + "x" + grid.cols);
+        System.out.println("=".repeat(100));
+        System.out.printf("%-12s | %-10s | %-10s | %-12s | %-14s | %-10s\n",
+                "Budget (ms)", "Cost", "Bound", "Actual ratio", "Nodes expanded", "Time (ms)");
+        System.out.println("-".repeat(100));
+        DeliverySearch problem = new DeliverySearch(start, goal, grid);
+        int optimal = IntGenericSearch.UCS(problem).cost;
+        for (long budget : timeBudgetsMs) {
+            long t0 = System.nanoTime();
+            SearchResult r = AnytimeRepairingAStar.search(problem, 1, budget);
+            System.out.printf("%-12s | %-10d | %-10.3f | %-12.3f | %-14d | %-10.1f\n",
+                    budget == 0 ? "none" : String.valueOf(budget), r.cost, r.suboptimalityBound,
+                    r.cost / (double) optimal, r.nodesExpanded, (System.nanoTime() - t0) / 1e6);
+        }
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareReplanning(Grid grid, State start, State goal, int stepsBetweenBlocks) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("REPLANNING AFTER ROADBLOCKS - " + grid.rows + "x" + grid.cols
+                + " | a block ahead of the truck every " + stepsBetweenBlocks + " steps");
+        System.out.println("=".repeat(100));
+        ReplanningSession session = new ReplanningSession(grid);
+        DStarLite route = session.track(start, goal);
+        long t0 = System.nanoTime();
+        SearchResult r = route.plan();
+        System.out.printf("First D* Lite search: cost %d, %d nodes, %.1f ms\n",
+                r.cost, r.nodesExpanded, (System.nanoTime() - t0) / 1e6);
+
+        long incrementalNs = 0, scratchNs = 0, incrementalNodes = 0, scratchNodes = 0;
+        int replans = 0;
+        while (r.cost > 0 && r.pathStates.size() > stepsBetweenBlocks + 1) {
+            State here = r.pathStates.get(stepsBetweenBlocks);
+            route.moveTo(here);
+            session.blockRoad(here, r.pathStates.get(stepsBetweenBlocks + 1));
+
+            t0 = System.nanoTime();
+            r = route.plan();
+            incrementalNs += System.nanoTime() - t0;
+            incrementalNodes += r.nodesExpanded;
+
+            t0 = System.nanoTime();
+            SearchResult scratch = IntGenericSearch.AStar(new DeliverySearch(here, goal, grid), 1);
+            scratchNs += System.nanoTime() - t0;
+            scratchNodes += scratch.nodesExpanded;
+            replans++;
+        }
+        System.out.printf("%-22s | %-16s | %-16s\n", "Per replan", "Time (ms)", "Nodes expanded");
+        System.out.println("-".repeat(100));
+        if (replans > 0) {
+            System.out.printf("%-22s | %-16.3f | %-16d\n", "D* Lite repair", incrementalNs / 1e6 / replans,
+                    incrementalNodes / replans);
+            System.out.printf("%-22s | %-16.3f | %-16d\n", "A* from scratch", scratchNs / 1e6 / replans,
+                    scratchNodes / replans);
+        }
+        System.out.println("(" + replans + " replans; A* times include recompiling the grid)");
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareTours(Grid grid, State store, int... dropCounts) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("ROUND TRIPS VS TOURS - " + grid.rows + "x" + grid.cols + " | store " + store);
+        System.out.println("=".repeat(100));
+        System.out.printf("%-8s | %-16s | %-16s | %-10s | %-12s\n",
+                "Drops", "Round trips", "Tour", "Exact", "Tour (ms)");
+        System.out.println("-".repeat(100));
+        Random rnd = new Random(7);
+        for (int count : dropCounts) {
+            List<State> drops = new ArrayList<>();
+            while (drops.size() < count)
+                drops.add(new State(rnd.nextInt(grid.cols), rnd.nextInt(grid.rows)));
+            DistanceMatrix matrix = new DistanceMatrix(grid, "UC");
+            int roundTrips = 0;
+            for (State d : drops)
+                roundTrips += matrix.cost(store, d) + matrix.cost(d, store);
+
+            long t0 = System.nanoTime();
+            TourPlanner.StoreTour tour = TourPlanner.forStore(matrix, store, drops, TourPlanner.DEFAULT_TIME_BUDGET_MS);
+            double ms = (System.nanoTime() - t0) / 1e6;
+            System.out.printf("%-8d | %-16d | %-16s | %-10s | %-12.1f\n", count, roundTrips,
+                    tour == null ? "none" : String.valueOf(tour.cost), tour != null && tour.exact, ms);
+        }
+        System.out.println("(Tour times include searching the drop-to-drop routes)");
+        System.out.println("=".repeat(100));
+    }
+
+    public static void comparePortfolio(Grid grid, State start, State goal) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("PORTFOLIO RACE - " + grid.rows + "x" + grid.cols + " | "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println("=".repeat(100));
+        System.out.printf("%-22s | %-10s | %-16s | %-16s\n", "Engine", "Cost", "Time (ms)", "Nodes expanded");
+        System.out.println("-".repeat(100));
+        for (String engine : StrategyPortfolio.DEFAULT_ENGINES) {
+            DeliverySearch problem = new DeliverySearch(start, goal, grid);
+            long t0 = System.nanoTime();
+            SearchResult r = engine.equals("UC") ? IntGenericSearch.UCS(problem)
+                    : IntGenericSearch.AStar(problem, engine.equals("AS1") ? 1 : 2);
+            System.out.printf("%-22s | %-10d | %-16.1f | %-16d\n", engine, r.cost,
+                    (System.nanoTime() - t0) / 1e6, r.nodesExpanded);
+        }
+        StrategyPortfolio portfolio = new StrategyPortfolio(StrategyPortfolio.DEFAULT_ENGINES);
+        long t0 = System.nanoTime();
+        SearchResult r = portfolio.race(new DeliverySearch(start, goal, grid));
+        System.out.printf("%-22s | %-10d | %-16.1f | %-16d\n", "PORTFOLIO", r.cost,
+                (System.nanoTime() - t0) / 1e6, r.nodesExpanded);
+        System.out.println("Won by: " + portfolio.winSummary());
+        System.out.println("(Engines share the cores: the race beats the best engine only with one core per engine)");
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareTraceLevels(Grid grid, State start, State goal) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("EXPANSION TRACE LEVELS - UC, " + grid.rows + "x" + grid.cols);
+        System.out.println("=".repeat(100));
+        System.out.printf("%-22s | %-16s | %-16s | %-16s\n", "Trace level", "Time (ms)", "Nodes expanded", "Trace bytes");
+        System.out.println("-".repeat(100));
+        SearchResult full = null;
+        for (TraceLevel level : TraceLevel.values()) {
+            DeliverySearch problem = new DeliverySearch(start, goal, grid, SearchLimits.defaults().withTraceLevel(level));
+            problem.getGraph();
+            long t0 = System.nanoTime();
+            SearchResult r = IntGenericSearch.UCS(problem);
+            System.out.printf("%-22s | %-16.1f | %-16d | %-16d\n", level, (System.nanoTime() - t0) / 1e6,
+                    r.nodesExpanded, r.trace.sizeInBytes());
+            if (level == TraceLevel.FULL)
+                full = r;
+        }
+        // What the same expansions cost as a list of States: 24 bytes per State plus a 4 byte slot
+        System.out.printf("%-22s | %-16s | %-16d | %-16d\n", "List<State> (est.)", "-",
+                full.nodesExpanded, 40 + 28L * full.nodesExpanded);
+        long t0 = System.nanoTime();
+        int decoded = full.expandedOrder().size();
+        System.out.printf("Decoding %d expansions on demand: %.1f ms\n", decoded, (System.nanoTime() - t0) / 1e6);
+        System.out.println("=".repeat(100));
+    }
+
+    public static void compareTrafficStorage(int... sizes) {
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("TRAFFIC STORAGE - flat byte[] vs int[rows][cols][4]");
+        System.out.println("=".repeat(100));
+        System.out.printf("%-22s | %-20s | %-20s | %-16s\n", "Grid", "int[][][] (est. MB)", "Flat (MB)", "Compile (ms)");
+        System.out.println("-".repeat(100));
+        for (int n : sizes) {
+            // Per row an int[][] of cols refs; per cell an int[4] (16 byte header + 16) and its ref
+            double nested = (n * (16.0 + 4.0 * n) + (double) n * n * (32 + 4)) / 1e6;
+            double flat = (16 + 4.0 * n * n) / 1e6;
+            String compile = "-";
+            if ((long) n * n <= 1_000_000) {
+                Grid grid = Grid.randomGrid(n, n, 1, 1, new Random(1));
+                flat = grid.trafficSizeInBytes() / 1e6;
+                long t0 = System.nanoTime();
+                CompiledGrid.compile(grid);
+                compile = String.format("%.1f", (System.nanoTime() - t0) / 1e6);
+            }
+            System.out.printf("%-22s | %-20.1f | %-20.1f | %-16s\n", n + "x" + n, nested, flat, compile);
+        }
+        System.out.println("(Sizes above 1000x1000 are computed, not allocated; costs above 255 double the flat size)");
+        System.out.println("=".repeat(100));
+    }
+
+    private static SearchResult runJumpPointCandidate(String name, DeliverySearch problem) {
+        return name.equals("JPS") ? JumpPointSearch.search(problem)
+                : IntGenericSearch.AStar(problem, name.equals("AS1") ? 1 : 2);
+    }
+
     public static void main(String[] args) {
         // Example 1: Small grid
         System.out.println("\n### TEST CASE 1: Small Grid (5x5) ###");
@@ -201,5 +591,62 @@ public class PerformanceBenchmark {
         grid3.stores.add(new State(0, 0));
         grid3.destinations.add(new State(14, 14));
         compareAlgorithms(grid3, new State(0, 0), new State(14, 14));
+
+        // Example 4: Open list on a city-sized random grid
+        System.out.println("\n\n### TEST CASE 4: Open list (200x200 random traffic) ###");
+        Grid grid4 = Grid.randomGrid(200, 200, 1, 1, new Random(42));
+        compareOpenLists(grid4, new State(0, 0), new State(199, 199));
+
+        // Example 5: JPS on an open uniform grid, then with scattered road blocks
+        System.out.println("\n\n### TEST CASE 5: Jump Point Search (300x300 uniform traffic) ###");
+        Grid grid5 = new Grid(300, 300);
+        grid5.fillTraffic(1);
+        compareJumpPoint(grid5, new State(0, 0), new State(299, 299));
+
+        Random rnd = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            State a = new State(rnd.nextInt(299), rnd.nextInt(299));
+            grid5.blockedRoads.add(new RoadBlock(a, rnd.nextBoolean() ? new State(a.x + 1, a.y) : new State(a.x, a.y + 1)));
+        }
+        grid5.invalidateCaches();
+        compareJumpPoint(grid5, new State(0, 0), new State(299, 299));
+
+        // Example 6: CH preprocessing amortised over many queries
+        System.out.println("\n\n### TEST CASE 6: Contraction Hierarchies (150x150 random traffic) ###");
+        compareContractionHierarchy(Grid.randomGrid(150, 150, 1, 1, new Random(42)), 500, 42);
+
+        System.out.println("\n\n### TEST CASE 7: ALT landmarks (200x200 random traffic) ###");
+        compareLandmarks(Grid.randomGrid(200, 200, 1, 1, new Random(7)), 300, 7);
+
+        System.out.println("\n\n### TEST CASE 8: Distance fields (200x200 random traffic) ###");
+        compareDistanceFields(Grid.randomGrid(200, 200, 1, 1, new Random(8)), 10, 30, 8);
+
+        System.out.println("\n\n### TEST CASE 9: ID vs IDA* (60x60 random traffic) ###");
+        compareIterativeDeepening(Grid.randomGrid(60, 60, 1, 1, new Random(1)), new State(0, 0), new State(59, 59));
+
+        System.out.println("\n\n### TEST CASE 10: SMA* under shrinking memory (30x30 random traffic) ###");
+        compareMemoryBounded(Grid.randomGrid(30, 30, 1, 1, new Random(1)), new State(0, 0), new State(29, 29),
+                1 << 20, 2000, 500, 200);
+
+        System.out.println("\n\n### TEST CASE 11: ARA* under time budgets (400x400 random traffic) ###");
+        compareAnytime(Grid.randomGrid(400, 400, 1, 1, new Random(1)), new State(0, 0), new State(399, 399),
+                1, 5, 20, 100, 0);
+
+        System.out.println("\n\n### TEST CASE 12: D* Lite vs A* replanning (300x300 random traffic) ###");
+        compareReplanning(Grid.randomGrid(300, 300, 1, 1, new Random(1)), new State(0, 0), new State(299, 299), 5);
+
+        System.out.println("\n\n### TEST CASE 13: Round trips vs tours (100x100 random traffic) ###");
+        compareTours(Grid.randomGrid(100, 100, 1, 1, new Random(1)), new State(50, 50), 5, 12, 15, 40, 150);
+
+        System.out.println("\n\n### TEST CASE 14: Portfolio race UC / AS1 / AS2 (300x300 random traffic) ###");
+        comparePortfolio(Grid.randomGrid(300, 300, 1, 1, new Random(1)), new State(0, 0), new State(299, 299));
+
+        // Example 15: what each trace level costs a search
+        System.out.println("\n\n### TEST CASE 15: Expansion trace levels (300x300 random traffic) ###");
+        compareTraceLevels(Grid.randomGrid(300, 300, 1, 1, new Random(1)), new State(0, 0), new State(299, 299));
+
+        // Example 16: memory of the traffic table up to a 10k x 10k city
+        System.out.println("\n\n### TEST CASE 16: Traffic storage (300x300 to 10000x10000) ###");
+        compareTrafficStorage(300, 1000, 10_000);
     }
 }
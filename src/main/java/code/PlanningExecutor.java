@@ -0,0 +1,66 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Runs the independent per-store searches of a plan in parallel.
+ *
+ * Searches over one Grid only read it (compile(), fingerprint() and the
+ * RouteCache are synchronized), so the planners fan out one task per store
+ * and merge the results back in list order, which keeps their output
+ * identical to a sequential run. Parallelism 1 runs everything on the
+ * calling thread.
+ */
+public final class PlanningExecutor {
+
+    private static PlanningExecutor shared = new PlanningExecutor(0);
+
+    private final int parallelism;
+    private final ForkJoinPool pool; // null when sequential
+
+    /** parallelism <= 0 means one worker per available core. */
+    public PlanningExecutor(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+    }
+
+    /** Process-wide executor used by the planners; see PlanningExecutorConfig. */
+    public static synchronized PlanningExecutor shared() {
+        return shared;
+    }
+
+    /**
+     * Replaces the shared executor. The old pool is not shut down: a planner
+     * that read shared() before the switch may still submit to it. Its
+     * workers exit after the pool's keep-alive (a minute) once idle, and the
+     * pool is collected when no caller holds it any more.
+     */
+    public static synchronized void configure(int parallelism) {
+        shared = new PlanningExecutor(parallelism);
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /** fn applied to every item, results in item order. Exceptions propagate. */
+    public <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> fn) {
+        List<R> results = new ArrayList<>(items.size());
+        if (pool == null || items.size() < 2) {
+            for (T item : items)
+                results.add(fn.apply(item));
+            return results;
+        }
+
+        List<ForkJoinTask<? extends R>> tasks = new ArrayList<>(items.size());
+        for (T item : items)
+            tasks.add(pool.submit(() -> fn.apply(item)));
+        for (ForkJoinTask<? extends R> task : tasks)
+            results.add(task.join());
+        return results;
+    }
+}
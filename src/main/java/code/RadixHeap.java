@@ -0,0 +1,105 @@
+package code;
+
+import java.util.Arrays;
+
+/**
+ * Radix heap for monotone non-negative int priorities of any magnitude.
+ *
+ * Bucket i > 0 holds priorities whose highest bit differing from the last
+ * popped priority is bit i - 1, so each entry moves down at most 32 times:
+ * O(log C) amortised per operation instead of a binary heap's O(log n).
+ * Used instead of DialQueue when edge costs are too large for one bucket each.
+ * A better path to a queued cell leaves a stale entry that pop() skips.
+ */
+public final class RadixHeap implements OpenList {
+
+    private static final int BUCKETS = 33;
+
+    private final long[][] buckets = new long[BUCKETS][]; // (priority << 32 | cell)
+    private final int[] bucketSize = new int[BUCKETS];
+    private final int[] key;
+    private final boolean[] queued;
+    private int last; // last popped priority
+    private int size; // live cells
+
+    public RadixHeap(int capacity) {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new long[8];
+        key = new int[capacity];
+        queued = new boolean[capacity];
+    }
+
+    @Override
+    public void push(int cell, int priority) {
+        if (priority < last)
+            throw new IllegalStateException("Non-monotone priority " + priority + " < " + last);
+        if (queued[cell] && key[cell] == priority)
+            return;
+
+        if (!queued[cell]) {
+            queued[cell] = true;
+            size++;
+        }
+        key[cell] = priority;
+        append(bucketOf(priority), ((long) priority << 32) | cell);
+    }
+
+    @Override
+    public int pop() {
+        if (size == 0)
+            throw new IllegalStateException("Queue is empty");
+        while (true) {
+            while (bucketSize[0] > 0) {
+                long entry = buckets[0][--bucketSize[0]];
+                int cell = (int) entry;
+                if (queued[cell] && key[cell] == (int) (entry >>> 32)) {
+                    queued[cell] = false;
+                    size--;
+                    return cell;
+                }
+            }
+
+            int i = 1;
+            while (bucketSize[i] == 0)
+                i++;
+
+            // New minimum among live entries, then redistribute bucket i below it
+            int min = Integer.MAX_VALUE;
+            for (int j = 0; j < bucketSize[i]; j++) {
+                long entry = buckets[i][j];
+                int cell = (int) entry;
+                int k = (int) (entry >>> 32);
+                if (queued[cell] && key[cell] == k && k < min)
+                    min = k;
+            }
+            int count = bucketSize[i];
+            bucketSize[i] = 0;
+            if (min == Integer.MAX_VALUE)
+                continue; // only stale entries
+
+            last = min;
+            for (int j = 0; j < count; j++) {
+                long entry = buckets[i][j];
+                int cell = (int) entry;
+                int k = (int) (entry >>> 32);
+                if (queued[cell] && key[cell] == k)
+                    append(bucketOf(k), entry);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int bucketOf(int priority) {
+        return priority == last ? 0 : 32 - Integer.numberOfLeadingZeros(priority ^ last);
+    }
+
+    private void append(int b, long entry) {
+        if (bucketSize[b] == buckets[b].length)
+            buckets[b] = Arrays.copyOf(buckets[b], bucketSize[b] * 2);
+        buckets[b][bucketSize[b]++] = entry;
+    }
+}
@@ -0,0 +1,73 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The routes of the trucks currently driving on one grid, kept up to date
+ * as traffic and road blocks change.
+ *
+ * Every edit goes through this class: it changes the Grid, invalidates the
+ * Grid's compiled caches for the other searches, and tells each tracked
+ * DStarLite route which edges changed, so the next plan() repairs only the
+ * part of its search the change reaches instead of searching again.
+ *
+ * Not thread-safe, like the Grid it edits.
+ */
+public class ReplanningSession {
+
+    private final Grid grid;
+    private final List<DStarLite> routes = new ArrayList<>();
+
+    public ReplanningSession(Grid grid) {
+        this.grid = grid;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /** Starts tracking a truck's route; call plan() on it for the first route. */
+    public DStarLite track(State start, State goal) {
+        DStarLite route = new DStarLite(grid, start, goal);
+        routes.add(route);
+        return route;
+    }
+
+    /** Stops updating a route whose truck has arrived. */
+    public void release(DStarLite route) {
+        routes.remove(route);
+    }
+
+    public int activeRoutes() {
+        return routes.size();
+    }
+
+    // ---------------------------------------
+    // EDITS
+    // ---------------------------------------
+
+    /** Sets grid.traffic(cell.x, cell.y, direction); 0 closes that road. */
+    public void setTraffic(State cell, int direction, int value) {
+        grid.setTraffic(cell.x, cell.y, direction, value);
+        grid.invalidateCaches();
+        for (DStarLite route : routes)
+            route.trafficChanged(cell, direction);
+    }
+
+    public void blockRoad(State a, State b) {
+        if (grid.blockedRoads.add(new RoadBlock(a, b)))
+            roadChanged(a, b);
+    }
+
+    public void unblockRoad(State a, State b) {
+        if (grid.blockedRoads.remove(new RoadBlock(a, b)))
+            roadChanged(a, b);
+    }
+
+    private void roadChanged(State a, State b) {
+        grid.invalidateCaches();
+        for (DStarLite route : routes)
+            route.roadChanged(a, b);
+    }
+}
@@ -0,0 +1,256 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of SearchResults keyed by (grid fingerprint, start, goal,
+ * strategy), shared by every DeliverySearch.solve call in the process, so a
+ * client re-planning on an unchanged grid gets its routes without searching.
+ *
+ * The bound is an estimate of retained bytes rather than an entry count,
+ * because one result may hold a few states or the whole expansion order.
+ * Cached results are shared between callers and must not be modified.
+ *
+ * Each entry also records the bounding box of the cells its search expanded,
+ * so that after a traffic edit carryOver() can copy the entries the edit
+ * cannot have changed to the grid's new fingerprint (see TrafficPatch).
+ */
+public final class RouteCache {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final RouteCache SHARED = new RouteCache(DEFAULT_MAX_BYTES);
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long maxBytes;
+    private long bytes;
+    private boolean enabled = true;
+    private boolean recordStats = true;
+    private long hits, misses, puts, evictions, evictedBytes;
+
+    public RouteCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Process-wide instance used by DeliverySearch; see RouteCacheConfig. */
+    public static RouteCache shared() {
+        return SHARED;
+    }
+
+    // ---------------------------------------
+    // CONFIGURATION
+    // ---------------------------------------
+    public synchronized void configure(boolean enabled, long maxBytes, boolean recordStats) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.recordStats = recordStats;
+        if (!enabled)
+            clear();
+        evictToFit();
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    // ---------------------------------------
+    // LOOKUP / INSERT
+    // ---------------------------------------
+
+    /** Cached result, or null on a miss (or when the cache is disabled). */
+    public SearchResult get(Grid grid, State start, State goal, String strategy) {
+        // Hash the grid outside the lock; it is cached on the Grid afterwards
+        return lookup(new Key(grid.fingerprint(), start, goal, strategy));
+    }
+
+    public void put(Grid grid, State start, State goal, String strategy, SearchResult result) {
+        if (result != null)
+            store(new Key(grid.fingerprint(), start, goal, strategy), result);
+    }
+
+    private synchronized SearchResult lookup(Key key) {
+        if (!enabled)
+            return null;
+        Entry e = entries.get(key);
+        if (recordStats) {
+            if (e != null) hits++;
+            else misses++;
+        }
+        return e == null ? null : e.result;
+    }
+
+    private synchronized void store(Key key, SearchResult result) {
+        long size = estimateBytes(result);
+        if (!enabled || size > maxBytes)
+            return;
+        Entry old = entries.put(key, new Entry(result, size));
+        if (old != null)
+            bytes -= old.bytes;
+        bytes += size;
+        if (recordStats) puts++;
+        evictToFit();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /** Decides whether a cached result survives an edit; see carryOver(). */
+    public interface RegionTest {
+        /** The box spans every cell the cached search expanded or routed through. */
+        boolean unaffected(String strategy, int minX, int minY, int maxX, int maxY);
+    }
+
+    /**
+     * Copies the entries cached under fromFingerprint that test accepts to
+     * toFingerprint, after an edit turned one grid into the other. Every
+     * entry also stays under fromFingerprint, where it is still correct for
+     * other grids with the old content, until it is evicted. A copy shares
+     * its result with the original but is counted in full, so the bound
+     * holds whichever of the two is evicted first. Returns {copied, left
+     * behind}.
+     */
+    public synchronized int[] carryOver(long fromFingerprint, long toFingerprint, RegionTest test) {
+        if (fromFingerprint == toFingerprint)
+            return new int[2];
+        List<Key> copying = new ArrayList<>();
+        int left = 0;
+        for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+            Key k = e.getKey();
+            if (k.fingerprint != fromFingerprint)
+                continue;
+            Entry v = e.getValue();
+            if (test.unaffected(k.strategy, v.minX, v.minY, v.maxX, v.maxY))
+                copying.add(k);
+            else
+                left++;
+        }
+        for (Key k : copying) {
+            Entry v = entries.get(k);
+            Entry old = entries.put(new Key(toFingerprint, k.sx, k.sy, k.gx, k.gy, k.strategy), v);
+            if (old != null)
+                bytes -= old.bytes;
+            bytes += v.bytes;
+        }
+        evictToFit();
+        return new int[] { copying.size(), left };
+    }
+
+    private void evictToFit() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Entry e = it.next(); // least recently used first
+            it.remove();
+            bytes -= e.bytes;
+            if (recordStats) {
+                evictions++;
+                evictedBytes += e.bytes;
+            }
+        }
+    }
+
+    // Object headers, the plan string, the expansion trace and one reference
+    // per path state. States themselves are shared with the CompiledGrid and
+    // not counted.
+    static long estimateBytes(SearchResult r) {
+        long size = 160;
+        if (r.plan != null)
+            size += 40 + 2L * r.plan.length();
+        size += r.trace.sizeInBytes() + 8L * r.pathStates.size();
+        return size;
+    }
+
+    // ---------------------------------------
+    // STATS
+    // ---------------------------------------
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("enabled", enabled);
+        s.put("entries", entries.size());
+        s.put("bytes", bytes);
+        s.put("maxBytes", maxBytes);
+        s.put("hits", hits);
+        s.put("misses", misses);
+        s.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        s.put("puts", puts);
+        s.put("evictions", evictions);
+        s.put("evictedBytes", evictedBytes);
+        return s;
+    }
+
+    private static final class Key {
+        final long fingerprint;
+        final int sx, sy, gx, gy;
+        final String strategy;
+
+        Key(long fingerprint, State start, State goal, String strategy) {
+            this(fingerprint, start.x, start.y, goal.x, goal.y, strategy);
+        }
+
+        Key(long fingerprint, int sx, int sy, int gx, int gy, String strategy) {
+            this.fingerprint = fingerprint;
+            this.sx = sx;
+            this.sy = sy;
+            this.gx = gx;
+            this.gy = gy;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return fingerprint == k.fingerprint && sx == k.sx && sy == k.sy
+                    && gx == k.gx && gy == k.gy && strategy.equals(k.strategy);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = Long.hashCode(fingerprint);
+            h = 31 * h + sx;
+            h = 31 * h + sy;
+            h = 31 * h + gx;
+            h = 31 * h + gy;
+            return 31 * h + strategy.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        final SearchResult result;
+        final long bytes;
+        // Bounding box of the expanded cells and pathStates (empty when min > max).
+        // Unbounded when the search traced no box (TraceLevel.OFF).
+        final int minX, minY, maxX, maxY;
+
+        Entry(SearchResult result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+            ExpansionTrace trace = result.trace;
+            int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+            if (trace.hasBounds()) {
+                x0 = trace.minX();
+                y0 = trace.minY();
+                x1 = trace.maxX();
+                y1 = trace.maxY();
+            } else if (trace.count() > 0) {
+                x0 = y0 = Integer.MIN_VALUE;
+                x1 = y1 = Integer.MAX_VALUE;
+            }
+            for (State s : result.pathStates) {
+                x0 = Math.min(x0, s.x);
+                y0 = Math.min(y0, s.y);
+                x1 = Math.max(x1, s.x);
+                y1 = Math.max(y1, s.y);
+            }
+            minX = x0;
+            minY = y0;
+            maxX = x1;
+            maxY = y1;
+        }
+    }
+}
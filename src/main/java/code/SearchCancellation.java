@@ -0,0 +1,15 @@
+package code;
+
+/**
+ * Cooperative stop signal for a search raced against others (see
+ * StrategyPortfolio). The search polls it every few expansions and returns
+ * null once it says stop.
+ */
+public interface SearchCancellation {
+
+    /**
+     * lowerBound: no route to the goal costs less, or -1 when the search
+     * cannot tell (inconsistent heuristic). True to stop the search.
+     */
+    boolean stop(int lowerBound);
+}
@@ -0,0 +1,118 @@
+package code;
+
+import java.util.Objects;
+
+/**
+ * Limits for the searches that trade time for memory (ID, IDA*, SMA*),
+ * which can otherwise run for a very long time on a large grid, for the
+ * anytime search that trades route quality for time (ARA*), and for what
+ * every search records of its expansions.
+ *
+ * - nodeBudget: expansions allowed per ID / IDA* / SMA* search. A search
+ *   that hits it stops and returns a result with budgetExhausted set.
+ * - transpositionTableSize: entries of the IDA* transposition table.
+ * - maxNodesInMemory: SMA* node limit; SMA* forgets its worst leaves to
+ *   stay under it.
+ * - timeBudgetMs: ARA* deadline per route search; ARA* returns its best
+ *   route so far with a suboptimality bound. 0 means no deadline.
+ * - traceLevel: how much of the expansion order a search records (see
+ *   TraceLevel). FULL only when something will draw it.
+ *
+ * Immutable. The process-wide defaults come from application.properties
+ * (see SearchLimitsConfig); a planning request may override them, and the
+ * override travels with the DeliverySearch.
+ */
+public final class SearchLimits {
+
+    public static final long DEFAULT_NODE_BUDGET = 5_000_000;
+    public static final int DEFAULT_TRANSPOSITION_TABLE_SIZE = 1 << 16;
+    public static final int DEFAULT_MAX_NODES_IN_MEMORY = 1 << 20;
+    public static final TraceLevel DEFAULT_TRACE_LEVEL = TraceLevel.COUNTERS;
+
+    private static volatile SearchLimits defaults = new SearchLimits(
+            DEFAULT_NODE_BUDGET, DEFAULT_TRANSPOSITION_TABLE_SIZE, DEFAULT_MAX_NODES_IN_MEMORY, 0);
+
+    private final long nodeBudget;
+    private final int transpositionTableSize;
+    private final int maxNodesInMemory;
+    private final long timeBudgetMs;
+    private final TraceLevel traceLevel;
+
+    public SearchLimits(long nodeBudget, int transpositionTableSize, int maxNodesInMemory) {
+        this(nodeBudget, transpositionTableSize, maxNodesInMemory, 0);
+    }
+
+    /** nodeBudget <= 0 means unlimited; transpositionTableSize 0 turns the table off. */
+    public SearchLimits(long nodeBudget, int transpositionTableSize, int maxNodesInMemory, long timeBudgetMs) {
+        this(nodeBudget, transpositionTableSize, maxNodesInMemory, timeBudgetMs, DEFAULT_TRACE_LEVEL);
+    }
+
+    public SearchLimits(long nodeBudget, int transpositionTableSize, int maxNodesInMemory, long timeBudgetMs,
+                        TraceLevel traceLevel) {
+        this.nodeBudget = nodeBudget > 0 ? nodeBudget : Long.MAX_VALUE;
+        this.transpositionTableSize = Math.max(0, transpositionTableSize);
+        this.maxNodesInMemory = Math.max(2, maxNodesInMemory);
+        this.timeBudgetMs = Math.max(0, timeBudgetMs);
+        this.traceLevel = traceLevel == null ? DEFAULT_TRACE_LEVEL : traceLevel;
+    }
+
+    public static SearchLimits defaults() {
+        return defaults;
+    }
+
+    public static void configure(SearchLimits limits) {
+        defaults = limits;
+    }
+
+    public SearchLimits withMaxNodesInMemory(int maxNodesInMemory) {
+        return new SearchLimits(nodeBudget, transpositionTableSize, maxNodesInMemory, timeBudgetMs, traceLevel);
+    }
+
+    public SearchLimits withTimeBudgetMs(long timeBudgetMs) {
+        return new SearchLimits(nodeBudget, transpositionTableSize, maxNodesInMemory, timeBudgetMs, traceLevel);
+    }
+
+    public SearchLimits withTraceLevel(TraceLevel traceLevel) {
+        return new SearchLimits(nodeBudget, transpositionTableSize, maxNodesInMemory, timeBudgetMs, traceLevel);
+    }
+
+    public long nodeBudget() {
+        return nodeBudget;
+    }
+
+    public int transpositionTableSize() {
+        return transpositionTableSize;
+    }
+
+    public int maxNodesInMemory() {
+        return maxNodesInMemory;
+    }
+
+    public long timeBudgetMs() {
+        return timeBudgetMs;
+    }
+
+    public TraceLevel traceLevel() {
+        return traceLevel;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SearchLimits)) return false;
+        SearchLimits l = (SearchLimits) o;
+        return nodeBudget == l.nodeBudget && transpositionTableSize == l.transpositionTableSize
+                && maxNodesInMemory == l.maxNodesInMemory && timeBudgetMs == l.timeBudgetMs
+                && traceLevel == l.traceLevel;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeBudget, transpositionTableSize, maxNodesInMemory, timeBudgetMs, traceLevel);
+    }
+
+    @Override
+    public String toString() {
+        return "nodeBudget=" + nodeBudget + ",table=" + transpositionTableSize + ",memory=" + maxNodesInMemory
+                + ",timeMs=" + timeBudgetMs + ",trace=" + traceLevel;
+    }
+}
@@ -3,25 +3,41 @@ public class SearchResult {
     public String plan;       // ex: "right,down,down,left"
     public int cost;          // coût total
     public int nodesExpanded; // nœuds expandés
-    // Order in which states were expanded (for visualization)
-    public java.util.List<State> expandedOrder;
+    // Expanded cells at the search's trace level (see ExpansionTrace); expandedOrder() decodes them
+    public ExpansionTrace trace;
     // The sequence of states along the final plan (from start to goal)
     public java.util.List<State> pathStates;
+    // Bidirectional searches: split of nodesExpanded between the two directions
+    public int nodesExpandedForward;
+    public int nodesExpandedBackward;
+    // ID / IDA* / SMA*: the node or memory budget ran out before a route was found (cost is -1)
+    public boolean budgetExhausted;
+    // SMA*: nodes dropped to stay within memory, and how many were generated again
+    public int nodesForgotten;
+    public int nodesRegenerated;
+    // ARA*, and SMA* when memory cut off a possibly cheaper route: the cost is at most
+    // this many times the optimal cost (1 = optimal); NaN for other searches
+    public double suboptimalityBound = Double.NaN;
 
     public SearchResult(String plan, int cost, int nodesExpanded) {
-        this(plan, cost, nodesExpanded, new java.util.ArrayList<>(), new java.util.ArrayList<>());
+        this(plan, cost, nodesExpanded, null, new java.util.ArrayList<>());
     }
 
     public SearchResult(String plan, int cost, int nodesExpanded,
-                        java.util.List<State> expandedOrder,
+                        ExpansionTrace trace,
                         java.util.List<State> pathStates) {
         this.plan = plan;
         this.cost = cost;
         this.nodesExpanded = nodesExpanded;
-        this.expandedOrder = expandedOrder == null ? new java.util.ArrayList<>() : expandedOrder;
+        this.trace = trace == null ? new ExpansionTrace(TraceLevel.OFF) : trace;
         this.pathStates = pathStates == null ? new java.util.ArrayList<>() : pathStates;
     }
 
+    /** States in expansion order; empty unless the search ran at TraceLevel.FULL. */
+    public java.util.List<State> expandedOrder() {
+        return trace.states();
+    }
+
     @Override
     public String toString() {
         return plan + ";" + cost + ";" + nodesExpanded;
@@ -0,0 +1,132 @@
+package code;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Phase 1 of planning: which store serves each destination.
+ *
+ * For cost-optimal strategies a single multi-source Dijkstra seeded from every
+ * store at cost 0 labels each cell with its cheapest store and the distance to
+ * it (a Voronoi partition of the road network), whatever the number of stores.
+ * Ties go to the store listed first, like the pairwise `cost < bestCost` loop.
+ */
+public class StoreAssignment {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final CompiledGrid graph;
+    private final List<State> stores;
+    private final int[] nearest;  // index into stores per cell, -1 if unreachable
+    private final int[] distance; // cost from that store per cell
+
+    private StoreAssignment(CompiledGrid graph, List<State> stores, int[] nearest, int[] distance) {
+        this.graph = graph;
+        this.stores = stores;
+        this.nearest = nearest;
+        this.distance = distance;
+    }
+
+    // ---------------------------------------
+    // MULTI-SOURCE DIJKSTRA
+    // ---------------------------------------
+    public static StoreAssignment voronoi(Grid grid, List<State> stores) {
+        CompiledGrid graph = grid.compile();
+        int n = graph.cellCount();
+        int[] nearest = new int[n];
+        int[] distance = new int[n];
+        Arrays.fill(nearest, -1);
+        Arrays.fill(distance, INF);
+
+        IndexedHeap open = new IndexedHeap(n);
+        for (int i = 0; i < stores.size(); i++) {
+            int cell = graph.cellId(stores.get(i));
+            if (cell >= 0 && nearest[cell] < 0) {
+                nearest[cell] = i;
+                distance[cell] = 0;
+                open.push(cell, 0);
+            }
+        }
+
+        while (!open.isEmpty()) {
+            int u = open.pop();
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                int d = distance[u] + graph.costs[e];
+                // Equal distance through a lower store index also wins. v cannot be
+                // settled yet when that happens, since d > distance[u] for c > 0.
+                if (d < distance[v] || (d == distance[v] && nearest[u] < nearest[v])) {
+                    distance[v] = d;
+                    nearest[v] = nearest[u];
+                    open.push(v, d);
+                }
+            }
+        }
+        return new StoreAssignment(graph, stores, nearest, distance);
+    }
+
+    /** Cheapest store for s, or null if no store reaches it. */
+    public State storeFor(State s) {
+        int cell = graph.cellId(s);
+        return cell < 0 || nearest[cell] < 0 ? null : stores.get(nearest[cell]);
+    }
+
+    /** Cost from storeFor(s) to s, or -1 if unreachable. */
+    public int distanceTo(State s) {
+        int cell = graph.cellId(s);
+        return cell < 0 || nearest[cell] < 0 ? -1 : distance[cell];
+    }
+
+    // ---------------------------------------
+    // PHASE 1 FOR THE PLANNERS
+    // ---------------------------------------
+
+    public static Map<State, State> assign(Grid grid, String strategy) {
+        return assign(new DistanceMatrix(grid, strategy));
+    }
+
+    /**
+     * destination -> store with the cheapest route under the matrix's strategy;
+     * unreachable destinations are left out. Cost-optimal strategies use one
+     * Voronoi sweep; the others compare each store's routes from the matrix,
+     * in store order, which leaves them cached for Phase 2.
+     */
+    public static Map<State, State> assign(DistanceMatrix matrix) {
+        Grid grid = matrix.getGrid();
+        Map<State, State> assignment = new HashMap<>();
+
+        if (DeliverySearch.isCostOptimal(matrix.getStrategy())) {
+            StoreAssignment voronoi = voronoi(grid, grid.stores);
+            for (State dest : grid.destinations) {
+                State store = voronoi.storeFor(dest);
+                if (store != null)
+                    assignment.put(dest, store);
+            }
+            return assignment;
+        }
+
+        // One task per store; the list comes back in store order
+        List<Map<State, SearchResult>> rows = PlanningExecutor.shared()
+                .map(grid.stores, store -> matrix.routes(store, grid.destinations));
+        Map<State, Map<State, SearchResult>> fromStore = new HashMap<>();
+        for (int i = 0; i < grid.stores.size(); i++)
+            fromStore.put(grid.stores.get(i), rows.get(i));
+
+        for (State dest : grid.destinations) {
+            int bestCost = Integer.MAX_VALUE;
+            State bestStore = null;
+            for (State store : grid.stores) {
+                SearchResult r = fromStore.get(store).get(dest);
+                if (r != null && r.cost >= 0 && r.cost < bestCost) {
+                    bestCost = r.cost;
+                    bestStore = store;
+                }
+            }
+            if (bestStore != null)
+                assignment.put(dest, bestStore);
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,236 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strategy "PORTFOLIO": several engines raced on one DeliverySearch, the
+ * first route proven optimal wins and the other engines are told to stop.
+ *
+ * Which engine is fastest depends on the grid (heuristic 2 tends to win on
+ * congested maps and lose on open ones), so racing them costs a few extra
+ * cores and saves guessing. Engines are polled through SearchCancellation:
+ * a losing engine stops within IntGenericSearch.CANCEL_INTERVAL expansions
+ * of the race being decided.
+ *
+ * A route is proven optimal when its engine is cost-optimal (UC, AS1, AS3,
+ * AS4), or when any of those engines reports a lower bound that reaches the
+ * route's cost. The second case lets AS2, whose heuristic is not
+ * admissible, win a race: its route is kept as the incumbent until an
+ * admissible engine's frontier catches up with it. An unreachable goal is
+ * proven by whichever engine finishes first. A race only ever returns a
+ * proven route: if an engine fails, the race stops and throws.
+ *
+ * Engines run on a bounded pool of PlanningExecutor parallelism times the
+ * number of engines threads, so every planning worker can race at once;
+ * further engines queue. Wins are counted per engine; see stats().
+ */
+public final class StrategyPortfolio {
+
+    public static final List<String> DEFAULT_ENGINES = List.of("UC", "AS1", "AS2");
+
+    private static StrategyPortfolio shared = new StrategyPortfolio(DEFAULT_ENGINES);
+
+    private final List<String> engines;
+    private ThreadPoolExecutor racers; // created on the first race, see racers()
+    private final Map<String, AtomicLong> wins = new LinkedHashMap<>();
+    private final AtomicLong races = new AtomicLong();
+    private final AtomicLong provedByBound = new AtomicLong();
+
+    /** engines: any of UC, AS1, AS2, AS3, AS4; at least one other than AS2. */
+    public StrategyPortfolio(List<String> engines) {
+        if (engines.isEmpty())
+            throw new IllegalArgumentException("Portfolio needs at least one engine");
+        boolean proves = false;
+        for (String engine : engines) {
+            heuristicId(engine); // rejects unknown engines
+            proves |= !engine.equals("AS2");
+            wins.putIfAbsent(engine, new AtomicLong());
+        }
+        if (!proves)
+            throw new IllegalArgumentException("Portfolio needs a cost-optimal engine: " + engines);
+        this.engines = List.copyOf(wins.keySet());
+    }
+
+    /** Process-wide portfolio used by strategy "PORTFOLIO"; see PortfolioConfig. */
+    public static synchronized StrategyPortfolio shared() {
+        return shared;
+    }
+
+    /** Replaces the shared portfolio; its win counters start from zero. */
+    public static synchronized void configure(List<String> engines) {
+        shared = new StrategyPortfolio(engines);
+    }
+
+    public List<String> engines() {
+        return engines;
+    }
+
+    // ---------------------------------------
+    // RACE
+    // ---------------------------------------
+
+    /** Route from the first engine to prove it optimal. */
+    public SearchResult race(DeliverySearch problem) {
+        // Resolve the lazily built snapshots once, not in every racer
+        problem.getGraph();
+        if (engines.contains("AS2"))
+            problem.trafficRangeMin();
+        if (engines.contains("AS3"))
+            problem.landmarks();
+        if (engines.contains("AS4"))
+            problem.goalDistances();
+
+        Race race = new Race();
+        ThreadPoolExecutor pool = racers();
+        for (String engine : engines) {
+            pool.execute(() -> {
+                if (race.isOver())
+                    return; // decided while this engine was queued
+                SearchResult result;
+                try {
+                    result = IntGenericSearch.cancellable(problem, heuristicId(engine), !engine.equals("AS2"),
+                            race::stop);
+                } catch (RuntimeException | Error e) {
+                    race.fail(engine, e);
+                    return;
+                }
+                race.finish(engine, result);
+            });
+        }
+
+        SearchResult result = race.await();
+        races.incrementAndGet();
+        wins.get(race.winner).incrementAndGet();
+        if (race.byBound)
+            provedByBound.incrementAndGet();
+        return result;
+    }
+
+    // Engines block on nothing but the CPU; daemon threads so a race never
+    // holds up shutdown, and idle ones exit so a replaced portfolio leaves none
+    private synchronized ThreadPoolExecutor racers() {
+        if (racers == null) {
+            int threads = PlanningExecutor.shared().parallelism() * engines.size();
+            racers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "portfolio-racer");
+                t.setDaemon(true);
+                return t;
+            });
+            racers.allowCoreThreadTimeOut(true);
+        }
+        return racers;
+    }
+
+    private final class Race {
+        private boolean over;
+        private int finished;
+        private SearchResult result;
+        private String winner;
+        private boolean byBound;
+        private Throwable failure;
+        private SearchResult incumbent; // best route not proven yet (AS2)
+        private String incumbentEngine;
+
+        synchronized boolean isOver() {
+            return over;
+        }
+
+        synchronized boolean stop(int lowerBound) {
+            if (!over && incumbent != null && lowerBound >= incumbent.cost) {
+                decide(incumbent, incumbentEngine);
+                byBound = true;
+            }
+            return over;
+        }
+
+        synchronized void finish(String engine, SearchResult r) {
+            finished++;
+            if (!over && r != null) {
+                if (r.cost < 0 || !engine.equals("AS2"))
+                    decide(r, engine);
+                else if (incumbent == null || r.cost < incumbent.cost) {
+                    incumbent = r;
+                    incumbentEngine = engine;
+                }
+            }
+            // Only AS2 routes are left unproven, and a cost-optimal engine always finishes with a proof
+            if (!over && finished == engines.size())
+                fail(engine, new IllegalStateException("No engine proved a route"));
+        }
+
+        // The incumbent is never returned unproven: the race fails with the engine
+        synchronized void fail(String engine, Throwable e) {
+            finished++;
+            if (!over) {
+                failure = e;
+                winner = engine;
+                over = true;
+                notifyAll();
+            }
+        }
+
+        private void decide(SearchResult r, String engine) {
+            over = true;
+            result = r;
+            winner = engine;
+            notifyAll();
+        }
+
+        synchronized SearchResult await() {
+            while (!over) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while racing " + engines, e);
+                }
+            }
+            if (failure != null)
+                throw new IllegalStateException("Portfolio engine " + winner + " failed", failure);
+            return result;
+        }
+    }
+
+    private static int heuristicId(String engine) {
+        switch (engine) {
+            case "UC": return 0;
+            case "AS1": return 1;
+            case "AS2": return 2;
+            case "AS3": return 3;
+            case "AS4": return 4;
+            default: throw new IllegalArgumentException("Not a portfolio engine: " + engine);
+        }
+    }
+
+    // ---------------------------------------
+    // STATS
+    // ---------------------------------------
+
+    /** Races run, wins per engine, and wins proven by another engine's bound. */
+    public Map<String, Object> stats() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("engines", engines);
+        s.put("races", races.get());
+        Map<String, Long> perEngine = new LinkedHashMap<>();
+        for (Map.Entry<String, AtomicLong> e : wins.entrySet())
+            perEngine.put(e.getKey(), e.getValue().get());
+        s.put("wins", perEngine);
+        s.put("provedByBound", provedByBound.get());
+        return s;
+    }
+
+    /** "UC=3, AS1=10, AS2=7" */
+    public String winSummary() {
+        List<String> parts = new ArrayList<>();
+        for (Map.Entry<String, AtomicLong> e : wins.entrySet())
+            parts.add(e.getKey() + "=" + e.getValue().get());
+        return String.join(", ", parts);
+    }
+}
@@ -0,0 +1,287 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-stop tours: the order in which one store's truck visits all of its
+ * drops before coming back, instead of a round trip per drop.
+ *
+ * Works over a matrix of route costs between the store (node 0) and the
+ * drops (nodes 1..n), so each pair is searched once. Costs may differ by
+ * direction, since traffic does. Up to HELD_KARP_MAX_DROPS drops the tour is
+ * exact: bitmask Held-Karp in O(2^n * n^2) time and O(2^n * n) memory. Above
+ * that a nearest-neighbour tour is improved by 2-opt (reverse a stretch)
+ * and Or-opt (move 1 to 3 consecutive drops elsewhere) until no move helps
+ * or the time budget runs out.
+ */
+public final class TourPlanner {
+
+    static final int HELD_KARP_MAX_DROPS = 15;
+    public static final long DEFAULT_TIME_BUDGET_MS = 200;
+    // "No route" cost: above any real tour, small enough that sums of a few
+    // thousand of them do not overflow
+    static final long INF = 1L << 40;
+    private static final int MAX_SEGMENT = 3; // Or-opt moves segments of up to 3 drops
+
+    private TourPlanner() {}
+
+    /** Visiting order over a cost matrix; node 0 (the store) is left out of order. */
+    public static final class Tour {
+        public final int[] order; // nodes 1..n in visiting order
+        public final long cost;   // including the way back to node 0; >= INF if some leg has no route
+        public final boolean exact;
+
+        Tour(int[] order, long cost, boolean exact) {
+            this.order = order;
+            this.cost = cost;
+            this.exact = exact;
+        }
+
+        public boolean feasible() {
+            return cost < INF;
+        }
+    }
+
+    /** One store's tour with the route of every leg. */
+    public static final class StoreTour {
+        public final State store;
+        public final List<State> stops;       // store, drops in visiting order, store
+        public final List<SearchResult> legs; // legs.get(i) goes from stops.get(i) to stops.get(i + 1)
+        public final int cost;
+        public final boolean exact;
+
+        StoreTour(State store, List<State> stops, List<SearchResult> legs, int cost, boolean exact) {
+            this.store = store;
+            this.stops = stops;
+            this.legs = legs;
+            this.cost = cost;
+            this.exact = exact;
+        }
+    }
+
+    // ---------------------------------------
+    // TOURS OVER A DISTANCE MATRIX
+    // ---------------------------------------
+
+    /**
+     * Tour for store through drops, with the legs searched through matrix
+     * (every ordered pair once, one one-to-many search per stop where the
+     * strategy allows it). Null if no tour with a route on every leg was
+     * found. timeBudgetMs bounds the local search; <= 0 runs it to a local
+     * optimum.
+     */
+    public static StoreTour forStore(DistanceMatrix matrix, State store, List<State> drops, long timeBudgetMs) {
+        List<State> nodes = new ArrayList<>(drops.size() + 1);
+        nodes.add(store);
+        nodes.addAll(drops);
+        int n = nodes.size();
+
+        List<Map<State, SearchResult>> rows = new ArrayList<>(n);
+        int[][] cost = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            List<State> others = new ArrayList<>(n - 1);
+            for (int j = 0; j < n; j++)
+                if (j != i)
+                    others.add(nodes.get(j));
+            Map<State, SearchResult> row = matrix.routes(nodes.get(i), others);
+            rows.add(row);
+            for (int j = 0; j < n; j++) {
+                SearchResult r = j == i ? null : row.get(nodes.get(j));
+                cost[i][j] = j == i ? 0 : r == null || r.cost < 0 ? -1 : r.cost;
+            }
+        }
+
+        Tour tour = solve(cost, timeBudgetMs);
+        if (!tour.feasible())
+            return null;
+
+        List<State> stops = new ArrayList<>(n + 1);
+        List<SearchResult> legs = new ArrayList<>(n);
+        stops.add(store);
+        int prev = 0;
+        for (int i = 0; i <= tour.order.length; i++) {
+            int next = i < tour.order.length ? tour.order[i] : 0;
+            stops.add(nodes.get(next));
+            legs.add(rows.get(prev).get(nodes.get(next)));
+            prev = next;
+        }
+        return new StoreTour(store, stops, legs, (int) tour.cost, tour.exact);
+    }
+
+    /**
+     * Shortest closed tour from node 0 through every other node of cost
+     * (cost[i][j] < 0 means no route from i to j). Exact up to
+     * HELD_KARP_MAX_DROPS other nodes, local search above.
+     */
+    public static Tour solve(int[][] cost, long timeBudgetMs) {
+        long[][] c = new long[cost.length][cost.length];
+        for (int i = 0; i < cost.length; i++)
+            for (int j = 0; j < cost.length; j++)
+                c[i][j] = cost[i][j] < 0 ? INF : cost[i][j];
+        return cost.length - 1 <= HELD_KARP_MAX_DROPS ? heldKarp(c) : localSearch(c, timeBudgetMs);
+    }
+
+    // ---------------------------------------
+    // HELD-KARP
+    // ---------------------------------------
+
+    // best[mask * m + j]: cheapest way from the store through the drops in
+    // mask, ending at drop j (drop j is node j + 1)
+    static Tour heldKarp(long[][] c) {
+        int m = c.length - 1;
+        if (m == 0)
+            return new Tour(new int[0], 0, true);
+        int full = 1 << m;
+        long[] best = new long[full * m];
+        byte[] previous = new byte[full * m]; // drop before j on that way, -1 for the store
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int j = 0; j < m; j++) {
+            best[(1 << j) * m + j] = c[0][j + 1];
+            previous[(1 << j) * m + j] = -1;
+        }
+
+        for (int mask = 1; mask < full; mask++) {
+            for (int j = 0; j < m; j++) {
+                long here = best[mask * m + j];
+                if (here == Long.MAX_VALUE)
+                    continue;
+                for (int k = 0; k < m; k++) {
+                    if ((mask & 1 << k) != 0)
+                        continue;
+                    int slot = (mask | 1 << k) * m + k;
+                    long via = here + c[j + 1][k + 1];
+                    if (via < best[slot]) {
+                        best[slot] = via;
+                        previous[slot] = (byte) j;
+                    }
+                }
+            }
+        }
+
+        int last = 0;
+        long total = Long.MAX_VALUE;
+        for (int j = 0; j < m; j++) {
+            long closed = best[(full - 1) * m + j] + c[j + 1][0];
+            if (closed < total) {
+                total = closed;
+                last = j;
+            }
+        }
+        int[] order = new int[m];
+        for (int mask = full - 1, j = last, i = m - 1; i >= 0; i--) {
+            order[i] = j + 1;
+            int before = previous[mask * m + j];
+            mask &= ~(1 << j);
+            j = before;
+        }
+        return new Tour(order, total, true);
+    }
+
+    // ---------------------------------------
+    // LOCAL SEARCH
+    // ---------------------------------------
+
+    static Tour localSearch(long[][] c, long timeBudgetMs) {
+        int m = c.length - 1;
+        long now = System.nanoTime();
+        long deadline = timeBudgetMs <= 0 || timeBudgetMs > (Long.MAX_VALUE - now) / 1_000_000
+                ? Long.MAX_VALUE : now + timeBudgetMs * 1_000_000;
+
+        // t[0] and t[m + 1] are the store
+        int[] t = nearestNeighbour(c);
+        long[] forward = new long[m + 2];  // forward[k]: cost of t[0..k] as driven
+        long[] backward = new long[m + 2]; // backward[k]: cost of t[0..k] driven in reverse
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = false;
+            prefixCosts(c, t, forward, backward);
+            for (int i = 1; i <= m && !improved; i++) {
+                if (System.nanoTime() >= deadline)
+                    break;
+                improved = twoOpt(c, t, forward, backward, i) || orOpt(c, t, i);
+            }
+        }
+
+        long total = 0;
+        for (int k = 0; k <= m; k++)
+            total += c[t[k]][t[k + 1]];
+        return new Tour(Arrays.copyOfRange(t, 1, m + 1), total, false);
+    }
+
+    private static int[] nearestNeighbour(long[][] c) {
+        int m = c.length - 1;
+        int[] t = new int[m + 2];
+        boolean[] used = new boolean[m + 1];
+        for (int k = 1; k <= m; k++) {
+            int from = t[k - 1], next = -1;
+            for (int j = 1; j <= m; j++)
+                if (!used[j] && (next < 0 || c[from][j] < c[from][next]))
+                    next = j;
+            used[next] = true;
+            t[k] = next;
+        }
+        return t;
+    }
+
+    private static void prefixCosts(long[][] c, int[] t, long[] forward, long[] backward) {
+        for (int k = 1; k < t.length; k++) {
+            forward[k] = forward[k - 1] + c[t[k - 1]][t[k]];
+            backward[k] = backward[k - 1] + c[t[k]][t[k - 1]];
+        }
+    }
+
+    // Reverses t[i..j] for the first j that shortens the tour. The reversed
+    // stretch is driven the other way, so its cost comes from backward[]
+    private static boolean twoOpt(long[][] c, int[] t, long[] forward, long[] backward, int i) {
+        int m = t.length - 2;
+        for (int j = i + 1; j <= m; j++) {
+            long before = c[t[i - 1]][t[i]] + (forward[j] - forward[i]) + c[t[j]][t[j + 1]];
+            long after = c[t[i - 1]][t[j]] + (backward[j] - backward[i]) + c[t[i]][t[j + 1]];
+            if (after < before) {
+                for (int a = i, b = j; a < b; a++, b--) {
+                    int swap = t[a];
+                    t[a] = t[b];
+                    t[b] = swap;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Moves t[i..i+len-1] between t[p] and t[p + 1] for the first place that
+    // shortens the tour; the segment keeps its direction
+    private static boolean orOpt(long[][] c, int[] t, int i) {
+        int m = t.length - 2;
+        for (int len = 1; len <= MAX_SEGMENT && i + len - 1 <= m; len++) {
+            int e = i + len - 1;
+            long removed = c[t[i - 1]][t[i]] + c[t[e]][t[e + 1]] - c[t[i - 1]][t[e + 1]];
+            for (int p = 0; p <= m; p++) {
+                if (p >= i - 1 && p <= e)
+                    continue;
+                long added = c[t[p]][t[i]] + c[t[e]][t[p + 1]] - c[t[p]][t[p + 1]];
+                if (added < removed) {
+                    moveSegment(t, i, len, p);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void moveSegment(int[] t, int i, int len, int p) {
+        int[] segment = Arrays.copyOfRange(t, i, i + len);
+        if (p > i) {
+            // Shift t[i+len..p] left, then the segment goes right after them
+            System.arraycopy(t, i + len, t, i, p - (i + len) + 1);
+            System.arraycopy(segment, 0, t, p - len + 1, len);
+        } else {
+            // Shift t[p+1..i-1] right, then the segment goes right after t[p]
+            System.arraycopy(t, p + 1, t, p + 1 + len, i - (p + 1));
+            System.arraycopy(segment, 0, t, p + 1, len);
+        }
+    }
+}
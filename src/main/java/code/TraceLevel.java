@@ -0,0 +1,13 @@
+package code;
+
+/**
+ * How much of its expansion order a search records (see ExpansionTrace).
+ *
+ * - OFF: the expansion count only.
+ * - COUNTERS: the count and the bounding box of the expanded cells, which
+ *   is what RouteCache needs to keep a route across traffic edits.
+ * - FULL: every expanded cell in order, for the visualisers.
+ */
+public enum TraceLevel {
+    OFF, COUNTERS, FULL
+}
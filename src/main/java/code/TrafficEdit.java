@@ -0,0 +1,15 @@
+package code;
+
+/** New traffic value for the road leaving (x, y) in one direction; 0 closes it. */
+public class TrafficEdit {
+    public final int x, y;
+    public final int direction; // 0=up, 1=down, 2=left, 3=right, like Grid.traffic()
+    public final int traffic;
+
+    public TrafficEdit(int x, int y, int direction, int traffic) {
+        this.x = x;
+        this.y = y;
+        this.direction = direction;
+        this.traffic = traffic;
+    }
+}
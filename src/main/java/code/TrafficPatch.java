@@ -0,0 +1,127 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies traffic edits to a Grid in place and keeps every cached search
+ * the edits cannot have changed.
+ *
+ * An edit changes the grid's fingerprint, which on its own would orphan
+ * every RouteCache entry and distance field of the grid. Instead, after the
+ * edits:
+ *
+ * - a cached route is copied to the new fingerprint when its strategy reads
+ *   only roads at the cells it expanded (DeliverySearch.readsOnlyExpandedCells)
+ *   and no changed road starts or ends inside the bounding box of those
+ *   cells: its search would run exactly as before;
+ * - a distance field is copied when every changed road u -> v with field
+ *   values d leaves it exact: a road that got dearer or closed was not
+ *   tight (d[u] < old cost + d[v]), and a road that got cheaper or opened
+ *   does not improve u (d[u] <= new cost + d[v]).
+ *
+ * Originals stay under the old fingerprint, where other grids with the old
+ * content still find them, and age out of the LRU like everything else.
+ * The caller must keep other threads off the grid while the patch runs
+ * (GridRegistry's write lock does this for server-held grids).
+ */
+public final class TrafficPatch {
+
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int[] DX = { 0, 0, -1, 1 };
+    private static final int[] DY = { -1, 1, 0, 0 };
+
+    private TrafficPatch() {
+    }
+
+    /**
+     * Applies edits in order and carries the unaffected cache entries over.
+     * Every edit is checked first, so a rejected patch leaves the grid as
+     * it was.
+     * Returns counts: edits, changedRoads, routesKept, routesDropped,
+     * fieldsKept, fieldsDropped.
+     */
+    public static Map<String, Object> apply(Grid grid, List<TrafficEdit> edits) {
+        for (TrafficEdit e : edits) {
+            if (e.x < 0 || e.y < 0 || e.x >= grid.cols || e.y >= grid.rows)
+                throw new IllegalArgumentException("Cell (" + e.x + "," + e.y + ") is outside the grid");
+            if (e.direction < 0 || e.direction > 3)
+                throw new IllegalArgumentException("Direction must be 0-3, got " + e.direction);
+            if (e.traffic < 0 || e.traffic > Grid.MAX_TRAFFIC)
+                throw new IllegalArgumentException("Traffic must be between 0 and " + Grid.MAX_TRAFFIC
+                        + ", got " + e.traffic);
+        }
+
+        long before = grid.fingerprint();
+        int[] oldCosts = new int[edits.size()];
+        for (int i = 0; i < edits.size(); i++)
+            oldCosts[i] = cost(grid, edits.get(i));
+        for (TrafficEdit e : edits)
+            grid.setTraffic(e.x, e.y, e.direction, e.traffic);
+        grid.invalidateCaches();
+        long after = grid.fingerprint();
+
+        // Roads whose cost really changed, as {from cell, to cell, old cost, new cost}
+        List<int[]> changed = new ArrayList<>();
+        for (int i = 0; i < edits.size(); i++) {
+            TrafficEdit e = edits.get(i);
+            int newCost = cost(grid, e);
+            if (newCost == oldCosts[i])
+                continue;
+            int tx = e.x + DX[e.direction], ty = e.y + DY[e.direction];
+            changed.add(new int[] { e.y * grid.cols + e.x, ty * grid.cols + tx, oldCosts[i], newCost });
+        }
+
+        int cols = grid.cols;
+        int[] routes = RouteCache.shared().carryOver(before, after,
+                (strategy, minX, minY, maxX, maxY) -> {
+                    if (!DeliverySearch.readsOnlyExpandedCells(strategy))
+                        return false;
+                    for (int[] road : changed)
+                        if (inBox(road[0], cols, minX, minY, maxX, maxY) || inBox(road[1], cols, minX, minY, maxX, maxY))
+                            return false;
+                    return true;
+                });
+        int[] fields = DistanceFields.shared().carryOver(before, after, (gx, gy, field) -> {
+            for (int[] road : changed)
+                if (!stillExact(field, road[0], road[1], road[2], road[3]))
+                    return false;
+            return true;
+        });
+
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("edits", edits.size());
+        s.put("changedRoads", changed.size());
+        s.put("routesKept", routes[0]);
+        s.put("routesDropped", routes[1]);
+        s.put("fieldsKept", fields[0]);
+        s.put("fieldsDropped", fields[1]);
+        return s;
+    }
+
+    // Cost of the road an edit targets as the searches see it (INF = no road)
+    private static int cost(Grid grid, TrafficEdit e) {
+        int tx = e.x + DX[e.direction], ty = e.y + DY[e.direction];
+        if (tx < 0 || ty < 0 || tx >= grid.cols || ty >= grid.rows)
+            return INF;
+        if (grid.isBlockedEdge(new State(e.x, e.y), new State(tx, ty)))
+            return INF;
+        int t = grid.traffic(e.x, e.y, e.direction);
+        return t > 0 ? t : INF;
+    }
+
+    private static boolean stillExact(int[] d, int u, int v, int oldCost, int newCost) {
+        if (d[v] == DistanceFields.INF)
+            return true; // the road leads nowhere near the goal
+        if (newCost > oldCost)
+            return oldCost == INF || (long) d[u] < (long) oldCost + d[v];
+        return (long) d[u] <= (long) newCost + d[v];
+    }
+
+    private static boolean inBox(int cell, int cols, int minX, int minY, int maxX, int maxY) {
+        int x = cell % cols, y = cell / cols;
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+}
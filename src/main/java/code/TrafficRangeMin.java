@@ -0,0 +1,146 @@
+package code;
+
+/**
+ * Answers "cheapest traffic value along a stretch of a row or column" for
+ * heuristic 2, in O(1) for stretches spanning blocks and in at most BLOCK
+ * reads within one.
+ *
+ * Each row (left/right roads) and column (up/down roads) is cut into blocks
+ * of BLOCK cells. Per direction and cell the tables hold the traffic, the
+ * minimum from the start of its block to the cell and the minimum from the
+ * cell to the end of its block, at the width of the grid's own traffic
+ * (a byte while every cost fits in one, a char otherwise). A sparse table
+ * over block minima covers the whole blocks in between; it has a level per
+ * power of two but only one entry per block. Values are raw traffic, so a
+ * missing road (0) is a minimum like any other, exactly as the loops in
+ * Heuristics used to see it.
+ *
+ * Built from Grid.traffic() by Grid.trafficRangeMin() on first use and
+ * dropped by invalidateCaches().
+ */
+public final class TrafficRangeMin {
+
+    static final int BLOCK_BITS = 4;
+    static final int BLOCK = 1 << BLOCK_BITS;
+    // Kinds of per-cell table, indexed [direction * 3 + kind]
+    private static final int RAW = 0, PREFIX = 1, SUFFIX = 2;
+
+    private final int rows, cols;
+    private final byte[][] narrow; // null when costs exceed a byte
+    private final char[][] wide;   // null when they fit
+    // blocks[direction][level][line * blocksPerLine + block]: minimum over 2^level blocks
+    private final int[][][] blocks;
+    private final int[] blocksPerLine;
+
+    TrafficRangeMin(Grid grid) {
+        rows = grid.rows;
+        cols = grid.cols;
+        int n = rows * cols;
+        int max = 0;
+        for (int slot = 0; slot < n * 4; slot++)
+            max = Math.max(max, grid.traffic(slot));
+        narrow = max <= 0xFF ? new byte[12][n] : null;
+        wide = max <= 0xFF ? null : new char[12][n];
+
+        blocks = new int[4][][];
+        blocksPerLine = new int[4];
+        for (int d = 0; d < 4; d++) {
+            boolean horizontal = horizontal(d);
+            int length = horizontal ? cols : rows;
+            int lines = horizontal ? rows : cols;
+            int perLine = (length + BLOCK - 1) >> BLOCK_BITS;
+            blocksPerLine[d] = perLine;
+            int levels = perLine <= 1 ? 1 : log2(perLine) + 1;
+            int[][] t = new int[levels][lines * perLine];
+
+            for (int line = 0; line < lines; line++) {
+                for (int start = 0; start < length; start += BLOCK) {
+                    int end = Math.min(length, start + BLOCK) - 1;
+                    int min = Integer.MAX_VALUE;
+                    for (int p = start; p <= end; p++) {
+                        int c = cell(d, line, p);
+                        int v = grid.traffic(c * 4 + d);
+                        set(d, RAW, c, v);
+                        min = Math.min(min, v);
+                        set(d, PREFIX, c, min);
+                    }
+                    min = Integer.MAX_VALUE;
+                    for (int p = end; p >= start; p--) {
+                        int c = cell(d, line, p);
+                        min = Math.min(min, get(d, RAW, c));
+                        set(d, SUFFIX, c, min);
+                    }
+                    t[0][line * perLine + (start >> BLOCK_BITS)] = min;
+                }
+                for (int k = 1; k < levels; k++)
+                    for (int b = 0; b + (1 << k) <= perLine; b++) {
+                        int i = line * perLine + b;
+                        t[k][i] = Math.min(t[k - 1][i], t[k - 1][i + (1 << (k - 1))]);
+                    }
+            }
+            blocks[d] = t;
+        }
+    }
+
+    /** Minimum of traffic(x, y, direction) for x0 <= x <= x1. */
+    public int rowMin(int y, int x0, int x1, int direction) {
+        return lineMin(direction, y, x0, x1);
+    }
+
+    /** Minimum of traffic(x, y, direction) for y0 <= y <= y1. */
+    public int columnMin(int x, int y0, int y1, int direction) {
+        return lineMin(direction, x, y0, y1);
+    }
+
+    private int lineMin(int d, int line, int p0, int p1) {
+        int b0 = p0 >> BLOCK_BITS, b1 = p1 >> BLOCK_BITS;
+        if (b0 == b1) {
+            int min = Integer.MAX_VALUE;
+            for (int p = p0; p <= p1; p++)
+                min = Math.min(min, get(d, RAW, cell(d, line, p)));
+            return min;
+        }
+        int min = Math.min(get(d, SUFFIX, cell(d, line, p0)), get(d, PREFIX, cell(d, line, p1)));
+        if (b1 - b0 > 1) {
+            int first = b0 + 1, count = b1 - b0 - 1;
+            int k = log2(count);
+            int[] t = blocks[d][k];
+            int base = line * blocksPerLine[d];
+            min = Math.min(min, Math.min(t[base + first], t[base + b1 - (1 << k)]));
+        }
+        return min;
+    }
+
+    /** Heap bytes of the tables. */
+    public long sizeInBytes() {
+        long size = 64 + 12L * rows * cols * (narrow != null ? 1 : 2);
+        for (int[][] t : blocks)
+            for (int[] level : t)
+                size += 16 + 4L * level.length;
+        return size;
+    }
+
+    private static boolean horizontal(int d) {
+        return d == CompiledGrid.LEFT || d == CompiledGrid.RIGHT;
+    }
+
+    // Position p along a row (left/right) or column (up/down)
+    private int cell(int d, int line, int p) {
+        return horizontal(d) ? line * cols + p : p * cols + line;
+    }
+
+    private int get(int d, int kind, int c) {
+        return narrow != null ? narrow[d * 3 + kind][c] & 0xFF : wide[d * 3 + kind][c];
+    }
+
+    private void set(int d, int kind, int c, int v) {
+        if (narrow != null)
+            narrow[d * 3 + kind][c] = (byte) v;
+        else
+            wide[d * 3 + kind][c] = (char) v;
+    }
+
+    private static int log2(int v) {
+        return 31 - Integer.numberOfLeadingZeros(v);
+    }
+}
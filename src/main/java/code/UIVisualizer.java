@@ -43,6 +43,11 @@ public class UIVisualizer {
         panel.repaint();
     }
 
+    /** Shade the cells the search behind r expanded (decoded from its trace; FULL traces only). */
+    public void showExpanded(SearchResult r) {
+        panel.setExpanded(r == null ? null : r.expandedOrder());
+    }
+
     public void log(String message) {
         SwingUtilities.invokeLater(() -> {
             debugArea.append(message + "\n");
@@ -0,0 +1,19 @@
+package code.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import code.ContractionHierarchy;
+
+/**
+ * Applies the delivery.contraction-hierarchy.* settings from
+ * application.properties to the process-wide hierarchy cache at startup.
+ */
+@Configuration
+public class ContractionHierarchyConfig {
+
+    public ContractionHierarchyConfig(
+            @Value("${delivery.contraction-hierarchy.max-memory-mb:128}") long maxMemoryMb) {
+        ContractionHierarchy.configure(maxMemoryMb * 1024 * 1024);
+    }
+}
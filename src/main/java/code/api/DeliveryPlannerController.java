@@ -1,27 +1,44 @@
 package code.api;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import code.DeliverySearch;
+import code.DistanceMatrix;
 import code.Grid;
+import code.GridRegistry;
+import code.PlanningExecutor;
 import code.RoadBlock;
+import code.RouteCache;
+import code.SearchLimits;
 import code.SearchResult;
 import code.State;
+import code.StoreAssignment;
+import code.StrategyPortfolio;
+import code.TourPlanner;
+import code.TraceLevel;
+import code.TrafficEdit;
+import code.TrafficPatch;
 import code.Tunnel;
 import code.dto.GridConfig;
 import code.dto.PlanningRequest;
 import code.dto.PlanningResponse;
+import code.dto.TrafficPatchRequest;
 
 @RestController
 @RequestMapping("/api/delivery")
@@ -33,83 +50,278 @@ public class DeliveryPlannerController {
         try {
             // Convert DTO to Grid
             Grid grid = convertToGrid(request.getGrid());
+            return ResponseEntity.ok(plan(grid, request));
 
-            // Get strategy
-            String strategy = request.getStrategy();
-            if (strategy == null || strategy.isEmpty()) {
-                strategy = "BFS"; // default
-            }
-            
-            // PHASE 1: Assign each destination to the store with the lowest cost
-            // destination -> store
-            Map<State, State> assignment = new HashMap<>();
-            
-            for (State dest : grid.destinations) {
-                int bestCost = Integer.MAX_VALUE;
-                State bestStore = null;
-                
-                for (State store : grid.stores) {
-                    SearchResult result = DeliverySearch.solve(store, dest, grid, strategy);
-                    
-                    if (result != null && result.cost >= 0 && result.cost < bestCost) {
-                        bestCost = result.cost;
-                        bestStore = store;
-                    }
-                }
-                
-                if (bestStore != null) {
-                    assignment.put(dest, bestStore);
-                }
-            }
-            
-            // PHASE 2: For each store, create routes to its assigned destinations
-            List<PlanningResponse.DeliveryRoute> routes = new ArrayList<>();
-
-            for (State store : grid.stores) {
-                
-                // Collect destinations assigned to this store
-                List<State> assignedDestinations = new ArrayList<>();
-                for (State dest : grid.destinations) {
-                    State assignedStore = assignment.get(dest);
-                    if (assignedStore != null && assignedStore.equals(store)) {
-                        assignedDestinations.add(dest);
-                    }
-                }
-                
-                // Plan routes to assigned destinations
-                for (State dest : assignedDestinations) {
-                    SearchResult result = DeliverySearch.solve(store, dest, grid, strategy);
-
-                    if (result != null && result.cost >= 0) {
-                        // Convert path to positions
-                        List<GridConfig.Position> path = new ArrayList<>();
-                        for (State state : result.pathStates) {
-                            path.add(new GridConfig.Position(state.x, state.y));
-                        }
-
-                        PlanningResponse.DeliveryRoute route = new PlanningResponse.DeliveryRoute(
-                                new GridConfig.Position(store.x, store.y),
-                                new GridConfig.Position(dest.x, dest.y),
-                                path,
-                                result.cost,
-                                result.nodesExpanded);
-                        routes.add(route);
-                    }
-                }
-            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            PlanningResponse response = new PlanningResponse(false, "Error: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 
-            PlanningResponse response = new PlanningResponse(true, "Planning completed successfully");
-            response.setRoutes(routes);
+    // ---------------------------------------
+    // SERVER-HELD GRIDS
+    // ---------------------------------------
 
-            return ResponseEntity.ok(response);
+    /** Keeps the grid on the server; returns {"id": ...} for the calls below. */
+    @PostMapping("/grids")
+    public ResponseEntity<Map<String, Object>> registerGrid(@RequestBody GridConfig config) {
+        try {
+            String id = GridRegistry.shared().register(convertToGrid(config));
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", id);
+            return ResponseEntity.ok(body);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
 
+    /** Plans on a registered grid; the request's grid field is ignored. */
+    @PostMapping("/grids/{id}/plan")
+    public ResponseEntity<PlanningResponse> planRegistered(@PathVariable String id,
+            @RequestBody PlanningRequest request) {
+        GridRegistry.Held held = GridRegistry.shared().get(id);
+        if (held == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new PlanningResponse(false, "Unknown grid " + id));
+        }
+        held.lock.readLock().lock();
+        try {
+            return ResponseEntity.ok(plan(held.grid, request));
         } catch (Exception e) {
             e.printStackTrace();
             PlanningResponse response = new PlanningResponse(false, "Error: " + e.getMessage());
             return ResponseEntity.badRequest().body(response);
+        } finally {
+            held.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies traffic edits to a registered grid. Cached routes and distance
+     * fields the edits cannot affect stay valid (see TrafficPatch); the
+     * response counts what was kept and dropped.
+     */
+    @PatchMapping("/grids/{id}/traffic")
+    public ResponseEntity<Map<String, Object>> patchTraffic(@PathVariable String id,
+            @RequestBody TrafficPatchRequest request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        GridRegistry.Held held = GridRegistry.shared().get(id);
+        if (held == null) {
+            body.put("error", "Unknown grid " + id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+        }
+        held.lock.writeLock().lock();
+        try {
+            List<TrafficEdit> edits = new ArrayList<>();
+            if (request.getEdits() != null) {
+                for (int i = 0; i < request.getEdits().size(); i++)
+                    edits.add(toTrafficEdit(i, request.getEdits().get(i)));
+            }
+            body.putAll(TrafficPatch.apply(held.grid, edits));
+            return ResponseEntity.ok(body);
+        } catch (Exception e) {
+            body.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        } finally {
+            held.lock.writeLock().unlock();
         }
     }
 
+    @DeleteMapping("/grids/{id}")
+    public ResponseEntity<Void> removeGrid(@PathVariable String id) {
+        return GridRegistry.shared().remove(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // Checks what TrafficPatch cannot see from a TrafficEdit: a missing cell or direction
+    private static TrafficEdit toTrafficEdit(int i, TrafficPatchRequest.EdgeEdit e) {
+        if (e == null)
+            throw new IllegalArgumentException("Edit " + i + " is null");
+        if (e.getFrom() == null)
+            throw new IllegalArgumentException("Edit " + i + " has no from cell");
+        GridConfig.Position from = e.getFrom();
+        return new TrafficEdit(from.getX(), from.getY(),
+                directionIndex(i, from, e.getDirection()), e.getTraffic());
+    }
+
+    private static int directionIndex(int i, GridConfig.Position from, String direction) {
+        switch (direction == null ? "" : direction) {
+            case "up": return 0;
+            case "down": return 1;
+            case "left": return 2;
+            case "right": return 3;
+            default: throw new IllegalArgumentException("Edit " + i + " at (" + from.getX() + "," + from.getY()
+                    + ") has " + (direction == null ? "no direction" : "unknown direction \"" + direction + "\"")
+                    + "; expected up, down, left or right");
+        }
+    }
+
+    // ---------------------------------------
+    // PLANNING
+    // ---------------------------------------
+    private PlanningResponse plan(Grid grid, PlanningRequest request) {
+        // Get strategy
+        String strategy = request.getStrategy();
+        if (strategy == null || strategy.isEmpty()) {
+            strategy = "BFS"; // default
+        }
+        SearchLimits limits = SearchLimits.defaults();
+        if (request.getMaxNodesInMemory() != null) {
+            limits = limits.withMaxNodesInMemory(request.getMaxNodesInMemory());
+        }
+        if (request.getTimeBudgetMs() != null) {
+            limits = limits.withTimeBudgetMs(request.getTimeBudgetMs());
+        }
+        if (request.getTraceLevel() != null) {
+            limits = limits.withTraceLevel(TraceLevel.valueOf(request.getTraceLevel().toUpperCase()));
+        }
+        
+        // PHASE 1: Assign each destination to the store with the lowest cost
+        // destination -> store
+        // Routes are searched at most once per (store, destination) pair
+        DistanceMatrix matrix = new DistanceMatrix(grid, strategy, limits);
+        matrix.phase("Phase 1");
+        Map<State, State> assignment = StoreAssignment.assign(matrix);
+        
+        if ("tour".equalsIgnoreCase(request.getMode())) {
+            matrix.phase("Phase 2");
+            long budget = request.getTourTimeBudgetMs() != null
+                    ? request.getTourTimeBudgetMs() : TourPlanner.DEFAULT_TIME_BUDGET_MS;
+            return planTours(grid, assignment, matrix, budget);
+        }
+        
+        // PHASE 2: For each store, create routes to its assigned destinations.
+        // Stores are routed in parallel and their routes merged in store order.
+        matrix.phase("Phase 2");
+        List<List<PlanningResponse.DeliveryRoute>> perStore =
+                PlanningExecutor.shared().map(grid.stores, store -> routeStore(grid, store, assignment, matrix));
+
+        List<PlanningResponse.DeliveryRoute> routes = new ArrayList<>();
+        for (List<PlanningResponse.DeliveryRoute> storeRoutes : perStore) {
+            routes.addAll(storeRoutes);
+        }
+
+        int overBudget = matrix.pairsOverBudget();
+        PlanningResponse response = new PlanningResponse(true, overBudget == 0
+                ? "Planning completed successfully"
+                : "Planning completed; " + overBudget + " route searches stopped at the search limits");
+        response.setRoutes(routes);
+        return response;
+    }
+
+    private List<PlanningResponse.DeliveryRoute> routeStore(Grid grid, State store,
+            Map<State, State> assignment, DistanceMatrix matrix) {
+        List<State> assignedDestinations = assignedTo(grid, store, assignment);
+
+        // Plan routes to assigned destinations
+        List<PlanningResponse.DeliveryRoute> routes = new ArrayList<>();
+        Map<State, SearchResult> storeRoutes = matrix.routes(store, assignedDestinations);
+        for (State dest : assignedDestinations) {
+            SearchResult result = storeRoutes.get(dest);
+
+            if (result != null && result.cost >= 0) {
+                routes.add(toRoute(store, dest, result, matrix.getStrategy()));
+            }
+        }
+        return routes;
+    }
+
+    // PHASE 2 in "tour" mode: each store's truck visits all of its
+    // destinations in one tour and comes back (see TourPlanner). Stores are
+    // toured in parallel and merged in store order, like routeStore().
+    private PlanningResponse planTours(Grid grid, Map<State, State> assignment,
+            DistanceMatrix matrix, long timeBudgetMs) {
+        List<TourPlanner.StoreTour> tours = PlanningExecutor.shared().map(grid.stores, store -> {
+            List<State> drops = assignedTo(grid, store, assignment);
+            return drops.isEmpty() ? null : TourPlanner.forStore(matrix, store, drops, timeBudgetMs);
+        });
+
+        List<PlanningResponse.DeliveryRoute> routes = new ArrayList<>();
+        List<PlanningResponse.Tour> summaries = new ArrayList<>();
+        int untoured = 0;
+        for (int i = 0; i < grid.stores.size(); i++) {
+            State store = grid.stores.get(i);
+            TourPlanner.StoreTour tour = tours.get(i);
+            if (tour == null) {
+                // No closed tour (a one-way road cuts some leg): route each destination on its own
+                List<PlanningResponse.DeliveryRoute> single = routeStore(grid, store, assignment, matrix);
+                untoured += single.isEmpty() ? 0 : 1;
+                routes.addAll(single);
+                continue;
+            }
+            List<GridConfig.Position> stops = new ArrayList<>();
+            for (State stop : tour.stops) {
+                stops.add(new GridConfig.Position(stop.x, stop.y));
+            }
+            summaries.add(new PlanningResponse.Tour(new GridConfig.Position(store.x, store.y),
+                    stops, tour.cost, tour.exact));
+            for (int leg = 0; leg < tour.legs.size(); leg++) {
+                PlanningResponse.DeliveryRoute route = toRoute(store, tour.stops.get(leg + 1),
+                        tour.legs.get(leg), matrix.getStrategy());
+                route.setLeg(leg);
+                routes.add(route);
+            }
+        }
+
+        PlanningResponse response = new PlanningResponse(true, untoured == 0
+                ? "Tour planning completed successfully"
+                : "Tour planning completed; " + untoured + " stores fell back to one route per destination");
+        response.setRoutes(routes);
+        response.setTours(summaries);
+        return response;
+    }
+
+    private static List<State> assignedTo(Grid grid, State store, Map<State, State> assignment) {
+        List<State> assignedDestinations = new ArrayList<>();
+        for (State dest : grid.destinations) {
+            State assignedStore = assignment.get(dest);
+            if (assignedStore != null && assignedStore.equals(store)) {
+                assignedDestinations.add(dest);
+            }
+        }
+        return assignedDestinations;
+    }
+
+    private static PlanningResponse.DeliveryRoute toRoute(State store, State dest, SearchResult result,
+            String strategy) {
+        // Convert path to positions
+        List<GridConfig.Position> path = new ArrayList<>();
+        for (State state : result.pathStates) {
+            path.add(new GridConfig.Position(state.x, state.y));
+        }
+
+        PlanningResponse.DeliveryRoute route = new PlanningResponse.DeliveryRoute(
+                new GridConfig.Position(store.x, store.y),
+                new GridConfig.Position(dest.x, dest.y),
+                path,
+                result.cost,
+                result.nodesExpanded);
+        if (!Double.isNaN(result.suboptimalityBound)) {
+            route.setSuboptimalityBound(result.suboptimalityBound);
+        } else if (DeliverySearch.isCostOptimal(strategy)) {
+            route.setSuboptimalityBound(1.0);
+        }
+        if (result.trace.level() == TraceLevel.FULL) {
+            route.setExpandedTrace(Base64.getEncoder().encodeToString(result.trace.encoded()));
+        }
+        return route;
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(RouteCache.shared().stats());
+    }
+
+    @GetMapping("/portfolio/stats")
+    public ResponseEntity<Map<String, Object>> portfolioStats() {
+        return ResponseEntity.ok(StrategyPortfolio.shared().stats());
+    }
+
     @GetMapping("/check")
     public ResponseEntity<String> checkService() {
         return ResponseEntity.ok("Delivery Planner Service is running!");
@@ -119,17 +331,28 @@ public class DeliveryPlannerController {
         Grid grid = new Grid(config.getRows(), config.getCols());
 
         // Set traffic
-        if (config.getTraffic() != null) {
-            grid.traffic = config.getTraffic();
-        } else {
-            // Default traffic cost of 1 for all directions
+        int[][][] traffic = config.getTraffic();
+        if (traffic != null) {
+            // traffic[y][x][direction], packed into the grid's flat storage
             for (int y = 0; y < grid.rows; y++) {
                 for (int x = 0; x < grid.cols; x++) {
+                    if (y >= traffic.length || x >= traffic[y].length || traffic[y][x].length != 4) {
+                        throw new IllegalArgumentException("Traffic must hold 4 costs for every cell, missing ("
+                                + x + "," + y + ")");
+                    }
                     for (int d = 0; d < 4; d++) {
-                        grid.traffic[y][x][d] = 1;
+                        int cost = traffic[y][x][d];
+                        if (cost < 0 || cost > Grid.MAX_TRAFFIC) {
+                            throw new IllegalArgumentException("Traffic at (" + x + "," + y + ") direction " + d
+                                    + " must be between 0 and " + Grid.MAX_TRAFFIC + ", got " + cost);
+                        }
+                        grid.setTraffic(x, y, d, cost);
                     }
                 }
             }
+        } else {
+            // Default traffic cost of 1 for all directions
+            grid.fillTraffic(1);
         }
 
         // Add stores
@@ -165,22 +388,22 @@ public class DeliveryPlannerController {
                     case "up":
                         to = new State(from.x, from.y - 1);
                         // Ensure traffic cost is 0 for blocked direction (index 0 = up)
-                        grid.traffic[from.y][from.x][0] = 0;
+                        grid.setTraffic(from.x, from.y, 0, 0);
                         break;
                     case "down":
                         to = new State(from.x, from.y + 1);
                         // Ensure traffic cost is 0 for blocked direction (index 1 = down)
-                        grid.traffic[from.y][from.x][1] = 0;
+                        grid.setTraffic(from.x, from.y, 1, 0);
                         break;
                     case "left":
                         to = new State(from.x - 1, from.y);
                         // Ensure traffic cost is 0 for blocked direction (index 2 = left)
-                        grid.traffic[from.y][from.x][2] = 0;
+                        grid.setTraffic(from.x, from.y, 2, 0);
                         break;
                     case "right":
                         to = new State(from.x + 1, from.y);
                         // Ensure traffic cost is 0 for blocked direction (index 3 = right)
-                        grid.traffic[from.y][from.x][3] = 0;
+                        grid.setTraffic(from.x, from.y, 3, 0);
                         break;
                 }
 
@@ -0,0 +1,18 @@
+package code.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import code.DistanceFields;
+
+/**
+ * Applies the delivery.distance-fields.* settings from application.properties
+ * to the process-wide DistanceFields cache at startup.
+ */
+@Configuration
+public class DistanceFieldsConfig {
+
+    public DistanceFieldsConfig(@Value("${delivery.distance-fields.max-memory-mb:32}") long maxMemoryMb) {
+        DistanceFields.shared().configure(maxMemoryMb * 1024 * 1024);
+    }
+}
@@ -0,0 +1,18 @@
+package code.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import code.Landmarks;
+
+/**
+ * Applies the delivery.landmarks.* settings from application.properties to
+ * the process-wide landmark tables cache at startup.
+ */
+@Configuration
+public class LandmarksConfig {
+
+    public LandmarksConfig(@Value("${delivery.landmarks.max-memory-mb:32}") long maxMemoryMb) {
+        Landmarks.configure(maxMemoryMb * 1024 * 1024);
+    }
+}
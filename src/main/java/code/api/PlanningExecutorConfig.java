@@ -0,0 +1,18 @@
+package code.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import code.PlanningExecutor;
+
+/**
+ * Applies delivery.planning.parallelism from application.properties to the
+ * shared PlanningExecutor at startup.
+ */
+@Configuration
+public class PlanningExecutorConfig {
+
+    public PlanningExecutorConfig(@Value("${delivery.planning.parallelism:0}") int parallelism) {
+        PlanningExecutor.configure(parallelism);
+    }
+}
@@ -0,0 +1,20 @@
+package code.api;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import code.StrategyPortfolio;
+
+/**
+ * Applies delivery.portfolio.engines from application.properties to the
+ * shared StrategyPortfolio at startup.
+ */
+@Configuration
+public class PortfolioConfig {
+
+    public PortfolioConfig(@Value("${delivery.portfolio.engines:UC,AS1,AS2}") List<String> engines) {
+        StrategyPortfolio.configure(engines);
+    }
+}
@@ -0,0 +1,21 @@
+package code.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import code.RouteCache;
+
+/**
+ * Applies the delivery.route-cache.* settings from application.properties
+ * to the process-wide RouteCache at startup.
+ */
+@Configuration
+public class RouteCacheConfig {
+
+    public RouteCacheConfig(
+            @Value("${delivery.route-cache.enabled:true}") boolean enabled,
+            @Value("${delivery.route-cache.max-memory-mb:64}") long maxMemoryMb,
+            @Value("${delivery.route-cache.record-stats:true}") boolean recordStats) {
+        RouteCache.shared().configure(enabled, maxMemoryMb * 1024 * 1024, recordStats);
+    }
+}
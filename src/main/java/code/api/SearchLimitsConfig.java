@@ -0,0 +1,24 @@
+package code.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import code.SearchLimits;
+import code.TraceLevel;
+
+/**
+ * Applies the delivery.search.* settings from application.properties to
+ * SearchLimits at startup.
+ */
+@Configuration
+public class SearchLimitsConfig {
+
+    public SearchLimitsConfig(
+            @Value("${delivery.search.node-budget:5000000}") long nodeBudget,
+            @Value("${delivery.search.ida-table-size:65536}") int idaTableSize,
+            @Value("${delivery.search.sma-max-nodes:1048576}") int smaMaxNodes,
+            @Value("${delivery.search.time-budget-ms:0}") long timeBudgetMs,
+            @Value("${delivery.search.trace-level:COUNTERS}") TraceLevel traceLevel) {
+        SearchLimits.configure(new SearchLimits(nodeBudget, idaTableSize, smaMaxNodes, timeBudgetMs, traceLevel));
+    }
+}
@@ -3,6 +3,11 @@ package code.dto;
 public class PlanningRequest {
     private GridConfig grid;
     private String strategy; // "BFS", "DFS", "UCS", "AStar", "Greedy"
+    private Integer maxNodesInMemory; // SMA* node limit; null keeps the configured default
+    private Long timeBudgetMs; // ARA* time per route search; null keeps the configured default
+    private String mode; // "routes" (default): one route per destination; "tour": one tour per store
+    private Long tourTimeBudgetMs; // tour local search time per store; null keeps TourPlanner's default
+    private String traceLevel; // "OFF", "COUNTERS" or "FULL" (routes carry expandedTrace); null keeps the configured default
     
     public PlanningRequest() {}
     
@@ -26,4 +31,44 @@ public class PlanningRequest {
     public void setStrategy(String strategy) {
         this.strategy = strategy;
     }
+    
+    public Integer getMaxNodesInMemory() {
+        return maxNodesInMemory;
+    }
+    
+    public void setMaxNodesInMemory(Integer maxNodesInMemory) {
+        this.maxNodesInMemory = maxNodesInMemory;
+    }
+    
+    public Long getTimeBudgetMs() {
+        return timeBudgetMs;
+    }
+    
+    public void setTimeBudgetMs(Long timeBudgetMs) {
+        this.timeBudgetMs = timeBudgetMs;
+    }
+    
+    public String getMode() {
+        return mode;
+    }
+    
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+    
+    public Long getTourTimeBudgetMs() {
+        return tourTimeBudgetMs;
+    }
+    
+    public void setTourTimeBudgetMs(Long tourTimeBudgetMs) {
+        this.tourTimeBudgetMs = tourTimeBudgetMs;
+    }
+    
+    public String getTraceLevel() {
+        return traceLevel;
+    }
+    
+    public void setTraceLevel(String traceLevel) {
+        this.traceLevel = traceLevel;
+    }
 }
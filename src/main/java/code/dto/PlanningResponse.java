@@ -8,6 +8,7 @@ public class PlanningResponse {
     private boolean success;
     private String message;
     private List<DeliveryRoute> routes;
+    private List<Tour> tours; // "tour" mode only
     
     public PlanningResponse() {}
     
@@ -40,6 +41,14 @@ public class PlanningResponse {
         this.routes = routes;
     }
     
+    public List<Tour> getTours() {
+        return tours;
+    }
+    
+    public void setTours(List<Tour> tours) {
+        this.tours = tours;
+    }
+    
     public static class DeliveryRoute {
         private GridConfig.Position store;
         private GridConfig.Position destination;
@@ -47,6 +56,12 @@ public class PlanningResponse {
         private int cost;
         @JsonProperty("expanded")
         private int expanded;
+        // Route cost is at most this many times the optimum; null when the strategy proves none
+        private Double suboptimalityBound;
+        // "tour" mode: position of this leg in its store's tour; the path starts at the previous stop
+        private Integer leg;
+        // Trace level FULL only: expanded cells, base64 of ExpansionTrace.encoded()
+        private String expandedTrace;
         
         public DeliveryRoute() {}
         
@@ -69,5 +84,37 @@ public class PlanningResponse {
         public void setCost(int cost) { this.cost = cost; }
         public int getExpanded() { return expanded; }
         public void setExpanded(int expanded) { this.expanded = expanded; }
+        public Double getSuboptimalityBound() { return suboptimalityBound; }
+        public void setSuboptimalityBound(Double suboptimalityBound) { this.suboptimalityBound = suboptimalityBound; }
+        public Integer getLeg() { return leg; }
+        public void setLeg(Integer leg) { this.leg = leg; }
+        public String getExpandedTrace() { return expandedTrace; }
+        public void setExpandedTrace(String expandedTrace) { this.expandedTrace = expandedTrace; }
+    }
+    
+    // One store's truck visiting its destinations in order and returning
+    public static class Tour {
+        private GridConfig.Position store;
+        private List<GridConfig.Position> stops; // store, destinations in order, store
+        private int cost;
+        private boolean exact; // proven shortest visiting order (Held-Karp)
+        
+        public Tour() {}
+        
+        public Tour(GridConfig.Position store, List<GridConfig.Position> stops, int cost, boolean exact) {
+            this.store = store;
+            this.stops = stops;
+            this.cost = cost;
+            this.exact = exact;
+        }
+        
+        public GridConfig.Position getStore() { return store; }
+        public void setStore(GridConfig.Position store) { this.store = store; }
+        public List<GridConfig.Position> getStops() { return stops; }
+        public void setStops(List<GridConfig.Position> stops) { this.stops = stops; }
+        public int getCost() { return cost; }
+        public void setCost(int cost) { this.cost = cost; }
+        public boolean isExact() { return exact; }
+        public void setExact(boolean exact) { this.exact = exact; }
     }
 }
@@ -0,0 +1,43 @@
+package code.dto;
+
+import java.util.List;
+
+public class TrafficPatchRequest {
+    private List<EdgeEdit> edits;
+    
+    public TrafficPatchRequest() {}
+    
+    public TrafficPatchRequest(List<EdgeEdit> edits) {
+        this.edits = edits;
+    }
+    
+    public List<EdgeEdit> getEdits() {
+        return edits;
+    }
+    
+    public void setEdits(List<EdgeEdit> edits) {
+        this.edits = edits;
+    }
+    
+    // New traffic for the road leaving `from` in `direction`; 0 closes it
+    public static class EdgeEdit {
+        private GridConfig.Position from;
+        private String direction; // "up", "down", "left", "right"
+        private int traffic;
+        
+        public EdgeEdit() {}
+        
+        public EdgeEdit(GridConfig.Position from, String direction, int traffic) {
+            this.from = from;
+            this.direction = direction;
+            this.traffic = traffic;
+        }
+        
+        public GridConfig.Position getFrom() { return from; }
+        public void setFrom(GridConfig.Position from) { this.from = from; }
+        public String getDirection() { return direction; }
+        public void setDirection(String direction) { this.direction = direction; }
+        public int getTraffic() { return traffic; }
+        public void setTraffic(int traffic) { this.traffic = traffic; }
+    }
+}
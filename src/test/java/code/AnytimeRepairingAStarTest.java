@@ -0,0 +1,94 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class AnytimeRepairingAStarTest {
+
+    @Test
+    void testWithoutDeadlineMatchesUCS() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(6 + rnd.nextInt(15), 6 + rnd.nextInt(15), 1, 1, rnd);
+            for (int pair = 0; pair < 10; pair++) {
+                State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                DeliverySearch problem = new DeliverySearch(start, goal, g);
+                int optimal = IntGenericSearch.UCS(problem).cost;
+
+                SearchResult r = AnytimeRepairingAStar.search(problem, 1, 0);
+                assertEquals(optimal, r.cost, "seed " + seed + " " + start + "->" + goal);
+                assertEquals(1.0, r.suboptimalityBound);
+                if (optimal >= 0)
+                    assertEquals(r.plan.isEmpty() ? 1 : r.plan.split(",").length + 1, r.pathStates.size());
+            }
+        }
+    }
+
+    @Test
+    void testDeadlineReturnsRouteWithinItsBound() {
+        Grid g = Grid.randomGrid(200, 200, 1, 1, new Random(1));
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(199, 199), g);
+        int optimal = IntGenericSearch.UCS(problem).cost;
+
+        // However far the searches get in 1 ms, the route must be real and within its bound
+        SearchResult r = AnytimeRepairingAStar.search(problem, 1, 1);
+        assertTrue(r.cost >= optimal);
+        assertTrue(r.suboptimalityBound >= 1.0);
+        assertTrue(r.suboptimalityBound <= AnytimeRepairingAStar.INITIAL_WEIGHT / 10.0);
+        assertTrue(r.cost <= r.suboptimalityBound * optimal + 1e-9,
+                r.cost + " > " + r.suboptimalityBound + " * " + optimal);
+    }
+
+    @Test
+    void testProvenOptimalRoutesAreCached() {
+        Grid g = Grid.randomGrid(12, 12, 1, 1, new Random(2));
+        State start = new State(0, 0), goal = new State(11, 11);
+        RouteCache.shared().clear();
+
+        SearchResult first = DeliverySearch.solve(start, goal, g, "ARA1");
+        assertEquals(1.0, first.suboptimalityBound);
+        assertSame(first, DeliverySearch.solve(start, goal, g, "ARA1"));
+    }
+
+    @Test
+    void testPublishedCostIsTheCostOfThePlan() {
+        for (int seed = 0; seed < 60; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(10 + rnd.nextInt(50), 10 + rnd.nextInt(50), 1, 1, rnd);
+            State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+            State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+            for (int heuristic : new int[] { 1, 2 }) {
+                // 1 ms usually stops between searches, while INCONS cells still have stale g values
+                SearchResult r = AnytimeRepairingAStar.search(new DeliverySearch(start, goal, g), heuristic, 1);
+                if (r.cost >= 0)
+                    assertEquals(planCost(g, start, r.plan), r.cost, "seed " + seed + " ARA" + heuristic);
+            }
+        }
+    }
+
+    @Test
+    void testInadmissibleHeuristicClaimsNoBoundAndIsNotCached() {
+        Grid g = Grid.randomGrid(30, 30, 1, 1, new Random(4));
+        State start = new State(2, 0), goal = new State(25, 29);
+        RouteCache.shared().clear();
+
+        SearchResult r = DeliverySearch.solve(start, goal, g, "ARA2");
+        assertTrue(Double.isNaN(r.suboptimalityBound));
+        assertTrue(r.cost >= IntGenericSearch.UCS(new DeliverySearch(start, goal, g)).cost);
+        assertNotSame(r, DeliverySearch.solve(start, goal, g, "ARA2"));
+    }
+
+    private static int planCost(Grid g, State start, String plan) {
+        int cost = 0;
+        State s = start;
+        for (String action : plan.isEmpty() ? new String[0] : plan.split(",")) {
+            State next = g.applyAction(s, action);
+            cost += g.getCost(s, next, action);
+            s = next;
+        }
+        return cost;
+    }
+}
@@ -25,7 +25,7 @@ public class BFSTest{
         for (int y = 0; y < 3; y++)
             for (int x = 0; x < 3; x++)
                 for (int d = 0; d < 4; d++)
-                    g.traffic[y][x][d] = 1;
+                    g.setTraffic(x, y, d, 1);
 
         SearchResult result = DeliverySearch.solve(store, goal, g, "BF");
 
@@ -39,7 +39,7 @@ public class BFSTest{
         System.out.println("Plan = " + result.plan);
         System.out.println("Cost = " + result.cost);
         System.out.println("Nodes expanded = " + result.nodesExpanded);
-        System.out.println("Order = " + result.expandedOrder);
+        System.out.println("Order = " + result.expandedOrder());
         System.out.println("Path = " + result.pathStates);
 
         // Le dernier état du chemin doit être le goal
@@ -60,7 +60,7 @@ public void testBFS_WithBlockedRoad() {
     for (int y = 0; y < 3; y++)
         for (int x = 0; x < 3; x++)
             for (int d = 0; d < 4; d++)
-                g.traffic[y][x][d] = 1;
+                g.setTraffic(x, y, d, 1);
 
     // ----- BLOCK A ROAD: (1,0) -> (2,0) -----
     State from = new State(1, 0);
@@ -78,7 +78,7 @@ public void testBFS_WithBlockedRoad() {
     assertEquals(dest, result.pathStates.get(result.pathStates.size() - 1));
 
     System.out.println("PLAN = " + result.plan);
-    System.out.println("EXPANDED = " + result.expandedOrder);
+    System.out.println("EXPANDED = " + result.expandedOrder());
     System.out.println("PATH = " + result.pathStates);
 }
 
@@ -0,0 +1,69 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+public class BidirectionalSearchTest {
+
+    @Test
+    void testCostMatchesUCS() {
+        for (int seed = 0; seed < 40; seed++) {
+            Grid g = Grid.randomGrid(14, 11, 2, 4, new Random(seed));
+            for (State store : g.stores) {
+                for (State dest : g.destinations) {
+                    DeliverySearch problem = new DeliverySearch(store, dest, g);
+                    int optimal = IntGenericSearch.UCS(problem).cost;
+
+                    for (boolean useHeuristic : new boolean[] { false, true }) {
+                        SearchResult r = BidirectionalSearch.AStar(problem, useHeuristic);
+                        assertEquals(optimal, r.cost, "seed " + seed + " " + store + "->" + dest);
+                        assertEquals(r.nodesExpanded, r.nodesExpandedForward + r.nodesExpandedBackward);
+                        if (optimal >= 0)
+                            assertEquals(optimal, replay(g, store, r));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBFSFindsFewestSteps() {
+        for (int seed = 0; seed < 40; seed++) {
+            Grid g = Grid.randomGrid(14, 11, 2, 4, new Random(seed));
+            for (State store : g.stores) {
+                for (State dest : g.destinations) {
+                    DeliverySearch problem = new DeliverySearch(store, dest, g);
+                    SearchResult bfs = IntGenericSearch.BFS(problem);
+                    SearchResult bi = BidirectionalSearch.BFS(problem);
+
+                    assertEquals(bfs.pathStates.size(), bi.pathStates.size());
+                    if (bfs.cost >= 0) {
+                        assertEquals(store, bi.pathStates.get(0));
+                        assertEquals(dest, bi.pathStates.get(bi.pathStates.size() - 1));
+                        assertEquals(bi.cost, replay(g, store, bi));
+                    }
+                }
+            }
+        }
+    }
+
+    // Walks the plan on the Grid itself and returns its cost
+    private int replay(Grid g, State start, SearchResult r) {
+        State cur = start;
+        int cost = 0;
+        if (r.plan.isEmpty())
+            return 0;
+        for (String action : r.plan.split(",")) {
+            List<String> legal = g.getPossibleActions(cur);
+            assertTrue(legal.contains(action), action + " not legal at " + cur);
+            State next = g.applyAction(cur, action);
+            cost += g.getCost(cur, next, action);
+            cur = next;
+        }
+        assertEquals(r.pathStates.get(r.pathStates.size() - 1), cur);
+        return cost;
+    }
+}
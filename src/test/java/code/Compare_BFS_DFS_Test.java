@@ -11,13 +11,13 @@ public class Compare_BFS_DFS_Test {
         for (int y = 0; y < g.rows; y++) {
             for (int x = 0; x < g.cols; x++) {
                 if (x + 1 < g.cols)
-                    g.traffic[y][x][3] = 1; // right
+                    g.setTraffic(x, y, 3, 1); // right
                 if (y + 1 < g.rows)
-                    g.traffic[y][x][1] = 1; // down
+                    g.setTraffic(x, y, 1, 1); // down
                 if (x - 1 >= 0)
-                    g.traffic[y][x][2] = 1; // left
+                    g.setTraffic(x, y, 2, 1); // left
                 if (y - 1 >= 0)
-                    g.traffic[y][x][0] = 1; // up
+                    g.setTraffic(x, y, 0, 1); // up
             }
         }
 
@@ -0,0 +1,73 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+public class CompiledGridTest {
+
+    @Test
+    void testEdgesMatchGrid() {
+        for (int seed = 0; seed < 20; seed++) {
+            Grid g = Grid.randomGrid(12, 9, 2, 4, new Random(seed));
+            CompiledGrid cg = g.compile();
+
+            for (int y = 0; y < g.rows; y++) {
+                for (int x = 0; x < g.cols; x++) {
+                    State s = new State(x, y);
+                    int cell = cg.cellId(s);
+                    List<String> expected = g.getPossibleActions(s);
+
+                    assertEquals(expected.size(), cg.offsets[cell + 1] - cg.offsets[cell], "degree of " + s);
+                    int e = cg.offsets[cell];
+                    for (String action : expected) {
+                        State next = g.applyAction(s, action);
+                        assertEquals(action, CompiledGrid.ACTION_NAMES[cg.actions[e]]);
+                        assertEquals(next, cg.state(cg.targets[e]));
+                        assertEquals(g.getCost(s, next, action), cg.costs[e]);
+                        e++;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBlockedRoadIsRemovedBothWays() {
+        Grid g = new Grid(3, 3);
+        for (int y = 0; y < 3; y++)
+            for (int x = 0; x < 3; x++)
+                for (int d = 0; d < 4; d++)
+                    g.setTraffic(x, y, d, 1);
+        g.blockedRoads.add(new RoadBlock(new State(1, 1), new State(2, 1)));
+        g.tunnels.add(new Tunnel(new State(0, 0), new State(2, 2)));
+
+        CompiledGrid cg = g.compile();
+        assertEquals(-1, cg.edge(cg.cellId(1, 1), CompiledGrid.RIGHT));
+        assertEquals(-1, cg.edge(cg.cellId(2, 1), CompiledGrid.LEFT));
+
+        int tunnel = cg.edge(cg.cellId(0, 0), CompiledGrid.TUNNEL);
+        assertEquals(cg.cellId(2, 2), cg.targets[tunnel]);
+        assertEquals(4, cg.costs[tunnel]);
+        assertEquals(4, cg.maxEdgeCost());
+    }
+
+    @Test
+    void testAdapterMatchesDeliverySearch() {
+        for (int seed = 0; seed < 20; seed++) {
+            Grid g = Grid.randomGrid(10, 10, 1, 3, new Random(seed));
+            State store = g.stores.get(0);
+            for (State dest : g.destinations) {
+                SearchResult plain = GenericSearch.UCS(new DeliverySearch(store, dest, g));
+                SearchResult compiled = GenericSearch.UCS(new CompiledDeliverySearch(store, dest, g));
+                assertEquals(plain.cost, compiled.cost);
+
+                plain = GenericSearch.BFS(new DeliverySearch(store, dest, g));
+                compiled = GenericSearch.BFS(new CompiledDeliverySearch(store, dest, g));
+                assertEquals(plain.plan, compiled.plan);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ContractionHierarchyTest {
+
+    @Test
+    void testQueriesMatchUCS() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(8 + rnd.nextInt(10), 8 + rnd.nextInt(10), 1, 1, rnd);
+            for (int pair = 0; pair < 15; pair++) {
+                State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                DeliverySearch problem = new DeliverySearch(start, goal, g);
+                int optimal = IntGenericSearch.UCS(problem).cost;
+
+                SearchResult ch = ContractionHierarchy.search(problem);
+                assertEquals(optimal, ch.cost, "seed " + seed + " " + start + "->" + goal);
+                if (optimal >= 0) {
+                    assertEquals(start, ch.pathStates.get(0));
+                    assertEquals(optimal, replay(g, start, ch));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testHierarchyIsBuiltOncePerFingerprint() {
+        Grid g = Grid.randomGrid(12, 12, 1, 1, new Random(5));
+        ContractionHierarchy ch = ContractionHierarchy.of(g);
+        assertSame(ch, ContractionHierarchy.of(g));
+        // POST /plan builds a new Grid per request: the same city reuses the hierarchy
+        assertSame(ch, ContractionHierarchy.of(Grid.randomGrid(12, 12, 1, 1, new Random(5))));
+
+        g.setTraffic(0, 0, 3, 0);
+        g.invalidateCaches();
+        assertNotSame(ch, ContractionHierarchy.of(g));
+    }
+
+    @Test
+    void testConcurrentQueriesBuildTheHierarchyOnce() throws Exception {
+        ContractionHierarchy.clearCache();
+        Grid g = Grid.randomGrid(40, 40, 1, 1, new Random(6));
+        long before = ContractionHierarchy.builds();
+        List<Future<SearchResult>> results = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 8; i++) {
+                State goal = new State(39 - i, 39);
+                results.add(pool.submit(() -> ContractionHierarchy.search(new DeliverySearch(new State(0, 0), goal, g))));
+            }
+            for (int i = 0; i < 8; i++) {
+                DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(39 - i, 39), g);
+                assertEquals(IntGenericSearch.UCS(problem).cost, results.get(i).get().cost);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(before + 1, ContractionHierarchy.builds());
+    }
+
+    // Walks the plan on the Grid itself and returns its cost
+    private int replay(Grid g, State start, SearchResult r) {
+        State cur = start;
+        int cost = 0;
+        if (r.plan.isEmpty())
+            return 0;
+        for (String action : r.plan.split(",")) {
+            List<String> legal = g.getPossibleActions(cur);
+            assertTrue(legal.contains(action), action + " not legal at " + cur);
+            State next = g.applyAction(cur, action);
+            cost += g.getCost(cur, next, action);
+            cur = next;
+        }
+        assertEquals(r.pathStates.get(r.pathStates.size() - 1), cur);
+        assertEquals(r.pathStates.size(), r.plan.split(",").length + 1);
+        return cost;
+    }
+}
@@ -12,10 +12,10 @@ public class DFSTest {
         State dest = new State(2, 2);
         for (int y = 0; y < 3; y++) {
             for (int x = 0; x < 3; x++) {
-                g.traffic[y][x][0] = 1;
-                g.traffic[y][x][1] = 1;
-                g.traffic[y][x][2] = 1;
-                g.traffic[y][x][3] = 1;
+                g.setTraffic(x, y, 0, 1);
+                g.setTraffic(x, y, 1, 1);
+                g.setTraffic(x, y, 2, 1);
+                g.setTraffic(x, y, 3, 1);
             }
         }
         DeliverySearch problem = new DeliverySearch(store, dest, g);
@@ -29,7 +29,7 @@ public class DFSTest {
         assertEquals(dest, result.pathStates.get(result.pathStates.size() - 1));
 
         System.out.println("PLAN = " + result.plan);
-        System.out.println("EXPANDED = " + result.expandedOrder);
+        System.out.println("EXPANDED = " + result.expandedOrder());
         System.out.println("PATH = " + result.pathStates);
     }
 }
@@ -0,0 +1,87 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class DStarLiteTest {
+
+    @Test
+    void testRepairedRoutesMatchUCSAfterEditsAndMoves() {
+        for (int seed = 0; seed < 40; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(5 + rnd.nextInt(12), 5 + rnd.nextInt(12), 1, 1, rnd);
+            ReplanningSession session = new ReplanningSession(g);
+            State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+            DStarLite route = session.track(new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows)), goal);
+
+            for (int step = 0; step < 10; step++) {
+                SearchResult r = route.plan();
+                int optimal = IntGenericSearch.UCS(new DeliverySearch(route.position(), goal, g)).cost;
+                assertEquals(optimal, r.cost, "seed " + seed + " step " + step);
+                if (optimal > 0)
+                    assertEquals(r.plan.split(",").length + 1, r.pathStates.size());
+
+                // A few random edits, then the truck takes one step along its route
+                for (int e = 0; e < 3; e++) {
+                    State cell = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                    int dir = rnd.nextInt(4);
+                    State next = g.applyAction(cell, CompiledGrid.ACTION_NAMES[dir]);
+                    boolean inside = next.x >= 0 && next.y >= 0 && next.x < g.cols && next.y < g.rows;
+                    switch (rnd.nextInt(3)) {
+                        case 0 -> session.setTraffic(cell, dir, rnd.nextInt(5));
+                        case 1 -> { if (inside) session.blockRoad(cell, next); }
+                        default -> { if (inside) session.unblockRoad(cell, next); }
+                    }
+                }
+                if (r.cost > 0)
+                    route.moveTo(r.pathStates.get(1));
+            }
+        }
+    }
+
+    @Test
+    void testRoadblockRepairExpandsFarLessThanFirstSearch() {
+        Grid g = Grid.randomGrid(60, 60, 1, 1, new Random(5));
+        ReplanningSession session = new ReplanningSession(g);
+        State goal = new State(59, 59);
+        DStarLite route = session.track(new State(0, 0), goal);
+        SearchResult first = route.plan();
+        assertTrue(first.cost > 0);
+
+        // Drive halfway, then close the next road on the route
+        int half = first.pathStates.size() / 2;
+        State here = first.pathStates.get(half);
+        State ahead = first.pathStates.get(half + 1);
+        route.moveTo(here);
+        session.blockRoad(here, ahead);
+
+        SearchResult repaired = route.plan();
+        assertEquals(IntGenericSearch.UCS(new DeliverySearch(here, goal, g)).cost, repaired.cost);
+        assertTrue(repaired.nodesExpanded * 10 < first.nodesExpanded,
+                repaired.nodesExpanded + " vs " + first.nodesExpanded);
+    }
+
+    @Test
+    void testBlockingEveryExitAndReopeningOne() {
+        Grid g = new Grid(3, 3);
+        for (int y = 0; y < 3; y++)
+            for (int x = 0; x < 3; x++)
+                for (int d = 0; d < 4; d++)
+                    g.setTraffic(x, y, d, 1);
+        ReplanningSession session = new ReplanningSession(g);
+        DStarLite route = session.track(new State(0, 0), new State(2, 2));
+        assertEquals(4, route.plan().cost);
+
+        session.blockRoad(new State(0, 0), new State(1, 0));
+        session.blockRoad(new State(0, 0), new State(0, 1));
+        assertEquals(-1, route.plan().cost);
+
+        session.unblockRoad(new State(0, 0), new State(0, 1));
+        session.setTraffic(new State(0, 1), CompiledGrid.DOWN, 3);
+        assertEquals(4, route.plan().cost); // right along row 1 instead of down column 0
+        session.release(route);
+        assertEquals(0, session.activeRoutes());
+    }
+}
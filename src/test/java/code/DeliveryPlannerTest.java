@@ -0,0 +1,75 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class DeliveryPlannerTest {
+
+    private static final Pattern DELIVERY = Pattern.compile("\\((\\d+),(\\d+)\\) plan=\\S* \\| cost=(\\d+)");
+
+    @Test
+    void testUCPlanDeliversEachDestinationFromItsCheapestStore() {
+        String[] generated = Grid.GenGrid(12, 12, 3, 8).split("\n");
+        Grid grid = DeliveryPlanner.parseGrid(generated[0], generated[1]);
+
+        String output = DeliveryPlanner.plan(generated[0], generated[1], "UC", false);
+
+        int delivered = 0;
+        Matcher m = DELIVERY.matcher(output);
+        while (m.find()) {
+            State dest = new State(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            int best = Integer.MAX_VALUE;
+            for (State store : grid.stores) {
+                int cost = DeliverySearch.solve(store, dest, grid, "UC").cost;
+                if (cost >= 0) best = Math.min(best, cost);
+            }
+            assertEquals(best, Integer.parseInt(m.group(3)), "cost to " + dest);
+            delivered++;
+        }
+
+        int reachable = 0;
+        for (State dest : grid.destinations)
+            for (State store : grid.stores)
+                if (DeliverySearch.solve(store, dest, grid, "UC").cost >= 0) {
+                    reachable++;
+                    break;
+                }
+        assertEquals(reachable, delivered);
+    }
+
+    @Test
+    void testExecutorReadBeforeReconfigureStillRuns() {
+        try {
+            PlanningExecutor.configure(4);
+            PlanningExecutor held = PlanningExecutor.shared();
+            PlanningExecutor.configure(2);
+            assertEquals(List.of(2, 4, 6), held.map(List.of(1, 2, 3), i -> 2 * i));
+        } finally {
+            PlanningExecutor.configure(0);
+        }
+    }
+
+    @Test
+    void testParallelPlanMatchesSequential() {
+        String[] generated = Grid.GenGrid(20, 20, 4, 12).split("\n");
+        try {
+            for (String strategy : new String[] { "DF", "UC", "BF", "G2" }) {
+                PlanningExecutor.configure(1);
+                RouteCache.shared().clear();
+                String sequential = DeliveryPlanner.plan(generated[0], generated[1], strategy, false);
+
+                PlanningExecutor.configure(4);
+                RouteCache.shared().clear();
+                String parallel = DeliveryPlanner.plan(generated[0], generated[1], strategy, false);
+
+                assertEquals(sequential, parallel, strategy);
+            }
+        } finally {
+            PlanningExecutor.configure(0);
+        }
+    }
+}
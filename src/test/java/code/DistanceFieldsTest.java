@@ -0,0 +1,66 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+public class DistanceFieldsTest {
+
+    @Test
+    void testFieldRoutesMatchUCS() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(6 + rnd.nextInt(12), 6 + rnd.nextInt(12), 1, 1, rnd);
+            for (int pair = 0; pair < 10; pair++) {
+                State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                DeliverySearch problem = new DeliverySearch(start, goal, g);
+                int optimal = IntGenericSearch.UCS(problem).cost;
+
+                SearchResult walk = DistanceFields.search(problem);
+                assertEquals(optimal, walk.cost, "seed " + seed + " " + start + "->" + goal);
+                assertEquals(optimal, IntGenericSearch.AStar(problem, 4).cost);
+                if (optimal >= 0) {
+                    assertEquals(walk.pathStates.size(), walk.nodesExpanded);
+                    assertEquals(optimal, replay(g, start, walk));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedFieldIsEvicted() {
+        Grid g = Grid.randomGrid(10, 10, 1, 1, new Random(4));
+        long oneField = DistanceFields.estimateBytes(new int[g.rows * g.cols]);
+        DistanceFields fields = new DistanceFields(2 * oneField);
+
+        int[] a = fields.field(g, new State(0, 0));
+        int[] b = fields.field(g, new State(1, 0));
+        assertSame(a, fields.field(g, new State(0, 0)));
+        fields.field(g, new State(2, 0)); // evicts (1,0)
+
+        assertEquals(2, fields.stats().get("fields"));
+        assertEquals(1L, fields.stats().get("evictions"));
+        assertSame(a, fields.field(g, new State(0, 0)));
+        assertNotSame(b, fields.field(g, new State(1, 0)));
+    }
+
+    // Walks the plan on the Grid itself and returns its cost
+    private int replay(Grid g, State start, SearchResult r) {
+        State cur = start;
+        int cost = 0;
+        if (r.plan.isEmpty())
+            return 0;
+        for (String action : r.plan.split(",")) {
+            List<String> legal = g.getPossibleActions(cur);
+            assertTrue(legal.contains(action), action + " not legal at " + cur);
+            State next = g.applyAction(cur, action);
+            cost += g.getCost(cur, next, action);
+            cur = next;
+        }
+        assertEquals(r.pathStates.get(r.pathStates.size() - 1), cur);
+        return cost;
+    }
+}
@@ -0,0 +1,52 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Random;
+
+public class DistanceMatrixTest {
+
+    @Test
+    void testEachPairIsSearchedOnce() {
+        Grid g = Grid.randomGrid(10, 10, 3, 6, new Random(7));
+        DistanceMatrix matrix = new DistanceMatrix(g, "DF");
+
+        matrix.phase("Phase 1");
+        Map<State, State> assignment = StoreAssignment.assign(matrix);
+        int pairs = g.stores.size() * g.destinations.size();
+        assertEquals(pairs, matrix.misses("Phase 1"));
+        assertEquals(pairs, matrix.pairsSearched());
+
+        // Phase 2 only reads what Phase 1 already searched
+        matrix.phase("Phase 2");
+        for (Map.Entry<State, State> e : assignment.entrySet()) {
+            SearchResult r = matrix.route(e.getValue(), e.getKey());
+            assertEquals(DeliverySearch.solve(e.getValue(), e.getKey(), g, "DF").cost, r.cost);
+        }
+        assertEquals(0, matrix.misses("Phase 2"));
+        assertEquals(assignment.size(), matrix.hits("Phase 2"));
+        assertEquals(pairs, matrix.pairsSearched());
+    }
+
+    @Test
+    void testVoronoiLeavesOnlyAssignedPairsToSearch() {
+        Grid g = Grid.randomGrid(10, 10, 3, 6, new Random(11));
+        DistanceMatrix matrix = new DistanceMatrix(g, "UC");
+
+        matrix.phase("Phase 1");
+        Map<State, State> assignment = StoreAssignment.assign(matrix);
+        assertEquals(0, matrix.pairsSearched());
+
+        matrix.phase("Phase 2");
+        for (State store : g.stores)
+            for (State dest : g.destinations)
+                if (store.equals(assignment.get(dest))) {
+                    assertEquals(DeliverySearch.solve(store, dest, g, "UC").cost, matrix.cost(store, dest));
+                    matrix.cost(store, dest);
+                }
+        assertEquals(assignment.size(), matrix.misses("Phase 2"));
+        assertEquals(assignment.size(), matrix.hits("Phase 2"));
+    }
+}
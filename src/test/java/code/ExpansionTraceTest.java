@@ -0,0 +1,77 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ExpansionTraceTest {
+
+    @Test
+    void testFullTraceDecodesToTheCellsAdded() {
+        Random rnd = new Random(1);
+        List<State> cells = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // Mostly neighbours, with the odd long jump (bidirectional searches, tunnels)
+            State last = cells.isEmpty() ? new State(0, 0) : cells.get(cells.size() - 1);
+            cells.add(rnd.nextInt(10) == 0
+                    ? new State(rnd.nextInt(100_000), rnd.nextInt(100_000))
+                    : new State(last.x + rnd.nextInt(3) - 1, last.y + rnd.nextInt(3) - 1));
+        }
+        ExpansionTrace trace = ExpansionTrace.of(TraceLevel.FULL, cells);
+
+        assertEquals(cells, trace.states());
+        assertEquals(cells, ExpansionTrace.decode(trace.encoded()));
+        assertEquals(cells.size(), trace.count());
+        assertTrue(trace.encoded().length < 4 * cells.size());
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByLaterExpansions() {
+        ExpansionTrace trace = new ExpansionTrace(TraceLevel.FULL);
+        trace.add(3, 4);
+        trace.add(4, 4);
+        ExpansionTrace snapshot = trace.snapshot();
+        trace.add(9, 9);
+        snapshot.add(5, 4);
+
+        assertEquals(List.of(new State(3, 4), new State(4, 4), new State(9, 9)), trace.states());
+        assertEquals(List.of(new State(3, 4), new State(4, 4), new State(5, 4)), snapshot.states());
+    }
+
+    @Test
+    void testLowerLevelsKeepOnlyCountsAndBounds() {
+        List<State> cells = List.of(new State(2, 7), new State(5, 1), new State(3, 3));
+
+        ExpansionTrace counters = ExpansionTrace.of(TraceLevel.COUNTERS, cells);
+        assertEquals(3, counters.count());
+        assertTrue(counters.hasBounds());
+        assertEquals(2, counters.minX());
+        assertEquals(5, counters.maxX());
+        assertEquals(1, counters.minY());
+        assertEquals(7, counters.maxY());
+        assertTrue(counters.states().isEmpty());
+        assertEquals(0, counters.encoded().length);
+
+        ExpansionTrace off = ExpansionTrace.of(TraceLevel.OFF, cells);
+        assertEquals(3, off.count());
+        assertFalse(off.hasBounds());
+        assertTrue(off.states().isEmpty());
+    }
+
+    @Test
+    void testSearchRecordsAtTheLevelOfItsLimits() {
+        Grid g = Grid.randomGrid(20, 20, 1, 1, new Random(2));
+        State start = new State(0, 0), goal = new State(19, 19);
+        for (TraceLevel level : TraceLevel.values()) {
+            DeliverySearch problem = new DeliverySearch(start, goal, g,
+                    SearchLimits.defaults().withTraceLevel(level));
+            SearchResult r = IntGenericSearch.AStar(problem, 1);
+            assertEquals(level, r.trace.level());
+            assertEquals(r.nodesExpanded, r.trace.count());
+            assertEquals(level == TraceLevel.FULL ? r.nodesExpanded : 0, r.expandedOrder().size());
+        }
+    }
+}
@@ -3,6 +3,9 @@ package code;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Map;
+import java.util.Random;
+
 public class GenericSearchTest {
     
      private Grid create3x3Grid() {
@@ -10,7 +13,7 @@ public class GenericSearchTest {
         for (int y = 0; y < 3; y++)
             for (int x = 0; x < 3; x++)
                 for (int d = 0; d < 4; d++)
-                    g.traffic[y][x][d] = 1;
+                    g.setTraffic(x, y, d, 1);
         return g;
     }
 
@@ -82,4 +85,55 @@ public class GenericSearchTest {
         System.out.println("UCS with blocked road Plan = " + result.plan);
     }
 
+    @Test
+    public void TestOneToManyMatchesUCS() {
+        for (int seed = 0; seed < 20; seed++) {
+            Grid g = Grid.randomGrid(12, 12, 2, 6, new Random(seed));
+            for (State store : g.stores) {
+                DeliverySearch problem = new DeliverySearch(store, store, g);
+                // DeliverySearch takes the int path, PlainProblem the State-based one
+                for (SearchProblem p : new SearchProblem[] { problem, new PlainProblem(problem) }) {
+                    Map<State, SearchResult> all = GenericSearch.oneToMany(p, g.destinations);
+                    assertEquals(g.destinations.size(), all.size());
+
+                    for (State dest : g.destinations) {
+                        SearchResult single = GenericSearch.UCS(new DeliverySearch(store, dest, g));
+                        SearchResult shared = all.get(dest);
+                        assertEquals(single.cost, shared.cost);
+                        if (shared.cost >= 0)
+                            assertEquals(dest, shared.pathStates.get(shared.pathStates.size() - 1));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestSolveAllBFMatchesSolve() {
+        for (int seed = 0; seed < 20; seed++) {
+            Grid g = Grid.randomGrid(12, 12, 2, 6, new Random(seed));
+            for (State store : g.stores) {
+                Map<State, SearchResult> all = DeliverySearch.solveAll(store, g.destinations, g, "BF");
+                for (State dest : g.destinations) {
+                    SearchResult single = DeliverySearch.solve(store, dest, g, "BF");
+                    assertEquals(single.plan, all.get(dest).plan);
+                    assertEquals(single.cost, all.get(dest).cost);
+                    assertEquals(single.nodesExpanded, all.get(dest).nodesExpanded);
+                }
+            }
+        }
+    }
+
+    // Hides the DeliverySearch type so GenericSearch takes its State-based path
+    private static class PlainProblem implements SearchProblem {
+        private final SearchProblem inner;
+
+        PlainProblem(SearchProblem inner) { this.inner = inner; }
+
+        public State initialState() { return inner.initialState(); }
+        public boolean isGoal(State s) { return inner.isGoal(s); }
+        public java.util.List<String> actions(State s) { return inner.actions(s); }
+        public State result(State s, String action) { return inner.result(s, action); }
+        public int stepCost(State s, String action, State next) { return inner.stepCost(s, action, next); }
+    }
 }
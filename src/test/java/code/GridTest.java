@@ -3,6 +3,7 @@ package code;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.List;
+import java.util.Random;
 
 class GridTest {
 
@@ -60,7 +61,35 @@ class GridTest {
     @Test
     void testGetCost() {
         Grid g = new Grid(2,2);
-        g.traffic[0][0][0] = 5; // up
+        g.setTraffic(0, 0, 0, 5); // up
         assertEquals(5, g.getCost(new State(0,0), new State(0,-1), "up"));
     }
+
+    @Test
+    void testTrafficWidensPastAByteAndKeepsEveryCost() {
+        Grid g = Grid.randomGrid(6, 7, 1, 1, new Random(1));
+        int[] before = new int[6 * 7 * 4];
+        for (int y = 0; y < 6; y++)
+            for (int x = 0; x < 7; x++)
+                for (int d = 0; d < 4; d++)
+                    before[(y * 7 + x) * 4 + d] = g.traffic(x, y, d);
+        long small = g.trafficSizeInBytes();
+
+        g.setTraffic(3, 2, CompiledGrid.RIGHT, 255);
+        assertEquals(small, g.trafficSizeInBytes());
+        g.setTraffic(3, 2, CompiledGrid.RIGHT, 1000);
+        assertTrue(g.trafficSizeInBytes() > small);
+        assertEquals(1000, g.traffic(3, 2, CompiledGrid.RIGHT));
+        g.setTraffic(3, 2, CompiledGrid.RIGHT, Grid.MAX_TRAFFIC);
+        assertEquals(Grid.MAX_TRAFFIC, g.traffic(3, 2, CompiledGrid.RIGHT));
+
+        before[(2 * 7 + 3) * 4 + CompiledGrid.RIGHT] = Grid.MAX_TRAFFIC;
+        for (int y = 0; y < 6; y++)
+            for (int x = 0; x < 7; x++)
+                for (int d = 0; d < 4; d++)
+                    assertEquals(before[(y * 7 + x) * 4 + d], g.traffic(x, y, d));
+
+        assertThrows(IllegalArgumentException.class, () -> g.setTraffic(0, 0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> g.setTraffic(0, 0, 0, Grid.MAX_TRAFFIC + 1));
+    }
 }
@@ -3,6 +3,8 @@ package code;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
 public class HeuristicsTest {
 
     // Manhattan heuristic
@@ -35,13 +37,13 @@ public class HeuristicsTest {
         Grid g = new Grid(5, 5);
 
         // Horizontal traffic
-        g.traffic[0][0][3] = 3;
-        g.traffic[0][1][3] = 2;
+        g.setTraffic(0, 0, 3, 3);
+        g.setTraffic(1, 0, 3, 2);
 
         // Vertical traffic
-        g.traffic[0][0][1] = 4;
-        g.traffic[1][0][1] = 1;
-        g.traffic[2][0][1] = 2;
+        g.setTraffic(0, 0, 1, 4);
+        g.setTraffic(0, 1, 1, 1);
+        g.setTraffic(0, 2, 1, 2);
 
         DeliverySearch problem = new DeliverySearch(start, goal, g);
         int h = Heuristics.heuristic(problem, start, 2);
@@ -64,4 +66,76 @@ public class HeuristicsTest {
         // dx=3, dy=2, min costs=1
         assertEquals(expected, h);
     }
+
+    @Test
+    void testTrafficAwareHeuristicMatchesRowAndColumnScan() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(1 + rnd.nextInt(20), 1 + rnd.nextInt(20), 1, 1, rnd);
+            for (int i = 0; i < 10; i++) // some missing roads
+                g.setTraffic(rnd.nextInt(g.cols), rnd.nextInt(g.rows), rnd.nextInt(4), 0);
+            for (int pair = 0; pair < 50; pair++) {
+                State s = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                DeliverySearch problem = new DeliverySearch(s, goal, g);
+                assertEquals(scan(g, s, goal), Heuristics.heuristic(problem, s, 2), "seed " + seed + " " + s + "->" + goal);
+            }
+        }
+    }
+
+    @Test
+    void testTrafficAwareHeuristicSeesTrafficAfterInvalidate() {
+        State start = new State(0, 0);
+        State goal = new State(3, 0);
+        Grid g = new Grid(1, 4);
+        for (int x = 0; x < 4; x++)
+            g.setTraffic(x, 0, 3, 5);
+        assertEquals(15, Heuristics.heuristic(new DeliverySearch(start, goal, g), start, 2));
+
+        g.setTraffic(1, 0, 3, 2);
+        g.invalidateCaches();
+        assertEquals(6, Heuristics.heuristic(new DeliverySearch(start, goal, g), start, 2));
+    }
+
+    @Test
+    void testRangeMinimaMatchAScanAtBothWidths() {
+        Random rnd = new Random(3);
+        for (int round = 0; round < 6; round++) {
+            // Sizes around the block length, then costs too wide for a byte
+            Grid g = Grid.randomGrid(1 + rnd.nextInt(70), 1 + rnd.nextInt(70), 1, 1, rnd);
+            if (round % 2 == 1)
+                g.setTraffic(rnd.nextInt(g.cols), rnd.nextInt(g.rows), rnd.nextInt(4), 40_000);
+            TrafficRangeMin ranges = new TrafficRangeMin(g);
+            for (int q = 0; q < 2000; q++) {
+                int d = rnd.nextInt(4);
+                if (d == CompiledGrid.LEFT || d == CompiledGrid.RIGHT) {
+                    int y = rnd.nextInt(g.rows), a = rnd.nextInt(g.cols), b = rnd.nextInt(g.cols);
+                    int min = Integer.MAX_VALUE;
+                    for (int x = Math.min(a, b); x <= Math.max(a, b); x++)
+                        min = Math.min(min, g.traffic(x, y, d));
+                    assertEquals(min, ranges.rowMin(y, Math.min(a, b), Math.max(a, b), d));
+                } else {
+                    int x = rnd.nextInt(g.cols), a = rnd.nextInt(g.rows), b = rnd.nextInt(g.rows);
+                    int min = Integer.MAX_VALUE;
+                    for (int y = Math.min(a, b); y <= Math.max(a, b); y++)
+                        min = Math.min(min, g.traffic(x, y, d));
+                    assertEquals(min, ranges.columnMin(x, Math.min(a, b), Math.max(a, b), d));
+                }
+            }
+        }
+    }
+
+    // Heuristic 2 by walking the row and column of s
+    private static int scan(Grid g, State s, State goal) {
+        if (s.equals(goal)) return 0;
+        int dx = Math.abs(s.x - goal.x), dy = Math.abs(s.y - goal.y);
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        for (int x = Math.min(s.x, goal.x); x < Math.max(s.x, goal.x); x++)
+            minX = Math.min(minX, goal.x > s.x ? g.traffic(x, s.y, 3) : g.traffic(x + 1, s.y, 2));
+        for (int y = Math.min(s.y, goal.y); y < Math.max(s.y, goal.y); y++)
+            minY = Math.min(minY, goal.y > s.y ? g.traffic(s.x, y, 1) : g.traffic(s.x, y + 1, 0));
+        if (minX == Integer.MAX_VALUE || minX == 0) minX = 1;
+        if (minY == Integer.MAX_VALUE || minY == 0) minY = 1;
+        return dx * minX + dy * minY;
+    }
 }
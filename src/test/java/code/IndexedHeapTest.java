@@ -0,0 +1,41 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class IndexedHeapTest {
+
+    @Test
+    void testPopsInPriorityOrderWithDecreaseKey() {
+        Random rnd = new Random(7);
+        int n = 500;
+        IndexedHeap heap = new IndexedHeap(n);
+        int[] expected = new int[n];
+
+        for (int cell = 0; cell < n; cell++) {
+            expected[cell] = rnd.nextInt(1000);
+            heap.push(cell, expected[cell]);
+        }
+        // Re-prioritise half of the cells, both directions
+        for (int cell = 0; cell < n; cell += 2) {
+            expected[cell] = rnd.nextInt(1000);
+            heap.push(cell, expected[cell]);
+        }
+        assertEquals(n, heap.size());
+
+        int last = Integer.MIN_VALUE;
+        boolean[] seen = new boolean[n];
+        while (!heap.isEmpty()) {
+            int min = heap.minKey();
+            int cell = heap.pop();
+            assertEquals(expected[cell], min);
+            assertTrue(min >= last);
+            assertFalse(seen[cell]);
+            assertFalse(heap.contains(cell));
+            seen[cell] = true;
+            last = min;
+        }
+    }
+}
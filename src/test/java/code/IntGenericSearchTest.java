@@ -0,0 +1,131 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class IntGenericSearchTest {
+
+    @Test
+    void testUninformedSearchesMatchGenericSearch() {
+        for (int seed = 0; seed < 30; seed++) {
+            Grid g = Grid.randomGrid(10, 10, 1, 3, new Random(seed));
+            State store = g.stores.get(0);
+            for (State dest : g.destinations) {
+                DeliverySearch problem = new DeliverySearch(store, dest, g,
+                        SearchLimits.defaults().withTraceLevel(TraceLevel.FULL));
+
+                SearchResult expected = GenericSearch.BFS(problem);
+                SearchResult actual = IntGenericSearch.BFS(problem);
+                assertEquals(expected.plan, actual.plan);
+                assertEquals(expected.cost, actual.cost);
+                assertEquals(expected.nodesExpanded, actual.nodesExpanded);
+                assertEquals(expected.pathStates, actual.pathStates);
+
+                expected = GenericSearch.DFS(problem);
+                actual = IntGenericSearch.DFS(problem);
+                assertEquals(expected.plan, actual.plan);
+                assertEquals(expected.cost, actual.cost);
+                assertEquals(expected.expandedOrder(), actual.expandedOrder());
+                assertEquals(actual.nodesExpanded, actual.expandedOrder().size());
+            }
+        }
+    }
+
+    @Test
+    void testIDMatchesGenericSearch() {
+        for (int seed = 0; seed < 10; seed++) {
+            Grid g = Grid.randomGrid(4, 4, 1, 2, new Random(seed));
+            State store = g.stores.get(0);
+            for (State dest : g.destinations) {
+                DeliverySearch problem = new DeliverySearch(store, dest, g);
+                SearchResult expected = GenericSearch.ID(problem);
+                SearchResult actual = IntGenericSearch.ID(problem);
+                assertEquals(expected.plan, actual.plan);
+                assertEquals(expected.cost, actual.cost);
+                assertEquals(expected.nodesExpanded, actual.nodesExpanded);
+            }
+        }
+    }
+
+    @Test
+    void testIDAStarMatchesUCS() {
+        for (int seed = 0; seed < 20; seed++) {
+            Grid g = Grid.randomGrid(10, 9, 1, 4, new Random(seed));
+            State store = g.stores.get(0);
+            for (State dest : g.destinations) {
+                DeliverySearch problem = new DeliverySearch(store, dest, g);
+                int optimal = IntGenericSearch.UCS(problem).cost;
+
+                // Per-cell table, a tiny shared-slot table, no table
+                for (int tableSize : new int[] { 1 << 10, 8, 0 }) {
+                    SearchResult ida = IntGenericSearch.IDAStar(problem, 1, tableSize, Long.MAX_VALUE);
+                    assertEquals(optimal, ida.cost, "seed " + seed + " table " + tableSize);
+                    assertFalse(ida.budgetExhausted);
+                    if (optimal >= 0)
+                        assertEquals(ida.plan.isEmpty() ? 1 : ida.plan.split(",").length + 1, ida.pathStates.size());
+                }
+                assertEquals(optimal, IntGenericSearch.IDAStar(problem, 3).cost);
+            }
+        }
+    }
+
+    @Test
+    void testNodeBudgetStopsIterativeSearches() {
+        Grid g = Grid.randomGrid(30, 30, 1, 1, new Random(1));
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(29, 29), g);
+
+        SearchResult id = IntGenericSearch.ID(problem, 10_000);
+        assertTrue(id.budgetExhausted);
+        assertEquals(-1, id.cost);
+        assertEquals(10_000, id.nodesExpanded);
+
+        // With its transposition table IDA* solves what ID cannot
+        SearchResult ida = IntGenericSearch.IDAStar(problem, 1);
+        assertFalse(ida.budgetExhausted);
+        assertEquals(IntGenericSearch.UCS(problem).cost, ida.cost);
+    }
+
+    @Test
+    void testCostOptimalSearchesMatchUCS() {
+        for (int seed = 0; seed < 30; seed++) {
+            Grid g = Grid.randomGrid(15, 12, 1, 4, new Random(seed));
+            State store = g.stores.get(0);
+            for (State dest : g.destinations) {
+                DeliverySearch problem = new DeliverySearch(store, dest, g);
+                int optimal = GenericSearch.UCS(problem).cost;
+
+                assertEquals(optimal, IntGenericSearch.UCS(problem).cost);
+                assertEquals(optimal, IntGenericSearch.AStar(problem, 1).cost);
+
+                SearchResult greedy = IntGenericSearch.Greedy(problem, 2);
+                assertEquals(optimal < 0, greedy.cost < 0);
+                if (greedy.cost >= 0)
+                    assertEquals(dest, greedy.pathStates.get(greedy.pathStates.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    void testBucketQueuesMatchUCS() {
+        for (int seed = 0; seed < 30; seed++) {
+            Grid g = Grid.randomGrid(15, 12, 1, 4, new Random(seed));
+            // Every other grid gets one huge edge so the radix heap is chosen
+            if (seed % 2 == 1)
+                g.setTraffic(3, 3, 3, 10_000);
+            State store = g.stores.get(0);
+            for (State dest : g.destinations) {
+                DeliverySearch problem = new DeliverySearch(store, dest, g);
+                int optimal = IntGenericSearch.UCS(problem).cost;
+
+                SearchResult ucs = IntGenericSearch.UCSBucket(problem);
+                SearchResult astar = IntGenericSearch.AStarBucket(problem, 1);
+                assertEquals(optimal, ucs.cost);
+                assertEquals(optimal, astar.cost);
+                if (optimal >= 0)
+                    assertEquals(dest, astar.pathStates.get(astar.pathStates.size() - 1));
+            }
+        }
+    }
+}
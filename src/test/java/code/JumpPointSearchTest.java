@@ -0,0 +1,91 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+public class JumpPointSearchTest {
+
+    @Test
+    void testCostMatchesUCSOnPlateaus() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = plateauGrid(rnd, 6 + rnd.nextInt(15), 6 + rnd.nextInt(15));
+            for (int pair = 0; pair < 6; pair++) {
+                State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                DeliverySearch problem = new DeliverySearch(start, goal, g);
+                int optimal = IntGenericSearch.UCS(problem).cost;
+
+                SearchResult jps = JumpPointSearch.search(problem);
+                assertEquals(optimal, jps.cost, "seed " + seed + " " + start + "->" + goal);
+                if (optimal >= 0) {
+                    assertEquals(start, jps.pathStates.get(0));
+                    assertEquals(optimal, replay(g, start, jps));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testExpandsFewerNodesThanAStarOnOpenGrid() {
+        Grid g = new Grid(60, 60);
+        fill(g, 1);
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(59, 59), g);
+
+        SearchResult astar = IntGenericSearch.AStar(problem, 1);
+        SearchResult jps = JumpPointSearch.search(problem);
+        assertEquals(astar.cost, jps.cost);
+        assertTrue(jps.nodesExpanded < astar.nodesExpanded / 10,
+                jps.nodesExpanded + " vs " + astar.nodesExpanded);
+    }
+
+    // Uniform traffic with a few pricier patches, one-way costs, road blocks and tunnels
+    private static Grid plateauGrid(Random rnd, int rows, int cols) {
+        Grid g = new Grid(rows, cols);
+        fill(g, 1 + rnd.nextInt(2));
+
+        for (int patch = rnd.nextInt(4); patch > 0; patch--) {
+            int x0 = rnd.nextInt(cols), y0 = rnd.nextInt(rows);
+            int cost = 1 + rnd.nextInt(4);
+            for (int y = y0; y < Math.min(rows, y0 + 1 + rnd.nextInt(5)); y++)
+                for (int x = x0; x < Math.min(cols, x0 + 1 + rnd.nextInt(5)); x++)
+                    for (int d = 0; d < 4; d++)
+                        g.setTraffic(x, y, d, cost);
+        }
+        for (int oneWay = rnd.nextInt(4); oneWay > 0; oneWay--)
+            g.setTraffic(rnd.nextInt(cols), rnd.nextInt(rows), rnd.nextInt(4), 1 + rnd.nextInt(5));
+        for (int block = rnd.nextInt(rows * cols / 4 + 1); block > 0; block--) {
+            State a = new State(rnd.nextInt(cols), rnd.nextInt(rows));
+            State b = rnd.nextBoolean() ? new State(a.x + 1, a.y) : new State(a.x, a.y + 1);
+            g.blockedRoads.add(new RoadBlock(a, b));
+        }
+        for (int tunnel = rnd.nextInt(3); tunnel > 0; tunnel--)
+            g.tunnels.add(new Tunnel(new State(rnd.nextInt(cols), rnd.nextInt(rows)),
+                    new State(rnd.nextInt(cols), rnd.nextInt(rows))));
+        return g;
+    }
+
+    private static void fill(Grid g, int cost) {
+        g.fillTraffic(cost);
+    }
+
+    // Walks the plan on the Grid itself and returns its cost
+    private int replay(Grid g, State start, SearchResult r) {
+        State cur = start;
+        int cost = 0;
+        if (r.plan.isEmpty())
+            return 0;
+        for (String action : r.plan.split(",")) {
+            List<String> legal = g.getPossibleActions(cur);
+            assertTrue(legal.contains(action), action + " not legal at " + cur);
+            State next = g.applyAction(cur, action);
+            cost += g.getCost(cur, next, action);
+            cur = next;
+        }
+        assertEquals(r.pathStates.get(r.pathStates.size() - 1), cur);
+        return cost;
+    }
+}
@@ -0,0 +1,76 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class LandmarksTest {
+
+    @Test
+    void testEstimateNeverExceedsTrueCost() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(6 + rnd.nextInt(10), 6 + rnd.nextInt(10), 1, 1, rnd);
+            CompiledGrid graph = g.compile();
+            Landmarks alt = Landmarks.of(g);
+            for (int pair = 0; pair < 20; pair++) {
+                State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                int optimal = IntGenericSearch.UCS(new DeliverySearch(start, goal, g)).cost;
+                int h = alt.estimate(graph.cellId(start), graph.cellId(goal));
+                if (optimal >= 0)
+                    assertTrue(h <= optimal, "seed " + seed + " " + start + "->" + goal + ": " + h + " > " + optimal);
+                if (start.equals(goal))
+                    assertEquals(0, h);
+            }
+        }
+    }
+
+    @Test
+    void testAStarWithLandmarksIsOptimalAndExpandsLess() {
+        int alt = 0, manhattan = 0;
+        for (int seed = 0; seed < 20; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(15 + rnd.nextInt(10), 15 + rnd.nextInt(10), 1, 1, rnd);
+            for (int pair = 0; pair < 10; pair++) {
+                State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                SearchResult optimal = DeliverySearch.solve(start, goal, g, "UC");
+                SearchResult as3 = DeliverySearch.solve(start, goal, g, "AS3");
+                assertEquals(optimal.cost, as3.cost, "seed " + seed + " " + start + "->" + goal);
+                if (optimal.cost >= 0) {
+                    alt += as3.nodesExpanded;
+                    manhattan += DeliverySearch.solve(start, goal, g, "AS1").nodesExpanded;
+                }
+            }
+        }
+        assertTrue(alt < manhattan, alt + " vs " + manhattan);
+    }
+
+    @Test
+    void testTablesAreSharedPerFingerprint() {
+        Grid g = Grid.randomGrid(10, 10, 1, 1, new Random(3));
+        Landmarks alt = Landmarks.of(g);
+        assertSame(alt, Landmarks.of(g));
+        assertEquals(Landmarks.DEFAULT_COUNT, alt.count());
+        // A new Grid per request (POST /plan) with the same roads reuses the tables
+        assertSame(alt, Landmarks.of(Grid.randomGrid(10, 10, 1, 1, new Random(3))));
+
+        g.setTraffic(0, 0, 3, 0);
+        g.invalidateCaches();
+        assertNotSame(alt, Landmarks.of(g));
+    }
+
+    @Test
+    void testSearchResolvesTheTablesOnce() {
+        Landmarks.clearCache();
+        Grid g = Grid.randomGrid(20, 20, 1, 1, new Random(4));
+        long before = Landmarks.builds();
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(19, 19), g);
+        SearchResult r = IntGenericSearch.AStar(problem, 3);
+        assertEquals(IntGenericSearch.UCS(new DeliverySearch(new State(0, 0), new State(19, 19), g)).cost, r.cost);
+        assertSame(problem.landmarks(), Landmarks.of(g));
+        assertEquals(before + 1, Landmarks.builds());
+    }
+}
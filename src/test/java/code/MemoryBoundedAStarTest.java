@@ -0,0 +1,108 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class MemoryBoundedAStarTest {
+
+    @Test
+    void testMatchesUCSWithAmpleAndTightMemory() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(6 + rnd.nextInt(8), 6 + rnd.nextInt(8), 1, 1, rnd);
+            for (int pair = 0; pair < 5; pair++) {
+                State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+                DeliverySearch problem = new DeliverySearch(start, goal, g);
+                int optimal = IntGenericSearch.UCS(problem).cost;
+
+                for (int memory : new int[] { 10_000, 60 }) {
+                    SearchResult r = MemoryBoundedAStar.search(problem, 1, memory);
+                    if (r.budgetExhausted)
+                        continue; // a route deeper than the memory limit allows
+                    if (r.suboptimalityBound > 1) {
+                        assertTrue(r.cost <= r.suboptimalityBound * optimal + 1e-9);
+                        continue; // the cheaper route is deeper than the limit allows
+                    }
+                    assertEquals(optimal, r.cost, "seed " + seed + " memory " + memory + " " + start + "->" + goal);
+                    if (optimal >= 0)
+                        assertEquals(r.plan.isEmpty() ? 1 : r.plan.split(",").length + 1, r.pathStates.size());
+                }
+                assertEquals(optimal, MemoryBoundedAStar.search(problem, 3, 10_000).cost);
+            }
+        }
+    }
+
+    @Test
+    void testTightMemoryForgetsAndRegenerates() {
+        Grid g = Grid.randomGrid(20, 20, 1, 1, new Random(3));
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(19, 19), g);
+        int optimal = IntGenericSearch.UCS(problem).cost;
+
+        SearchResult ample = MemoryBoundedAStar.search(problem, 1, 1 << 20);
+        assertEquals(optimal, ample.cost);
+        assertEquals(0, ample.nodesForgotten);
+
+        SearchResult tight = MemoryBoundedAStar.search(problem, 1, 150);
+        assertFalse(tight.budgetExhausted);
+        assertEquals(optimal, tight.cost);
+        assertTrue(tight.nodesForgotten > 0);
+        assertTrue(tight.nodesExpanded >= ample.nodesExpanded);
+    }
+
+    @Test
+    void testGivesUpWhenRouteIsDeeperThanMemory() {
+        // A 1 x 10 corridor: the only route is 9 steps deep
+        Grid g = new Grid(1, 10);
+        for (int x = 0; x < 10; x++) {
+            if (x > 0) g.setTraffic(x, 0, 2, 1);
+            if (x < 9) g.setTraffic(x, 0, 3, 1);
+        }
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(9, 0), g);
+
+        SearchResult cut = MemoryBoundedAStar.search(problem, 1, 5);
+        assertEquals(-1, cut.cost);
+        assertTrue(cut.budgetExhausted);
+
+        assertEquals(9, MemoryBoundedAStar.search(problem, 1, 11).cost);
+    }
+
+    @Test
+    void testShallowRouteDoesNotClaimOptimalityOverADeeperCut() {
+        // 2 x 3, the top row two expensive steps, the cheap detour 4 steps deep
+        Grid g = new Grid(2, 3);
+        g.fillTraffic(1);
+        g.setTraffic(0, 0, 3, 10);
+        g.setTraffic(1, 0, 3, 10);
+        State start = new State(0, 0), goal = new State(2, 0);
+        SearchLimits tight = SearchLimits.defaults().withMaxNodesInMemory(4);
+        assertEquals(4, IntGenericSearch.UCS(new DeliverySearch(start, goal, g)).cost);
+        RouteCache.shared().clear();
+
+        SearchResult r = DeliverySearch.solve(start, goal, g, "SMA1", tight);
+        assertEquals(20, r.cost);
+        assertFalse(r.budgetExhausted);
+        assertTrue(r.suboptimalityBound > 1);
+        assertTrue(r.cost <= r.suboptimalityBound * 4 + 1e-9);
+        assertNotSame(r, DeliverySearch.solve(start, goal, g, "SMA1", tight));
+
+        SearchResult ample = DeliverySearch.solve(start, goal, g, "SMA1");
+        assertEquals(4, ample.cost);
+        assertTrue(Double.isNaN(ample.suboptimalityBound));
+    }
+
+    @Test
+    void testPerRequestMemoryLimitTravelsWithTheProblem() {
+        Grid g = Grid.randomGrid(20, 20, 1, 1, new Random(3));
+        State start = new State(0, 0), goal = new State(19, 19);
+        SearchLimits tight = SearchLimits.defaults().withMaxNodesInMemory(150);
+
+        SearchResult viaSolve = DeliverySearch.solve(start, goal, g, "SMA1", tight);
+        SearchResult direct = MemoryBoundedAStar.search(new DeliverySearch(start, goal, g), 1, 150);
+        assertEquals(direct.cost, viaSolve.cost);
+        assertEquals(direct.nodesForgotten, viaSolve.nodesForgotten);
+        assertEquals(0, DeliverySearch.solve(start, goal, g, "SMA1").nodesForgotten);
+    }
+}
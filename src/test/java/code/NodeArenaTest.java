@@ -0,0 +1,39 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NodeArenaTest {
+
+    @Test
+    void testGrowsAcrossChunks() {
+        NodeArena nodes = new NodeArena();
+        int count = 100_000;
+        for (int i = 0; i < count; i++)
+            assertEquals(i, nodes.add(i - 1, i * 7, (byte) (i % 5), i * 3, i));
+
+        assertEquals(count, nodes.size());
+        for (int i = 0; i < count; i += 997) {
+            assertEquals(i - 1, nodes.parent(i));
+            assertEquals(i * 7, nodes.cell(i));
+            assertEquals(i % 5, nodes.action(i));
+            assertEquals(i * 3, nodes.g(i));
+            assertEquals(i, nodes.depth(i));
+        }
+    }
+
+    @Test
+    void testTruncateReusesSlots() {
+        NodeArena nodes = new NodeArena();
+        int root = nodes.add(NodeArena.NONE, 0, (byte) -1, 0, 0);
+        nodes.add(root, 1, CompiledGrid.RIGHT, 2, 1);
+        nodes.add(root, 2, CompiledGrid.DOWN, 3, 1);
+        long footprint = nodes.footprintBytes();
+
+        nodes.truncate(1);
+        assertEquals(1, nodes.size());
+        assertEquals(1, nodes.add(root, 5, CompiledGrid.UP, 4, 1));
+        assertEquals(5, nodes.cell(1));
+        assertEquals(footprint, nodes.footprintBytes());
+    }
+}
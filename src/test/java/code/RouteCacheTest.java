@@ -0,0 +1,73 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RouteCacheTest {
+
+    @Test
+    void testFingerprintFollowsRouteRelevantContent() {
+        Grid a = Grid.randomGrid(8, 9, 2, 3, new Random(3));
+        Grid b = Grid.randomGrid(8, 9, 2, 3, new Random(3));
+        assertEquals(a.fingerprint(), b.fingerprint());
+
+        // Stores and destinations do not change routes
+        b.stores.add(new State(0, 0));
+        b.invalidateCaches();
+        assertEquals(a.fingerprint(), b.fingerprint());
+
+        b.setTraffic(2, 2, 3, b.traffic(2, 2, 3) + 1);
+        b.invalidateCaches();
+        assertNotEquals(a.fingerprint(), b.fingerprint());
+        b.setTraffic(2, 2, 3, b.traffic(2, 2, 3) - 1);
+        b.invalidateCaches();
+        assertEquals(a.fingerprint(), b.fingerprint());
+
+        // A road block is the same in either direction
+        a.blockedRoads.add(new RoadBlock(new State(1, 1), new State(2, 1)));
+        b.blockedRoads.add(new RoadBlock(new State(2, 1), new State(1, 1)));
+        a.invalidateCaches();
+        b.invalidateCaches();
+        assertEquals(a.fingerprint(), b.fingerprint());
+    }
+
+    @Test
+    void testSolveReusesResultsForEqualGrids() {
+        Grid a = Grid.randomGrid(10, 10, 1, 3, new Random(21));
+        Grid b = Grid.randomGrid(10, 10, 1, 3, new Random(21));
+        State store = a.stores.get(0);
+        for (State dest : a.destinations) {
+            SearchResult first = DeliverySearch.solve(store, dest, a, "AS2");
+            assertSame(first, DeliverySearch.solve(store, dest, b, "AS2"));
+            assertNotSame(first, DeliverySearch.solve(store, dest, a, "G2"));
+        }
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWithinByteBudget() {
+        Grid g = Grid.randomGrid(5, 5, 1, 1, new Random(1));
+        SearchResult r = new SearchResult("right", 1, 1);
+        long size = RouteCache.estimateBytes(r);
+        RouteCache cache = new RouteCache(3 * size);
+
+        List<State> goals = new ArrayList<>();
+        for (int x = 0; x < 4; x++)
+            goals.add(new State(x, 0));
+        State start = new State(0, 1);
+
+        cache.put(g, start, goals.get(0), "UC", r);
+        cache.put(g, start, goals.get(1), "UC", r);
+        cache.put(g, start, goals.get(2), "UC", r);
+        assertSame(r, cache.get(g, start, goals.get(0), "UC")); // 0 is now most recent
+        cache.put(g, start, goals.get(3), "UC", r);              // evicts 1
+
+        assertNull(cache.get(g, start, goals.get(1), "UC"));
+        assertSame(r, cache.get(g, start, goals.get(0), "UC"));
+        assertEquals(1L, cache.stats().get("evictions"));
+        assertEquals(3 * size, cache.stats().get("bytes"));
+    }
+}
@@ -0,0 +1,52 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class StoreAssignmentTest {
+
+    @Test
+    void testVoronoiMatchesPairwiseUCS() {
+        for (int seed = 0; seed < 40; seed++) {
+            Grid g = Grid.randomGrid(12, 14, 4, 6, new Random(seed));
+            // Uniform traffic on half the grids makes cost ties common
+            if (seed % 2 == 0)
+                for (int y = 0; y < g.rows; y++)
+                    for (int x = 0; x < g.cols; x++)
+                        for (int d = 0; d < 4; d++)
+                            if (g.traffic(x, y, d) > 0) g.setTraffic(x, y, d, 1);
+            g.invalidateCaches();
+
+            StoreAssignment voronoi = StoreAssignment.voronoi(g, g.stores);
+            for (State dest : g.destinations) {
+                int bestCost = Integer.MAX_VALUE;
+                State bestStore = null;
+                for (State store : g.stores) {
+                    SearchResult r = DeliverySearch.solve(store, dest, g, "UC");
+                    if (r.cost >= 0 && r.cost < bestCost) {
+                        bestCost = r.cost;
+                        bestStore = store;
+                    }
+                }
+                assertEquals(bestStore, voronoi.storeFor(dest));
+                assertEquals(bestStore == null ? -1 : bestCost, voronoi.distanceTo(dest));
+            }
+        }
+    }
+
+    @Test
+    void testAssignOmitsUnreachableDestinations() {
+        Grid g = new Grid(1, 3);
+        g.stores.add(new State(0, 0));
+        g.destinations.add(new State(1, 0));
+        g.destinations.add(new State(2, 0));
+        g.setTraffic(0, 0, 3, 1); // only (0,0) -> (1,0) is open
+
+        for (String strategy : new String[] { "UC", "BF" }) {
+            assertEquals(1, StoreAssignment.assign(g, strategy).size());
+            assertEquals(new State(0, 0), StoreAssignment.assign(g, strategy).get(new State(1, 0)));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class StrategyPortfolioTest {
+
+    @Test
+    void testRaceReturnsOptimalRoutesAndCountsWins() {
+        StrategyPortfolio portfolio = new StrategyPortfolio(List.of("UC", "AS1", "AS2"));
+        for (int seed = 0; seed < 40; seed++) {
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(5 + rnd.nextInt(30), 5 + rnd.nextInt(30), 1, 1, rnd);
+            State start = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+            State goal = new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+            int optimal = IntGenericSearch.UCS(new DeliverySearch(start, goal, g)).cost;
+
+            SearchResult r = portfolio.race(new DeliverySearch(start, goal, g));
+            assertEquals(optimal, r.cost, "seed " + seed);
+            if (optimal > 0)
+                assertEquals(r.plan.split(",").length + 1, r.pathStates.size());
+        }
+
+        Map<String, Object> stats = portfolio.stats();
+        assertEquals(40L, stats.get("races"));
+        long wins = 0;
+        for (Object w : ((Map<?, ?>) stats.get("wins")).values())
+            wins += (Long) w;
+        assertEquals(40L, wins);
+    }
+
+    @Test
+    void testCancelledSearchStopsAndReportsRisingLowerBounds() {
+        Grid g = Grid.randomGrid(60, 60, 1, 1, new Random(1));
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(59, 59), g);
+        int optimal = IntGenericSearch.UCS(problem).cost;
+
+        List<Integer> bounds = new ArrayList<>();
+        SearchResult full = IntGenericSearch.cancellable(problem, 1, true, bound -> {
+            bounds.add(bound);
+            return false;
+        });
+        assertEquals(optimal, full.cost);
+        for (int i = 0; i < bounds.size(); i++) {
+            assertTrue(bounds.get(i) <= optimal);
+            if (i > 0)
+                assertTrue(bounds.get(i) >= bounds.get(i - 1));
+        }
+
+        int[] polls = { 0 };
+        assertNull(IntGenericSearch.cancellable(problem, 0, true, bound -> ++polls[0] == 3));
+        assertEquals(3, polls[0]);
+    }
+
+    @Test
+    void testFailingEngineFailsTheRaceInsteadOfReturningTheIncumbent() {
+        Grid g = Grid.randomGrid(30, 30, 1, 1, new Random(2));
+        // UC throws on its first expansion; AS2 (which reads trafficRangeMin) runs normally
+        ThreadLocal<Boolean> heuristicTwo = ThreadLocal.withInitial(() -> false);
+        DeliverySearch problem = new DeliverySearch(new State(0, 0), new State(29, 29), g) {
+            @Override
+            TrafficRangeMin trafficRangeMin() {
+                heuristicTwo.set(true);
+                return super.trafficRangeMin();
+            }
+
+            @Override
+            public int successors(int cell, int[] cells, int[] costs, byte[] actions) {
+                if (!heuristicTwo.get())
+                    throw new IllegalStateException("engine bug");
+                return super.successors(cell, cells, costs, actions);
+            }
+        };
+
+        StrategyPortfolio portfolio = new StrategyPortfolio(List.of("UC", "AS2"));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> portfolio.race(problem));
+        assertEquals("engine bug", e.getCause().getMessage());
+        assertEquals(0L, portfolio.stats().get("races"));
+    }
+
+    @Test
+    void testRejectsPortfoliosThatCannotProveOptimality() {
+        assertThrows(IllegalArgumentException.class, () -> new StrategyPortfolio(List.of("AS2")));
+        assertThrows(IllegalArgumentException.class, () -> new StrategyPortfolio(List.of("UC", "G1")));
+        assertThrows(IllegalArgumentException.class, () -> new StrategyPortfolio(List.of()));
+    }
+}
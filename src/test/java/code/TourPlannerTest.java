@@ -0,0 +1,111 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TourPlannerTest {
+
+    @Test
+    void testHeldKarpMatchesEveryOrdering() {
+        Random rnd = new Random(1);
+        for (int round = 0; round < 300; round++) {
+            int n = 1 + rnd.nextInt(7);
+            int[][] cost = randomCosts(n, rnd);
+            TourPlanner.Tour tour = TourPlanner.solve(cost, 0);
+            assertTrue(tour.exact);
+
+            long best = bestByPermutation(cost, new int[n - 1], 0, new boolean[n]);
+            if (best >= TourPlanner.INF)
+                assertFalse(tour.feasible());
+            else
+                assertEquals(best, tour.cost, "round " + round);
+            if (tour.feasible())
+                assertEquals(tour.cost, tourCost(cost, tour.order));
+        }
+    }
+
+    @Test
+    void testLocalSearchVisitsEveryDropOnce() {
+        Random rnd = new Random(2);
+        for (int n : new int[] { 17, 40, 120 }) {
+            int[][] cost = randomCosts(n, rnd);
+            TourPlanner.Tour tour = TourPlanner.solve(cost, 0);
+            assertFalse(tour.exact);
+            boolean[] seen = new boolean[n];
+            for (int node : tour.order) {
+                assertTrue(node > 0 && !seen[node]);
+                seen[node] = true;
+            }
+            assertEquals(n - 1, tour.order.length);
+            assertEquals(tourCost(cost, tour.order), tour.cost);
+        }
+    }
+
+    @Test
+    void testStoreTourLegsChainAndBeatRoundTrips() {
+        Grid g = Grid.randomGrid(25, 25, 1, 1, new Random(3));
+        State store = new State(12, 12);
+        Random rnd = new Random(4);
+        List<State> drops = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            drops.add(new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows)));
+        DistanceMatrix matrix = new DistanceMatrix(g, "UC");
+
+        TourPlanner.StoreTour tour = TourPlanner.forStore(matrix, store, drops, 0);
+        assertNotNull(tour);
+        assertTrue(tour.exact);
+        assertEquals(store, tour.stops.get(0));
+        assertEquals(store, tour.stops.get(tour.stops.size() - 1));
+        assertEquals(drops.size() + 1, tour.legs.size());
+
+        int sum = 0, roundTrips = 0;
+        for (int i = 0; i < tour.legs.size(); i++) {
+            SearchResult leg = tour.legs.get(i);
+            assertEquals(tour.stops.get(i), leg.pathStates.get(0));
+            assertEquals(tour.stops.get(i + 1), leg.pathStates.get(leg.pathStates.size() - 1));
+            sum += leg.cost;
+        }
+        for (State d : drops)
+            roundTrips += matrix.cost(store, d) + matrix.cost(d, store);
+        assertEquals(tour.cost, sum);
+        assertTrue(tour.cost <= roundTrips, tour.cost + " > " + roundTrips);
+    }
+
+    // About one pair in ten has no route
+    private static int[][] randomCosts(int n, Random rnd) {
+        int[][] cost = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                cost[i][j] = i == j ? 0 : rnd.nextInt(10) == 0 ? -1 : 1 + rnd.nextInt(50);
+        return cost;
+    }
+
+    private static long tourCost(int[][] cost, int[] order) {
+        long total = 0;
+        int prev = 0;
+        for (int node : order) {
+            total += cost[prev][node] < 0 ? TourPlanner.INF : cost[prev][node];
+            prev = node;
+        }
+        return total + (cost[prev][0] < 0 ? TourPlanner.INF : cost[prev][0]);
+    }
+
+    private static long bestByPermutation(int[][] cost, int[] order, int k, boolean[] used) {
+        if (k == order.length)
+            return tourCost(cost, order);
+        long best = Long.MAX_VALUE;
+        for (int node = 1; node < cost.length; node++) {
+            if (used[node])
+                continue;
+            used[node] = true;
+            order[k] = node;
+            best = Math.min(best, bestByPermutation(cost, order, k + 1, used));
+            used[node] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,137 @@
+package code;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TrafficPatchTest {
+
+    @Test
+    void testOnlyRoutesNearTheEditAreSearchedAgain() {
+        RouteCache.shared().clear();
+        Grid g = uniformGrid(30, 30);
+        State nearA = new State(0, 0), nearB = new State(3, 3);
+        State farA = new State(20, 20), farB = new State(26, 26);
+
+        SearchResult near = DeliverySearch.solve(nearA, nearB, g, "AS1");
+        SearchResult far = DeliverySearch.solve(farA, farB, g, "AS1");
+        SearchResult global = DeliverySearch.solve(nearA, nearB, g, "AS3"); // landmarks read the whole grid
+
+        Map<String, Object> summary = TrafficPatch.apply(g, List.of(new TrafficEdit(22, 22, CompiledGrid.RIGHT, 4)));
+        assertEquals(1, summary.get("changedRoads"));
+        assertEquals(1, summary.get("routesKept"));
+        assertEquals(2, summary.get("routesDropped"));
+
+        assertSame(near, DeliverySearch.solve(nearA, nearB, g, "AS1"));
+        assertNotSame(far, DeliverySearch.solve(farA, farB, g, "AS1"));
+        assertNotSame(global, DeliverySearch.solve(nearA, nearB, g, "AS3"));
+    }
+
+    @Test
+    void testKeptRoutesAndFieldsMatchAFreshSearch() {
+        for (int seed = 0; seed < 20; seed++) {
+            RouteCache.shared().clear();
+            DistanceFields.shared().clear();
+            Random rnd = new Random(seed);
+            Grid g = Grid.randomGrid(8 + rnd.nextInt(10), 8 + rnd.nextInt(10), 1, 1, rnd);
+            List<State[]> pairs = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                State[] p = { randomCell(g, rnd), randomCell(g, rnd) };
+                pairs.add(p);
+                DeliverySearch.solve(p[0], p[1], g, "UC");
+                DistanceFields.shared().field(g, p[1]);
+            }
+
+            List<TrafficEdit> edits = new ArrayList<>();
+            for (int i = 0; i < 3; i++)
+                edits.add(new TrafficEdit(rnd.nextInt(g.cols), rnd.nextInt(g.rows), rnd.nextInt(4), rnd.nextInt(5)));
+            TrafficPatch.apply(g, edits);
+
+            CompiledGrid fresh = CompiledGrid.compile(g);
+            for (State[] p : pairs) {
+                SearchResult cached = DeliverySearch.solve(p[0], p[1], g, "UC");
+                assertEquals(IntGenericSearch.UCS(new DeliverySearch(p[0], p[1], g)).cost, cached.cost, "seed " + seed);
+                assertArrayEquals(DistanceFields.reverseDijkstra(fresh, fresh.cellId(p[1])),
+                        DistanceFields.shared().field(g, p[1]), "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void testCheaperRoadThatImprovesNothingKeepsTheField() {
+        DistanceFields.shared().clear();
+        Grid g = uniformGrid(10, 10);
+        State goal = new State(9, 9);
+        int[] before = DistanceFields.shared().field(g, goal);
+
+        // Moving away from the goal cannot help it, however cheap
+        g.setTraffic(5, 5, CompiledGrid.LEFT, 2);
+        g.invalidateCaches();
+        int[] dearer = DistanceFields.shared().field(g, goal);
+        Map<String, Object> summary = TrafficPatch.apply(g, List.of(new TrafficEdit(5, 5, CompiledGrid.LEFT, 1)));
+        assertEquals(1, summary.get("fieldsKept"));
+        assertSame(dearer, DistanceFields.shared().field(g, goal));
+        assertArrayEquals(before, dearer);
+    }
+
+    @Test
+    void testOtherCopiesOfTheOldGridKeepTheirEntries() {
+        RouteCache.shared().clear();
+        DistanceFields.shared().clear();
+        Grid edited = uniformGrid(20, 20), copy = uniformGrid(20, 20);
+        State a = new State(0, 0), b = new State(3, 3);
+        SearchResult route = DeliverySearch.solve(a, b, edited, "AS1");
+        int[] field = DistanceFields.shared().field(edited, b);
+
+        Map<String, Object> summary = TrafficPatch.apply(edited, List.of(new TrafficEdit(15, 15, CompiledGrid.RIGHT, 4)));
+        assertEquals(1, summary.get("routesKept"));
+        assertEquals(1, summary.get("fieldsKept"));
+
+        assertSame(route, DeliverySearch.solve(a, b, edited, "AS1"));
+        assertSame(route, DeliverySearch.solve(a, b, copy, "AS1"));
+        assertSame(field, DistanceFields.shared().field(edited, b));
+        assertSame(field, DistanceFields.shared().field(copy, b));
+    }
+
+    @Test
+    void testRejectsEditsOutsideTheGrid() {
+        Grid g = uniformGrid(3, 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> TrafficPatch.apply(g, List.of(new TrafficEdit(3, 0, 0, 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> TrafficPatch.apply(g, List.of(new TrafficEdit(0, 0, 4, 1))));
+    }
+
+    @Test
+    void testRejectedPatchLeavesGridAndCacheAsTheyWere() {
+        RouteCache.shared().clear();
+        Grid g = uniformGrid(10, 10);
+        State a = new State(0, 0), b = new State(9, 0);
+        SearchResult before = DeliverySearch.solve(a, b, g, "UC");
+        long fingerprint = g.fingerprint();
+
+        assertThrows(IllegalArgumentException.class, () -> TrafficPatch.apply(g, List.of(
+                new TrafficEdit(3, 0, CompiledGrid.RIGHT, 500),
+                new TrafficEdit(4, 0, CompiledGrid.RIGHT, Grid.MAX_TRAFFIC + 1))));
+        assertEquals(1, g.traffic(3, 0, CompiledGrid.RIGHT));
+        assertEquals(fingerprint, g.fingerprint());
+        assertSame(before, DeliverySearch.solve(a, b, g, "UC"));
+    }
+
+    private static Grid uniformGrid(int rows, int cols) {
+        Grid g = new Grid(rows, cols);
+        for (int y = 0; y < rows; y++)
+            for (int x = 0; x < cols; x++)
+                for (int d = 0; d < 4; d++)
+                    g.setTraffic(x, y, d, 1);
+        return g;
+    }
+
+    private static State randomCell(Grid g, Random rnd) {
+        return new State(rnd.nextInt(g.cols), rnd.nextInt(g.rows));
+    }
+}